@@ -0,0 +1,83 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.binary.BinarySegmentReader;
+import io.github.edilib.edifact.binary.BinarySegmentWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing an interchange from text compared to decoding it from the binary form, both from memory.
+ * Throughput is given in megabytes of the text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinarySegmentBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1MB", "16MB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private ByteBuffer text;
+
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        interchange = SyntheticInterchange.of(syntax, size);
+        text = ByteBuffer.wrap(interchange.asString().getBytes(StandardCharsets.ISO_8859_1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SegmentReader reader = SegmentReader.of("benchmark", text, syntax.format);
+             BinarySegmentWriter writer = new BinarySegmentWriter(Channels.newChannel(out), syntax.format)) {
+            while (reader.hasNext()) {
+                writer.write(reader.next());
+            }
+        }
+        binary = out.toByteArray();
+    }
+
+    @Benchmark
+    public void parse(Throughput throughput, Blackhole blackhole) throws IOException {
+        SegmentReader reader = SegmentReader.of("benchmark", text, syntax.format);
+        while (reader.hasNext()) {
+            blackhole.consume(reader.next());
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void decode(Throughput throughput, Blackhole blackhole) throws IOException {
+        BinarySegmentReader reader = new BinarySegmentReader(Channels.newChannel(new ByteArrayInputStream(binary)));
+        while (reader.hasNext()) {
+            blackhole.consume(reader.next());
+        }
+        throughput.parsed(interchange);
+    }
+}
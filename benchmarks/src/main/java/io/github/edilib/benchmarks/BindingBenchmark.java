@@ -0,0 +1,129 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.Message;
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.binding.EdiGroup;
+import io.github.edilib.edifact.binding.EdiValue;
+import io.github.edilib.edifact.binding.MessageBinder;
+import io.github.edilib.edifact.binding.MessageDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the ORDERS messages of an interchange compared to reading and binding them to objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BindingBenchmark {
+
+    // message structure of D96A ORDERS, limited to the groups of the synthetic message
+    static final String ORDERS = "UNH M 1\n"
+            + "BGM M 1\n"
+            + "DTM M 35\n"
+            + "SG1 C 10\n"
+            + "  RFF M 1\n"
+            + "SG2 C 99\n"
+            + "  NAD M 1\n"
+            + "  SG5 C 5\n"
+            + "    CTA M 1\n"
+            + "    COM C 5\n"
+            + "SG7 C 5\n"
+            + "  CUX M 1\n"
+            + "SG25 C 200000\n"
+            + "  LIN M 1\n"
+            + "  PIA C 25\n"
+            + "  IMD C 99\n"
+            + "  QTY C 99\n"
+            + "  SG28 C 25\n"
+            + "    PRI M 1\n"
+            + "UNS M 1\n"
+            + "CNT C 10\n"
+            + "UNT M 1\n";
+
+    @Param({"1MB", "16MB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private MessageBinder<Order> binder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        interchange = SyntheticInterchange.of(Syntax.UNEDIFACT, size);
+        binder = MessageBinder.of(Order.class, MessageDefinition.parse("ORDERS", ORDERS));
+    }
+
+    @Benchmark
+    public void read(Throughput throughput, Blackhole blackhole) {
+        new SegmentReader("benchmark", interchange.openReader(), Syntax.UNEDIFACT.format).messages().forEach(blackhole::consume);
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void readAndBind(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (SegmentReader reader = new SegmentReader("benchmark", interchange.openReader(), Syntax.UNEDIFACT.format)) {
+            for (Message message : (Iterable<Message>) reader.messages()::iterator) {
+                blackhole.consume(binder.bind(message));
+            }
+        }
+        throughput.parsed(interchange);
+    }
+
+    public static class Order {
+        @EdiValue(segment = "BGM", element = 1)
+        String number;
+        @EdiValue(segment = "DTM", qualifier = "137", element = 0, component = 1)
+        String date;
+        @EdiValue(segment = "CNT", qualifier = "2", element = 0, component = 1)
+        int lineCount;
+        @EdiGroup("SG2")
+        List<Party> parties;
+        @EdiGroup("SG25")
+        List<Line> lines;
+    }
+
+    public static class Party {
+        @EdiValue(segment = "NAD", element = 0)
+        String qualifier;
+        @EdiValue(segment = "NAD", element = 1)
+        String id;
+        @EdiValue(segment = "NAD", element = 3)
+        String name;
+    }
+
+    public static class Line {
+        @EdiValue(segment = "LIN", element = 0)
+        int number;
+        @EdiValue(segment = "LIN", element = 2)
+        String article;
+        @EdiValue(segment = "QTY", qualifier = "21", element = 0, component = 1)
+        BigDecimal quantity;
+        @EdiGroup("SG28")
+        List<Price> prices;
+    }
+
+    public static class Price {
+        @EdiValue(segment = "PRI", element = 0, component = 1)
+        BigDecimal amount;
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.SegmentReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end parse of an interchange file on disk, including charset decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileParseBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "1GB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        interchange = SyntheticInterchange.of(syntax, size);
+        file = Files.createTempFile("edilib-benchmark-", ".edi");
+        interchange.writeTo(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void bufferedReader(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (Reader rd = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            parse(rd, blackhole);
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void inputStreamReader(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (Reader rd = new InputStreamReader(Files.newInputStream(file), StandardCharsets.ISO_8859_1)) {
+            parse(rd, blackhole);
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void mappedFile(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (SegmentReader reader = SegmentReader.open(file, syntax.format)) {
+            parse(reader, blackhole);
+        }
+        throughput.parsed(interchange);
+    }
+
+    private void parse(Reader rd, Blackhole blackhole) throws IOException {
+        parse(new SegmentReader(file.getFileName().toString(), rd, syntax.format), blackhole);
+    }
+
+    private void parse(SegmentReader reader, Blackhole blackhole) throws IOException {
+        while (reader.hasNext()) {
+            blackhole.consume(reader.next());
+        }
+    }
+}
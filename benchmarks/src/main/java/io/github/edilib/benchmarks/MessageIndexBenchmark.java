@@ -0,0 +1,75 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.MessageIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the message index of a file, and reading a random message through it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageIndexBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1MB", "16MB", "1GB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private Path file;
+
+    private MessageIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        interchange = SyntheticInterchange.of(syntax, size);
+        file = Files.createTempFile("edilib-benchmark-", ".edi");
+        interchange.writeTo(file);
+        index = MessageIndex.build(file, syntax.format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+        Files.deleteIfExists(MessageIndex.sidecarOf(file));
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void build(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (MessageIndex built = MessageIndex.build(file, syntax.format)) {
+            blackhole.consume(built.size());
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void randomMessage(Blackhole blackhole) throws IOException {
+        blackhole.consume(index.readMessage(ThreadLocalRandom.current().nextInt(index.size())));
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.ParallelMessageReader;
+import io.github.edilib.edifact.SegmentReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential parse of a file compared to parsing its messages in parallel on the common pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelMessageBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1MB", "16MB", "1GB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        interchange = SyntheticInterchange.of(syntax, size);
+        file = Files.createTempFile("edilib-benchmark-", ".edi");
+        interchange.writeTo(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void sequential(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (SegmentReader reader = SegmentReader.open(file, syntax.format)) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+            }
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void parallelOrdered(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (ParallelMessageReader reader = ParallelMessageReader.open(file, syntax.format)) {
+            reader.forEachOrdered(ForkJoinPool.commonPool(), blackhole::consume);
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void parallelUnordered(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (ParallelMessageReader reader = ParallelMessageReader.open(file, syntax.format)) {
+            reader.forEach(ForkJoinPool.commonPool(), blackhole::consume);
+        }
+        throughput.parsed(interchange);
+    }
+}
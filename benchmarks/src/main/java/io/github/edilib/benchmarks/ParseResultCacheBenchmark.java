@@ -0,0 +1,67 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.ParseResultCache;
+import io.github.edilib.edifact.SegmentReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a retransmitted interchange again compared to hashing it and taking the cached result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseResultCacheBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"64KB", "1MB", "16MB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private ByteBuffer bytes;
+
+    private ParseResultCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        interchange = SyntheticInterchange.of(syntax, size);
+        bytes = ByteBuffer.wrap(interchange.asString().getBytes(StandardCharsets.ISO_8859_1));
+        cache = new ParseResultCache(Long.MAX_VALUE);
+        cache.read("benchmark", bytes, syntax.format);
+    }
+
+    @Benchmark
+    public Object readAll(Throughput throughput) throws IOException {
+        Object segments = SegmentReader.of("benchmark", bytes, syntax.format).readAll();
+        throughput.parsed(interchange);
+        return segments;
+    }
+
+    @Benchmark
+    public Object readCached(Throughput throughput) throws IOException {
+        Object compact = cache.read("benchmark", bytes, syntax.format);
+        throughput.parsed(interchange);
+        return compact;
+    }
+}
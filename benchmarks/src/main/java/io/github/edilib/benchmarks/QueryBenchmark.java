@@ -0,0 +1,64 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.EdiQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selecting routing values, which stops after the first message, compared to a selector that
+ * matches nothing and so skips through the whole interchange.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1MB", "16MB", "1GB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private EdiQuery routing;
+
+    private EdiQuery missing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        interchange = SyntheticInterchange.of(syntax, size);
+        routing = syntax == Syntax.UNEDIFACT
+                ? EdiQuery.compile("UNB[2:1]", "UNB[3:1]", "UNH[2:1]", "NAD[BY]/2:1")
+                : EdiQuery.compile("ISA/6", "ISA/8", "ST/1", "N1[ST]/4");
+        missing = syntax == Syntax.UNEDIFACT ? EdiQuery.compile("FTX[AAI]/4:1") : EdiQuery.compile("MSG/1");
+    }
+
+    @Benchmark
+    public void routing(Blackhole blackhole) throws IOException {
+        blackhole.consume(routing.execute("benchmark", interchange.openReader(), syntax.format));
+    }
+
+    @Benchmark
+    public void skipAll(Throughput throughput, Blackhole blackhole) throws IOException {
+        blackhole.consume(missing.execute("benchmark", interchange.openReader(), syntax.format));
+        throughput.parsed(interchange);
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.CompactInterchange;
+import io.github.edilib.edifact.ReaderOptions;
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.ValueCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SegmentReader#readAll()} keeps the whole interchange on the heap, so sizes stop well below
+ * the streaming benchmarks; pass larger sizes together with a matching -Xmx.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadAllBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1KB", "64KB", "1MB", "16MB"})
+    public String size;
+
+    @Param({"READER", "NONE"})
+    public ValueCache valueCache;
+
+    private SyntheticInterchange interchange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        interchange = SyntheticInterchange.of(syntax, size);
+    }
+
+    @Benchmark
+    public Object readAll(Throughput throughput) throws IOException {
+        SegmentReader reader = new SegmentReader("benchmark", interchange.openReader(), syntax.format, ReaderOptions.DEFAULT.withValueCache(valueCache));
+        Object segments = reader.readAll();
+        throughput.parsed(interchange);
+        return segments;
+    }
+
+    @Benchmark
+    public Object readCompact(Throughput throughput) throws IOException {
+        Object interchange = CompactInterchange.read("benchmark", this.interchange.openReader(), syntax.format);
+        throughput.parsed(this.interchange);
+        return interchange;
+    }
+}
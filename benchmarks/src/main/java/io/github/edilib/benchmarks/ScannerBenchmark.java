@@ -0,0 +1,63 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.internal.scanner.Scanner;
+import io.github.edilib.edifact.internal.scanner.ScannerToken;
+import io.github.edilib.edifact.internal.scanner.ScannerTokenType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScannerBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "1GB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        interchange = SyntheticInterchange.of(syntax, size);
+    }
+
+    @Benchmark
+    public void next(Throughput throughput, Blackhole blackhole) throws IOException {
+        Scanner scanner = new Scanner("benchmark", interchange.openReader(), syntax.format);
+        ScannerToken token;
+        do {
+            token = scanner.next();
+            blackhole.consume(token);
+        } while (token.type != ScannerTokenType.EOF);
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void peekAndNext(Throughput throughput, Blackhole blackhole) throws IOException {
+        Scanner scanner = new Scanner("benchmark", interchange.openReader(), syntax.format);
+        while (scanner.peek().type != ScannerTokenType.EOF) {
+            blackhole.consume(scanner.next());
+        }
+        throughput.parsed(interchange);
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.CountingParserMetrics;
+import io.github.edilib.edifact.EdiEventReader;
+import io.github.edilib.edifact.EdiHandler;
+import io.github.edilib.edifact.IncrementalEventReader;
+import io.github.edilib.edifact.ReaderOptions;
+import io.github.edilib.edifact.SegmentReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SegmentReaderBenchmark {
+
+    // typical size of a network read
+    private static final int CHUNK_SIZE = 1500;
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "1GB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        interchange = SyntheticInterchange.of(syntax, size);
+    }
+
+    @Benchmark
+    public void next(Throughput throughput, Blackhole blackhole) throws IOException {
+        SegmentReader reader = new SegmentReader("benchmark", interchange.openReader(), syntax.format);
+        while (reader.hasNext()) {
+            blackhole.consume(reader.next());
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void nextWithMetrics(Throughput throughput, Blackhole blackhole) throws IOException {
+        CountingParserMetrics metrics = new CountingParserMetrics();
+        SegmentReader reader = new SegmentReader("benchmark", interchange.openReader(), syntax.format, ReaderOptions.DEFAULT.withMetrics(metrics));
+        while (reader.hasNext()) {
+            blackhole.consume(reader.next());
+        }
+        blackhole.consume(metrics.getMessages());
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void peekAndNext(Throughput throughput, Blackhole blackhole) throws IOException {
+        SegmentReader reader = new SegmentReader("benchmark", interchange.openReader(), syntax.format);
+        while (reader.hasNext()) {
+            blackhole.consume(reader.peek());
+            blackhole.consume(reader.next());
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void stream(Throughput throughput, Blackhole blackhole) {
+        new SegmentReader("benchmark", interchange.openReader(), syntax.format).stream().forEach(blackhole::consume);
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void parallelMessageStream(Throughput throughput, Blackhole blackhole) {
+        new SegmentReader("benchmark", interchange.openReader(), syntax.format).messages().parallel().forEach(blackhole::consume);
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void incrementalEvents(Throughput throughput, Blackhole blackhole) throws IOException {
+        IncrementalEventReader reader = new IncrementalEventReader("benchmark", syntax.format, new EdiHandler() {
+            @Override
+            public void startSegment(CharSequence tag) {
+                blackhole.consume(tag.length());
+            }
+        });
+        Reader input = interchange.openReader();
+        char[] chunk = new char[CHUNK_SIZE];
+        int count;
+        while ((count = input.read(chunk)) != -1) {
+            reader.feed(chunk, 0, count);
+        }
+        reader.endOfInput();
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void events(Throughput throughput, Blackhole blackhole) throws IOException {
+        EdiEventReader reader = new EdiEventReader("benchmark", interchange.openReader(), syntax.format);
+        reader.readAll(new EdiHandler() {
+            @Override
+            public void startSegment(CharSequence tag) {
+                blackhole.consume(tag.length());
+            }
+
+            @Override
+            public void element(int elementIndex, CharSequence value) {
+                blackhole.consume(value.length());
+            }
+
+            @Override
+            public void component(int elementIndex, int componentIndex, CharSequence value) {
+                blackhole.consume(value.length());
+            }
+        });
+        throughput.parsed(interchange);
+    }
+}
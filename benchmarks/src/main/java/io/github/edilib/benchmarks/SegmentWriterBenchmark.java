@@ -0,0 +1,109 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.SegmentWriter;
+import io.github.edilib.edifact.WriterOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing of previously read segments, to compare with the reading throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SegmentWriterBenchmark {
+
+    @Param({"UNEDIFACT", "X12"})
+    public Syntax syntax;
+
+    @Param({"1KB", "64KB", "1MB", "16MB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private List<Segment> segments;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        interchange = SyntheticInterchange.of(syntax, size);
+        segments = new SegmentReader("benchmark", interchange.openReader(), syntax.format).readAll();
+    }
+
+    @Benchmark
+    public void writer(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (SegmentWriter writer = new SegmentWriter(new DiscardingWriter(blackhole), syntax.format)) {
+            writer.writeAll(segments);
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void outputStream(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (SegmentWriter writer = SegmentWriter.of(new DiscardingOutputStream(blackhole), syntax.format, StandardCharsets.ISO_8859_1, WriterOptions.DEFAULT)) {
+            writer.writeAll(segments);
+        }
+        throughput.parsed(interchange);
+    }
+
+    private static class DiscardingWriter extends Writer {
+        private final Blackhole blackhole;
+
+        DiscardingWriter(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            blackhole.consume(cbuf[off]);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DiscardingOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        DiscardingOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b[off]);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.Format;
+
+public enum Syntax {
+    UNEDIFACT(Format.UNEDIFACT_DEFAULT,
+            "UNA:+.? '"
+                    + "UNB+UNOC:3+SENDER:14+RECEIVER:14+211014:1200+1'",
+            "UNH+1+ORDERS:D:96A:UN'"
+                    + "BGM+220+4500265532+9'"
+                    + "DTM+137:20190425:102'"
+                    + "RFF+CT:CompanyX'"
+                    + "NAD+BY+2010::91++Buyer ?+ Sons Ltd+Main Street 1+Springfield++12345+US'"
+                    + "CTA+OC+2010:G. Smith'"
+                    + "COM+044-1010605:TE*044-1010662:FX'"
+                    + "CUX+2:EUR:9'"
+                    + "LIN+1++4000862141404:SRS'"
+                    + "PIA+1+ABC1234:IN'"
+                    + "IMD+F++:::Widget 10?:1 ratio'"
+                    + "QTY+21:48'"
+                    + "PRI+AAA:12.34'"
+                    + "UNS+S'"
+                    + "CNT+2:1'"
+                    + "UNT+16+1'",
+            "UNZ+%d+1'"),
+    X12(Format.X12_DEFAULT,
+            "ISA*00*          *00*          *ZZ*SENDERISA      *ZZ*RECEIVERISA    *960807*1548*U*00401*000000020*0*T*>~"
+                    + "GS*PO*SENDERDEPT*007326879*19960807*1548*1*X*004010~",
+            "ST*850*0001~"
+                    + "BEG*00*SA*A99999-01**19970214~"
+                    + "REF*VR*54321~"
+                    + "ITD*01*3*1**15**16~"
+                    + "DTM*002*19971219~"
+                    + "N1*ST*BUYSNACKS PORT*9*1223334445~"
+                    + "N3*1000 N. SAMPLE HIGHWAY~"
+                    + "N4*ATHENS*GA*30603~"
+                    + "PO1*1*16*CA*12.34**UA*002840022222~"
+                    + "PID*F****CRUNCHY CHIPS LSS~"
+                    + "PO4*48*7.8*ON~"
+                    + "CTT*1~"
+                    + "SE*13*0001~",
+            "GE*%d*1~"
+                    + "IEA*1*000000020~");
+
+    public final Format format;
+    final String header;
+    final String message;
+    final String trailerTemplate;
+
+    Syntax(Format format, String header, String message, String trailerTemplate) {
+        this.format = format;
+        this.header = header;
+        this.message = message;
+        this.trailerTemplate = trailerTemplate;
+    }
+
+    int segmentCount(String s) {
+        int count = 0;
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            if (format.hasReleaseCharacter() && c == format.releaseCharacter) {
+                ++i;
+            } else if (c == format.segmentTerminator) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.edilib.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A generated interchange of roughly the requested size, made of a header, a repeated message and a trailer.
+ * The content is produced on the fly, so even gigabyte sized interchanges need no memory.
+ */
+public class SyntheticInterchange {
+
+    public final Syntax syntax;
+    public final long messageCount;
+    public final long length;
+    public final long segmentCount;
+    private final char[] header;
+    private final char[] message;
+    private final char[] trailer;
+
+    public static SyntheticInterchange of(Syntax syntax, String size) {
+        return new SyntheticInterchange(syntax, parseSize(size));
+    }
+
+    public SyntheticInterchange(Syntax syntax, long targetLength) {
+        this.syntax = syntax;
+        this.header = syntax.header.toCharArray();
+        this.message = syntax.message.toCharArray();
+        long trailerLength = String.format(syntax.trailerTemplate, 1).length();
+        this.messageCount = Math.max(1, (targetLength - header.length - trailerLength) / message.length);
+        this.trailer = String.format(syntax.trailerTemplate, messageCount).toCharArray();
+        this.length = header.length + messageCount * message.length + trailer.length;
+        int headerSegments = syntax.segmentCount(syntax.header) - (syntax.header.startsWith("UNA") ? 1 : 0);
+        this.segmentCount = headerSegments
+                + messageCount * syntax.segmentCount(syntax.message)
+                + syntax.segmentCount(new String(trailer));
+    }
+
+    public double megabytes() {
+        return length / (1024.0d * 1024.0d);
+    }
+
+    public Reader openReader() {
+        return new SyntheticReader();
+    }
+
+    public String asString() {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Interchange too large for a string: " + length + " chars.");
+        }
+
+        StringBuilder buf = new StringBuilder((int) length);
+        buf.append(header);
+        for (long i = 0; i < messageCount; ++i) {
+            buf.append(message);
+        }
+        buf.append(trailer);
+        return buf.toString();
+    }
+
+    public void writeTo(Path path) throws IOException {
+        try (Writer wr = Files.newBufferedWriter(path, StandardCharsets.ISO_8859_1);
+             Reader rd = openReader()) {
+            char[] buf = new char[64 * 1024];
+            int count;
+            while ((count = rd.read(buf, 0, buf.length)) != -1) {
+                wr.write(buf, 0, count);
+            }
+        }
+    }
+
+    static long parseSize(String size) {
+        String s = size.trim().toUpperCase();
+        long factor = 1;
+        if (s.endsWith("GB")) {
+            factor = 1024L * 1024L * 1024L;
+        } else if (s.endsWith("MB")) {
+            factor = 1024L * 1024L;
+        } else if (s.endsWith("KB")) {
+            factor = 1024L;
+        }
+        if (factor != 1) {
+            s = s.substring(0, s.length() - 2);
+        }
+        return Long.parseLong(s.trim()) * factor;
+    }
+
+    private class SyntheticReader extends Reader {
+        private char[] current = header;
+        private int offset = 0;
+        private long messagesLeft = messageCount;
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+
+            while (offset == current.length) {
+                if (!nextPart()) {
+                    return -1;
+                }
+            }
+
+            int count = Math.min(len, current.length - offset);
+            System.arraycopy(current, offset, cbuf, off, count);
+            offset += count;
+            return count;
+        }
+
+        private boolean nextPart() {
+            if (current == trailer) {
+                return false;
+            }
+
+            if (messagesLeft > 0) {
+                messagesLeft--;
+                current = message;
+            } else {
+                current = trailer;
+            }
+            offset = 0;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            current = trailer;
+            offset = trailer.length;
+        }
+    }
+}
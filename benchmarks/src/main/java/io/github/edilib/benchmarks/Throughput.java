@@ -0,0 +1,31 @@
+package io.github.edilib.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results reported next to the primary score, normalized to the benchmark time unit:
+ * megabytes and segments per second.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+    public double megabytes;
+
+    public long segments;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+        segments = 0;
+    }
+
+    void parsed(SyntheticInterchange interchange) {
+        megabytes += interchange.megabytes();
+        segments += interchange.segmentCount;
+    }
+}
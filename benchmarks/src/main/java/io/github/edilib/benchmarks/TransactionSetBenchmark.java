@@ -0,0 +1,112 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.x12.HierarchicalLevel;
+import io.github.edilib.edifact.x12.TransactionSet;
+import io.github.edilib.edifact.x12.TransactionSetReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a single large 856 transaction set as flat segments compared to streaming its
+ * shipment, order, pack and item levels and to reading it as a whole tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionSetBenchmark {
+
+    @Param({"1MB", "16MB"})
+    public String size;
+
+    private String input;
+
+    private double megabytes;
+
+    private long segments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long target = SyntheticInterchange.of(Syntax.X12, size).length;
+        StringBuilder text = new StringBuilder("ISA*00*          *00*          *ZZ*SENDER         *ZZ*RECEIVER       *210101*1200*U*00401*000000001*0*P*>~"
+                + "GS*SH*SENDER*RECEIVER*20210101*1200*1*X*004010~ST*856*0001~BSN*00*SHIP1*20210101*1200~HL*1**S~TD1*CTN*2~");
+        int id = 2;
+        segments = 6;
+        while (text.length() < target) {
+            int order = id++;
+            text.append("HL*").append(order).append("*1*O~PRF*PO").append(order).append("~");
+            for (int pack = 0; pack < 4; ++pack) {
+                int packId = id++;
+                text.append("HL*").append(packId).append('*').append(order).append("*P~MAN*GM*").append(packId).append('~');
+                text.append("HL*").append(id++).append('*').append(packId).append("*I~LIN**VP*ITEM").append(pack).append("~SN1**10*EA~");
+            }
+            segments += 2 + 4 * 5;
+        }
+        text.append("CTT*").append(id - 1).append("~SE*").append(segments).append("*0001~GE*1*1~IEA*1*000000001~");
+        segments += 4;
+        input = text.toString();
+        megabytes = input.length() / (1024.0 * 1024.0);
+    }
+
+    @Benchmark
+    public void segments(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (SegmentReader reader = openReader()) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+            }
+        }
+        parsed(throughput);
+    }
+
+    @Benchmark
+    public void streamLevels(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (TransactionSetReader reader = new TransactionSetReader(openReader())) {
+            while (reader.nextTransactionSet() != null) {
+                HierarchicalLevel level;
+                while ((level = reader.nextLevel()) != null) {
+                    blackhole.consume(level);
+                }
+            }
+        }
+        parsed(throughput);
+    }
+
+    @Benchmark
+    public void readTree(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (TransactionSetReader reader = new TransactionSetReader(openReader())) {
+            TransactionSet set;
+            while ((set = reader.readTransactionSet()) != null) {
+                blackhole.consume(set);
+            }
+        }
+        parsed(throughput);
+    }
+
+    private SegmentReader openReader() {
+        return new SegmentReader("benchmark", new StringReader(input), Format.X12_DEFAULT);
+    }
+
+    private void parsed(Throughput throughput) {
+        throughput.megabytes += megabytes;
+        throughput.segments += segments;
+    }
+}
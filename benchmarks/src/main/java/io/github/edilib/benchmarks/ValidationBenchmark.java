@@ -0,0 +1,79 @@
+package io.github.edilib.benchmarks;
+
+import io.github.edilib.edifact.ParseError;
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.binding.MessageDefinition;
+import io.github.edilib.edifact.validation.ControlCountRule;
+import io.github.edilib.edifact.validation.SegmentValidator;
+import io.github.edilib.edifact.validation.StructureRule;
+import io.github.edilib.edifact.validation.ValueRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the segments of an interchange compared to reading and validating them with control
+ * counts, message structure and code lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"1MB", "16MB"})
+    public String size;
+
+    private SyntheticInterchange interchange;
+
+    private MessageDefinition definition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        interchange = SyntheticInterchange.of(Syntax.UNEDIFACT, size);
+        definition = MessageDefinition.parse("ORDERS", BindingBenchmark.ORDERS);
+    }
+
+    @Benchmark
+    public void read(Throughput throughput, Blackhole blackhole) throws IOException {
+        try (SegmentReader reader = new SegmentReader("benchmark", interchange.openReader(), Syntax.UNEDIFACT.format)) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+            }
+        }
+        throughput.parsed(interchange);
+    }
+
+    @Benchmark
+    public void readAndValidate(Throughput throughput, Blackhole blackhole) throws IOException {
+        SegmentReader reader = new SegmentReader("benchmark", interchange.openReader(), Syntax.UNEDIFACT.format);
+        List<ParseError> errors = SegmentValidator.validate(reader,
+                new ControlCountRule(),
+                new StructureRule(definition),
+                ValueRule.mandatoryCode("BGM", 0, 0, Arrays.asList("105", "220", "221", "224", "226", "227", "228")),
+                ValueRule.mandatoryCode("NAD", 0, 0, Arrays.asList("BY", "SU", "DP", "IV", "ST")),
+                ValueRule.mandatoryCode("QTY", 0, 0, Arrays.asList("1", "12", "21", "46", "47", "192")));
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Unexpected validation errors: " + errors);
+        }
+        blackhole.consume(errors);
+        throughput.parsed(interchange);
+    }
+}
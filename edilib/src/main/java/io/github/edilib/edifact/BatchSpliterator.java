@@ -0,0 +1,75 @@
+package io.github.edilib.edifact;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a sequential source. Splitting reads ahead a batch of growing size into
+ * memory, which can then be processed in parallel while the rest is still read. Batches only end
+ * after an item that {@link #endsBatch(Object) ends a batch}, so that related items stay together.
+ */
+abstract class BatchSpliterator<T> implements Spliterator<T> {
+
+    static final int BATCH_UNIT = 1 << 10;
+    static final int MAX_BATCH = 1 << 25;
+
+    private int batch = 0;
+
+    /**
+     * @return the next item or null at end of input
+     */
+    protected abstract T read() throws IOException;
+
+    protected abstract boolean endsBatch(T item);
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        T item = readUnchecked();
+        if (item == null) {
+            return false;
+        }
+        action.accept(item);
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int size = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+        List<T> items = new ArrayList<>();
+        T item;
+        while ((item = readUnchecked()) != null) {
+            items.add(item);
+            if (items.size() >= size && (endsBatch(item) || items.size() >= MAX_BATCH)) {
+                break;
+            }
+        }
+        if (items.isEmpty()) {
+            return null;
+        }
+
+        batch = items.size();
+        return items.spliterator();
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    private T readUnchecked() {
+        try {
+            return read();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
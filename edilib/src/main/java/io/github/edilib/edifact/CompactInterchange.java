@@ -0,0 +1,406 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.text.CharArrayView;
+import io.github.edilib.edifact.internal.text.Numbers;
+import io.github.edilib.edifact.internal.text.StringCache;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Memory saving alternative to a list of {@link Segment segments} for keeping interchanges in
+ * memory. All value texts are kept in one array, the structure in a few int arrays:
+ * <ul>
+ *     <li>each value is the end offset of its text; values are stored one after the other, so
+ *     a value starts where the previous one ends,</li>
+ *     <li>each segment is a shared tag name, the index of its first value and of its first data
+ *     element,</li>
+ *     <li>each data element is the index of its first value and its kind.</li>
+ * </ul>
+ * Tag components are the values before the first data element. Texts are stored as Latin-1 bytes
+ * as long as no char beyond it is seen, which halves the size for most interchanges.
+ * <p>
+ * {@link #get(int)} returns a flyweight segment that reads from the arrays; its values are
+ * created on access, so keep them only as long as needed.
+ */
+public final class CompactInterchange {
+
+    private static final byte SIMPLE = 0;
+    private static final byte COMPONENT = 1;
+    private static final byte REPETITION = 2;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int TAG_CACHE_SIZE = 256;
+    private static final int ARRAY_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 4;
+
+    // either of them holds the texts
+    private final byte[] latin1;
+    private final char[] chars;
+    private final int[] valueEnds;
+    private final String[] segmentNames;
+    // one entry more than segments, the last one marks the end of the values
+    private final int[] segmentValues;
+    private final int[] segmentElements;
+    private final int segmentCount;
+    private final int[] elementValues;
+    private final byte[] elementKinds;
+    private final boolean numericInference;
+    private final char decimalMark;
+
+    private CompactInterchange(Builder builder, boolean numericInference, char decimalMark) {
+        this.latin1 = builder.latin1 != null ? Arrays.copyOf(builder.latin1, builder.textLength) : null;
+        this.chars = builder.chars != null ? Arrays.copyOf(builder.chars, builder.textLength) : null;
+        this.valueEnds = Arrays.copyOf(builder.valueEnds, builder.valueCount);
+        this.segmentNames = Arrays.copyOf(builder.segmentNames, builder.segmentCount);
+        this.segmentValues = Arrays.copyOf(builder.segmentValues, builder.segmentCount + 1);
+        this.segmentValues[builder.segmentCount] = builder.valueCount;
+        this.segmentElements = Arrays.copyOf(builder.segmentElements, builder.segmentCount + 1);
+        this.segmentElements[builder.segmentCount] = builder.elementCount;
+        this.segmentCount = builder.segmentCount;
+        this.elementValues = Arrays.copyOf(builder.elementValues, builder.elementCount);
+        this.elementKinds = Arrays.copyOf(builder.elementKinds, builder.elementCount);
+        this.numericInference = numericInference;
+        this.decimalMark = decimalMark;
+    }
+
+    public static CompactInterchange read(String filename, Reader rd, Format format) throws IOException {
+        return read(filename, rd, format, ReaderOptions.DEFAULT);
+    }
+
+    public static CompactInterchange read(String filename, Reader rd, Format format, ReaderOptions options) throws IOException {
+        try (EdiEventReader reader = new EdiEventReader(filename, rd, format, options)) {
+            return read(reader, options);
+        }
+    }
+
+    /**
+     * Reads the remaining segments of the reader. The options tell whether numbers are inferred
+     * when values are accessed.
+     */
+    public static CompactInterchange read(EdiEventReader reader, ReaderOptions options) throws IOException {
+        Builder builder = new Builder();
+        reader.readAll(builder);
+        return new CompactInterchange(builder, options.numericInference, reader.format().decimalMark);
+    }
+
+    public int size() {
+        return segmentCount;
+    }
+
+    /**
+     * @return the approximate heap size of the arrays, not counting the shared tag names
+     */
+    public long memorySize() {
+        // headers of the up to eight arrays
+        long size = ARRAY_OVERHEAD * 8L;
+        size += latin1 != null ? latin1.length : 0;
+        size += chars != null ? 2L * chars.length : 0;
+        size += 4L * valueEnds.length;
+        size += (long) REFERENCE_SIZE * segmentNames.length;
+        size += 4L * (segmentValues.length + segmentElements.length + elementValues.length);
+        size += elementKinds.length;
+        return size;
+    }
+
+    public Segment get(int index) {
+        if (index < 0 || index >= segmentCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + segmentCount + ".");
+        }
+        return new CompactSegment(index);
+    }
+
+    /**
+     * @return a view of all segments
+     */
+    public List<Segment> segments() {
+        return new SegmentList();
+    }
+
+    private int valuesEnd(int segment) {
+        return segmentValues[segment + 1];
+    }
+
+    private int tagComponentsEnd(int segment) {
+        int firstElement = segmentElements[segment];
+        return firstElement < segmentElements[segment + 1] ? elementValues[firstElement] : valuesEnd(segment);
+    }
+
+    private int elementValuesEnd(int segment, int element) {
+        return element + 1 < segmentElements[segment + 1] ? elementValues[element + 1] : valuesEnd(segment);
+    }
+
+    private int valueStart(int value) {
+        return value == 0 ? 0 : valueEnds[value - 1];
+    }
+
+    private SimpleValue simpleValue(int value) {
+        int start = valueStart(value);
+        int length = valueEnds[value] - start;
+        String stringValue = latin1 != null ? new String(latin1, start, length, StandardCharsets.ISO_8859_1) : new String(chars, start, length);
+        if (numericInference) {
+            return new SimpleValue(stringValue, Numbers.parseInteger(stringValue), Numbers.parseDecimal(stringValue, decimalMark), decimalMark);
+        }
+        return new SimpleValue(stringValue, null, null, decimalMark);
+    }
+
+    private Value dataElement(int segment, int element) {
+        int first = elementValues[element];
+        switch (elementKinds[element]) {
+            case SIMPLE:
+                return simpleValue(first);
+            case COMPONENT:
+                return new ComponentValue(new SimpleValueList(first, elementValuesEnd(segment, element)));
+            case REPETITION:
+                return new RepetitionValue(new SimpleValueList(first, elementValuesEnd(segment, element)));
+            default:
+                throw new IllegalStateException("Unknown element kind " + elementKinds[element] + ".");
+        }
+    }
+
+    private class CompactSegment extends Segment {
+        private final int index;
+
+        CompactSegment(int index) {
+            super(null, null);
+            this.index = index;
+        }
+
+        @Override
+        public Tag getTag() {
+            return new CompactTag(index);
+        }
+
+        @Override
+        public List<Value> getDataElements() {
+            return new DataElementList(index);
+        }
+    }
+
+    private class CompactTag extends Tag {
+        private final int segment;
+
+        CompactTag(int segment) {
+            super(null, null);
+            this.segment = segment;
+        }
+
+        @Override
+        public String getName() {
+            return segmentNames[segment];
+        }
+
+        @Override
+        public List<SimpleValue> getComponentValues() {
+            return new SimpleValueList(segmentValues[segment], tagComponentsEnd(segment));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s,%s", getName(), getComponentValues());
+        }
+    }
+
+    private class SegmentList extends AbstractList<Segment> implements RandomAccess {
+        @Override
+        public Segment get(int index) {
+            return CompactInterchange.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return segmentCount;
+        }
+    }
+
+    private class DataElementList extends AbstractList<Value> implements RandomAccess {
+        private final int segment;
+
+        DataElementList(int segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        public Value get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size() + ".");
+            }
+            return dataElement(segment, segmentElements[segment] + index);
+        }
+
+        @Override
+        public int size() {
+            return segmentElements[segment + 1] - segmentElements[segment];
+        }
+    }
+
+    private class SimpleValueList extends AbstractList<SimpleValue> implements RandomAccess {
+        private final int from;
+        private final int to;
+
+        SimpleValueList(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public SimpleValue get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size() + ".");
+            }
+            return simpleValue(from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Appends the events of a reader to growing arrays.
+     */
+    private static class Builder implements EdiHandler {
+        private final StringCache tags = new StringCache(TAG_CACHE_SIZE);
+        private byte[] latin1 = new byte[INITIAL_CAPACITY * 8];
+        private char[] chars;
+        private int textLength;
+        private int[] valueEnds = new int[INITIAL_CAPACITY];
+        private int valueCount;
+        private String[] segmentNames = new String[INITIAL_CAPACITY];
+        private int[] segmentValues = new int[INITIAL_CAPACITY];
+        private int[] segmentElements = new int[INITIAL_CAPACITY];
+        private int segmentCount;
+        private int[] elementValues = new int[INITIAL_CAPACITY];
+        private byte[] elementKinds = new byte[INITIAL_CAPACITY];
+        private int elementCount;
+        private boolean inSegment;
+
+        @Override
+        public void startSegment(CharSequence tag) {
+            if (segmentCount + 1 >= segmentValues.length) {
+                segmentNames = Arrays.copyOf(segmentNames, segmentNames.length * 2);
+                segmentValues = Arrays.copyOf(segmentValues, segmentValues.length * 2);
+                segmentElements = Arrays.copyOf(segmentElements, segmentElements.length * 2);
+            }
+            segmentNames[segmentCount] = tags.get(tag);
+            segmentValues[segmentCount] = valueCount;
+            segmentElements[segmentCount] = elementCount;
+            segmentCount++;
+            inSegment = true;
+        }
+
+        @Override
+        public void endSegment() {
+            inSegment = false;
+        }
+
+        /**
+         * Drops the values of a segment abandoned by a recovering reader.
+         */
+        @Override
+        public void error(ParseError error) {
+            if (!inSegment) {
+                return;
+            }
+            inSegment = false;
+            segmentCount--;
+            valueCount = segmentValues[segmentCount];
+            elementCount = segmentElements[segmentCount];
+            textLength = valueCount == 0 ? 0 : valueEnds[valueCount - 1];
+        }
+
+        @Override
+        public void tagComponent(int componentIndex, CharSequence value) {
+            addValue(value);
+        }
+
+        @Override
+        public void element(int elementIndex, CharSequence value) {
+            addElement(SIMPLE);
+            addValue(value);
+        }
+
+        @Override
+        public void component(int elementIndex, int componentIndex, CharSequence value) {
+            if (componentIndex == 0) {
+                addElement(COMPONENT);
+            }
+            addValue(value);
+        }
+
+        @Override
+        public void repetition(int elementIndex, int repetitionIndex, CharSequence value) {
+            if (repetitionIndex == 0) {
+                addElement(REPETITION);
+            }
+            addValue(value);
+        }
+
+        private void addElement(byte kind) {
+            if (elementCount == elementValues.length) {
+                elementValues = Arrays.copyOf(elementValues, elementValues.length * 2);
+                elementKinds = Arrays.copyOf(elementKinds, elementKinds.length * 2);
+            }
+            elementValues[elementCount] = valueCount;
+            elementKinds[elementCount] = kind;
+            elementCount++;
+        }
+
+        private void addValue(CharSequence value) {
+            if (valueCount == valueEnds.length) {
+                valueEnds = Arrays.copyOf(valueEnds, valueEnds.length * 2);
+            }
+            int length = value.length();
+            if (latin1 != null) {
+                addLatin1(value, length);
+            }
+            if (chars != null) {
+                addChars(value, length);
+            }
+            textLength += length;
+            valueEnds[valueCount] = textLength;
+            valueCount++;
+        }
+
+        private void addLatin1(CharSequence value, int length) {
+            if (textLength + length > latin1.length) {
+                latin1 = Arrays.copyOf(latin1, Math.max(textLength + length, latin1.length * 2));
+            }
+            for (int i = 0; i < length; ++i) {
+                char c = value.charAt(i);
+                if (c > 0xff) {
+                    inflate();
+                    return;
+                }
+                latin1[textLength + i] = (byte) c;
+            }
+        }
+
+        private void inflate() {
+            chars = new char[latin1.length];
+            for (int i = 0; i < textLength; ++i) {
+                chars[i] = (char) (latin1[i] & 0xff);
+            }
+            latin1 = null;
+        }
+
+        private void addChars(CharSequence value, int length) {
+            if (textLength + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(textLength + length, chars.length * 2));
+            }
+            if (value instanceof CharArrayView) {
+                CharArrayView view = (CharArrayView) value;
+                System.arraycopy(view.array(), view.offset(), chars, textLength, length);
+            } else {
+                for (int i = 0; i < length; ++i) {
+                    chars[textLength + i] = value.charAt(i);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.scanner.ScannerTokenType;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe counters and a message latency histogram, to be exported by a monitoring system like
+ * Prometheus. All counters only grow; take differences between two reads for rates.
+ * <p>
+ * Latencies are counted into buckets by powers of two of nanoseconds, which keeps recording free
+ * of allocation and locks at a relative error below two.
+ */
+public class CountingParserMetrics implements ParserMetrics {
+
+    public static final int BUCKETS = 64;
+
+    private final LongAdder chars = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder[] tokens = adders(ScannerTokenType.values().length);
+    private final Map<String, LongAdder> segments = new ConcurrentHashMap<>();
+    private final LongAdder interchanges = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder messageNanos = new LongAdder();
+    private final LongAdder[] latencyBuckets = adders(BUCKETS);
+
+    @Override
+    public void read(int chars, long nanos) {
+        this.chars.add(chars);
+        this.readNanos.add(nanos);
+        this.reads.increment();
+    }
+
+    @Override
+    public void token(ScannerTokenType type) {
+        tokens[type.ordinal()].increment();
+    }
+
+    @Override
+    public void segment(CharSequence tag) {
+        segments.computeIfAbsent(tag.toString(), t -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void message(long nanos) {
+        messageNanos.add(nanos);
+        latencyBuckets[bucket(nanos)].increment();
+    }
+
+    @Override
+    public void interchange() {
+        interchanges.increment();
+    }
+
+    @Override
+    public void error(ParseError error) {
+        errors.increment();
+    }
+
+    public long getChars() {
+        return chars.sum();
+    }
+
+    public long getReads() {
+        return reads.sum();
+    }
+
+    public long getReadNanos() {
+        return readNanos.sum();
+    }
+
+    public long getTokens(ScannerTokenType type) {
+        return tokens[type.ordinal()].sum();
+    }
+
+    /**
+     * @return the segment counts by tag, sorted by tag
+     */
+    public Map<String, Long> getSegments() {
+        Map<String, Long> counts = new TreeMap<>();
+        segments.forEach((tag, count) -> counts.put(tag, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public long getMessages() {
+        long count = 0;
+        for (LongAdder bucket : latencyBuckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getMessageNanos() {
+        return messageNanos.sum();
+    }
+
+    public long getInterchanges() {
+        return interchanges.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return the number of messages whose latency fell into the bucket
+     * @see #getBucketUpperBound(int)
+     */
+    public long getLatencyBucket(int bucket) {
+        return latencyBuckets[bucket].sum();
+    }
+
+    /**
+     * @return the exclusive upper bound in nanoseconds of the bucket, which starts at the bound of
+     * the previous one; bucket 0 holds latencies of 0
+     */
+    public static long getBucketUpperBound(int bucket) {
+        return bucket < BUCKETS - 1 ? 1L << bucket : Long.MAX_VALUE;
+    }
+
+    static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; ++i) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
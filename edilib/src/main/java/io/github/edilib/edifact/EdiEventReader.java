@@ -0,0 +1,385 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.io.EdiByteReaders;
+import io.github.edilib.edifact.internal.scanner.EdiTokenCursor;
+import io.github.edilib.edifact.internal.scanner.ScannerTokenType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Push style reader, reporting segments as {@link EdiHandler} callbacks without building an object model.
+ * <p>
+ * With {@link ReaderOptions#recovery} set, malformed input is reported as {@link ParseError} and the
+ * reader resynchronizes on the next segment terminator, or the next message header, and keeps going
+ * until the {@link ReaderOptions#errorBudget} is used up.
+ */
+public class EdiEventReader implements Closeable {
+
+    enum State {
+        INITIAL,
+        INITIAL_UNA_SEEN,
+        IN_MESSAGE;
+    }
+
+    private static final Set<ScannerTokenType> DATA_ELEMENT_END = EnumSet.of(ScannerTokenType.DATA_ELEMENT_SEPERATOR, ScannerTokenType.SEGMENT_TERMINATOR);
+    private static final int IN_SIMPLE_VALUE = 0;
+    private static final int IN_COMPOSITE_VALUE = 1;
+    private static final int IN_REPETITION_VALUE = 2;
+    private static final String EMPTY = "";
+
+    private final EdiTokenCursor rd;
+    private final Recovery recovery;
+    private final int errorBudget;
+    // tells by the input offset whether a complete segment can be read, null if the input blocks
+    private final LongPredicate segmentAvailable;
+    private boolean lookAheadValid = false;
+    private State state = State.INITIAL;
+    private int errorCount = 0;
+    private boolean skippingToMessage = false;
+    private final ParserMetrics metrics;
+    private final boolean measuring;
+    private boolean inMessage = false;
+    private boolean messageEnded = false;
+    private long messageNanos = 0;
+
+    public EdiEventReader(String filename, Reader rd, Format format) {
+        this(filename, rd, format, ReaderOptions.DEFAULT);
+    }
+
+    public EdiEventReader(String filename, Reader rd, Format format, ReaderOptions options) {
+        this(filename, rd, format, options, null);
+    }
+
+    EdiEventReader(String filename, Reader rd, Format format, ReaderOptions options, LongPredicate segmentAvailable) {
+        this.rd = new EdiTokenCursor(filename, rd, format, options);
+        this.recovery = options.recovery;
+        this.errorBudget = options.errorBudget;
+        this.segmentAvailable = segmentAvailable;
+        this.metrics = options.metrics;
+        this.measuring = options.metrics != ParserMetrics.NONE;
+    }
+
+    /**
+     * @see SegmentReader#open(Path, Format, ReaderOptions)
+     */
+    public static EdiEventReader open(Path path, Format format, ReaderOptions options) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new EdiEventReader(path.toString(), EdiByteReaders.open(channel, format), format, options);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @see SegmentReader#of(String, ByteBuffer, Format, ReaderOptions)
+     */
+    public static EdiEventReader of(String filename, ByteBuffer buffer, Format format, ReaderOptions options) {
+        return new EdiEventReader(filename, EdiByteReaders.of(buffer, format), format, options);
+    }
+
+    /**
+     * Reads all remaining segments.
+     */
+    public void readAll(EdiHandler handler) throws IOException {
+        while (readSegment(handler)) {
+            // continue
+        }
+    }
+
+    /**
+     * Reads the next segment.
+     *
+     * @return false if there are no more segments
+     */
+    public boolean readSegment(EdiHandler handler) throws IOException {
+        if (!measuring) {
+            return readNextSegment(handler);
+        }
+
+        long start = System.nanoTime();
+        boolean read = readNextSegment(handler);
+        if (inMessage) {
+            messageNanos += System.nanoTime() - start;
+        }
+        if (messageEnded) {
+            metrics.message(messageNanos);
+            inMessage = false;
+            messageEnded = false;
+        }
+        return read;
+    }
+
+    private boolean readNextSegment(EdiHandler handler) throws IOException {
+        while (true) {
+            if (segmentAvailable != null && !lookAheadValid && !segmentAvailable.test(rd.inputOffset())) {
+                return false;
+            }
+            switch (state) {
+                case INITIAL:
+                    if (follows(ScannerTokenType.UNA_TAG)) {
+                        consume(ScannerTokenType.UNA_TAG);
+                        handler.serviceStringAdvice(rd.format());
+                        state = State.INITIAL_UNA_SEEN;
+                    } else if (follows(ScannerTokenType.EOF)) {
+                        error(handler, new ParseException("Empty file.", rd.location()));
+                        return false;
+                    } else {
+                        state = State.IN_MESSAGE;
+                    }
+                    break;
+                case INITIAL_UNA_SEEN:
+                    if (follows(ScannerTokenType.UNA_TAG)) {
+                        error(handler, new ParseException("Duplicate UNA segment seen.", rd.location()));
+                        consume(ScannerTokenType.UNA_TAG);
+                    } else if (follows(ScannerTokenType.EOF)) {
+                        error(handler, new ParseException("No segments after UNA segment found.", rd.location()));
+                        return false;
+                    } else {
+                        state = State.IN_MESSAGE;
+                    }
+                    break;
+                case IN_MESSAGE:
+                    if (follows(ScannerTokenType.EOF)) {
+                        return false;
+                    }
+                    if (skippingToMessage && !atMessageHeader()) {
+                        skipSegment();
+                        break;
+                    }
+                    skippingToMessage = false;
+                    try {
+                        if (follows(ScannerTokenType.VALUE)) {
+                            readSegmentTag(handler);
+                            int elementIndex = 0;
+                            while (follows(ScannerTokenType.DATA_ELEMENT_SEPERATOR)) {
+                                readDataElement(handler, elementIndex++);
+                            }
+                            consume(ScannerTokenType.SEGMENT_TERMINATOR);
+                            handler.endSegment();
+                            return true;
+                        } else {
+                            throw unexpectedInput();
+                        }
+                    } catch (ParseException ex) {
+                        error(handler, ex);
+                        skipSegment();
+                        skippingToMessage = recovery == Recovery.MESSAGE;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Illegal state: " + state + ".");
+            }
+        }
+    }
+
+    /**
+     * @return the current format, adapted to a service string advice once seen
+     */
+    public Format format() {
+        return rd.format();
+    }
+
+    /**
+     * @return the location of the last token read
+     */
+    public Location location() {
+        return rd.location();
+    }
+
+    @Override
+    public void close() throws IOException {
+        rd.close();
+    }
+
+    private void readSegmentTag(EdiHandler handler) throws IOException {
+        consume(ScannerTokenType.VALUE);
+        handler.startSegment(rd.text());
+        if (measuring) {
+            measureSegment(rd.text());
+        }
+        if (!follows(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR)) {
+            return;
+        }
+
+        consume(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR);
+        int componentIndex = 0;
+        boolean valueSeen = false;
+        while (true) {
+            if (follows(ScannerTokenType.VALUE)) {
+                consume(ScannerTokenType.VALUE);
+                handler.tagComponent(componentIndex, rd.text());
+                valueSeen = true;
+            } else if (follows(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR)) {
+                if (!valueSeen) {
+                    handler.tagComponent(componentIndex, EMPTY);
+                }
+                consume(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR);
+                componentIndex++;
+                valueSeen = false;
+            } else if (follows(DATA_ELEMENT_END)) {
+                if (!valueSeen) {
+                    handler.tagComponent(componentIndex, EMPTY);
+                }
+                return;
+            } else {
+                throw unexpectedInput();
+            }
+        }
+    }
+
+    /**
+     * Reports the segment and tracks messages by their header and trailer.
+     */
+    private void measureSegment(CharSequence tag) {
+        metrics.segment(tag);
+        boolean edifact = rd.format().unaAllowed;
+        if ((edifact ? "UNH" : "ST").contentEquals(tag)) {
+            inMessage = true;
+            messageNanos = 0;
+        } else if ((edifact ? "UNB" : "ISA").contentEquals(tag)) {
+            metrics.interchange();
+        } else if (inMessage && (edifact ? "UNT" : "SE").contentEquals(tag)) {
+            messageEnded = true;
+        }
+    }
+
+    private void readDataElement(EdiHandler handler, int elementIndex) throws IOException {
+        consume(ScannerTokenType.DATA_ELEMENT_SEPERATOR);
+        int state = IN_SIMPLE_VALUE;
+        int index = 0;
+        boolean valueSeen = false;
+        while (true) {
+            if (follows(ScannerTokenType.VALUE)) {
+                consume(ScannerTokenType.VALUE);
+                if (state == IN_COMPOSITE_VALUE) {
+                    handler.component(elementIndex, index, rd.text());
+                } else if (state == IN_REPETITION_VALUE) {
+                    handler.repetition(elementIndex, index, rd.text());
+                } else {
+                    // the value is gone once the cursor moves on, so decide by the following char
+                    ScannerTokenType following = rd.peekType();
+                    if (following == ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR) {
+                        handler.component(elementIndex, index, rd.text());
+                    } else if (following == ScannerTokenType.REPETITION_SEPERATOR) {
+                        handler.repetition(elementIndex, index, rd.text());
+                    } else {
+                        handler.element(elementIndex, rd.text());
+                    }
+                }
+                valueSeen = true;
+            } else if ((state == IN_SIMPLE_VALUE || state == IN_COMPOSITE_VALUE)
+                    && follows(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR)) {
+                if (!valueSeen) {
+                    handler.component(elementIndex, index, EMPTY);
+                }
+                consume(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR);
+                state = IN_COMPOSITE_VALUE;
+                index++;
+                valueSeen = false;
+            } else if ((state == IN_SIMPLE_VALUE || state == IN_REPETITION_VALUE)
+                    && follows(ScannerTokenType.REPETITION_SEPERATOR)) {
+                if (!valueSeen) {
+                    handler.repetition(elementIndex, index, EMPTY);
+                }
+                consume(ScannerTokenType.REPETITION_SEPERATOR);
+                state = IN_REPETITION_VALUE;
+                index++;
+                valueSeen = false;
+            } else if (follows(DATA_ELEMENT_END)) {
+                if (!valueSeen) {
+                    if (state == IN_SIMPLE_VALUE) {
+                        handler.element(elementIndex, EMPTY);
+                    } else if (state == IN_COMPOSITE_VALUE) {
+                        handler.component(elementIndex, index, EMPTY);
+                    } else {
+                        handler.repetition(elementIndex, index, EMPTY);
+                    }
+                }
+                return;
+            } else {
+                throw unexpectedInput();
+            }
+        }
+    }
+
+    /**
+     * Throws the exception, or reports it to the handler when recovering.
+     */
+    private void error(EdiHandler handler, ParseException ex) throws ParseException {
+        if (measuring) {
+            metrics.error(new ParseError(ex.getMessage(), ex.getLocation()));
+        }
+        if (recovery == Recovery.NONE) {
+            throw ex;
+        }
+        if (++errorCount > errorBudget) {
+            ParseException exceeded = new ParseException("Error budget of " + errorBudget + " exceeded: " + ex.getMessage(), ex.getLocation());
+            exceeded.initCause(ex);
+            throw exceeded;
+        }
+        handler.error(new ParseError(ex.getMessage(), ex.getLocation()));
+    }
+
+    private boolean atMessageHeader() throws IOException {
+        return follows(ScannerTokenType.VALUE) && (rd.format().unaAllowed ? "UNH" : "ST").contentEquals(rd.text());
+    }
+
+    /**
+     * Skips the rest of the current segment. After an error the offending token is part of it, so
+     * at least one token is skipped unless at EOF.
+     */
+    private void skipSegment() throws IOException {
+        while (true) {
+            ScannerTokenType type = peekType();
+            if (type == ScannerTokenType.EOF) {
+                return;
+            }
+            lookAheadValid = false;
+            if (type == ScannerTokenType.SEGMENT_TERMINATOR || type == ScannerTokenType.UNA_TAG) {
+                return;
+            }
+        }
+    }
+
+    private IOException unexpectedInput() throws IOException {
+        ScannerTokenType type = peekType();
+        if (type == ScannerTokenType.ERROR) {
+            return new ParseException(rd.message(), rd.location());
+        }
+        return new ParseException("Unexpected token: " + type + ", value=" + rd.stringValue(), rd.location());
+    }
+
+    private void consume(ScannerTokenType expectedType) throws IOException {
+        if (peekType() != expectedType) {
+            throw unexpectedInput();
+        }
+        lookAheadValid = false;
+    }
+
+    private ScannerTokenType peekType() throws IOException {
+        if (!lookAheadValid) {
+            rd.next();
+            lookAheadValid = true;
+        }
+        return rd.type();
+    }
+
+    private boolean follows(ScannerTokenType type) throws IOException {
+        return peekType() == type;
+    }
+
+    private boolean follows(Set<ScannerTokenType> types) throws IOException {
+        return types.contains(peekType());
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.edilib.edifact;
+
+/**
+ * Callbacks for {@link EdiEventReader}. Values are passed as views into the reader's buffer; they are
+ * only valid during the callback, call {@link CharSequence#toString()} to keep them.
+ * <p>
+ * Element, component and repetition indexes are zero based, the first data element after the tag
+ * has index 0.
+ */
+public interface EdiHandler {
+
+    /**
+     * Called for a service string advice (UNA), after the reader adapted to its format.
+     */
+    default void serviceStringAdvice(Format format) {
+    }
+
+    default void startSegment(CharSequence tag) {
+    }
+
+    /**
+     * Called for the components following the segment tag, as in <code>UNB:1:2+...</code>.
+     */
+    default void tagComponent(int componentIndex, CharSequence value) {
+    }
+
+    /**
+     * Called for a data element with a single value.
+     */
+    default void element(int elementIndex, CharSequence value) {
+    }
+
+    /**
+     * Called for each component of a composite data element.
+     */
+    default void component(int elementIndex, int componentIndex, CharSequence value) {
+    }
+
+    /**
+     * Called for each value of a repeated data element.
+     */
+    default void repetition(int elementIndex, int repetitionIndex, CharSequence value) {
+    }
+
+    default void endSegment() {
+    }
+
+    /**
+     * Called instead of throwing a {@link ParseException} when reading with {@link ReaderOptions#recovery}.
+     * A segment started before is abandoned, it is not ended.
+     */
+    default void error(ParseError error) {
+    }
+}
@@ -0,0 +1,265 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.io.EdiByteReaders;
+import io.github.edilib.edifact.internal.scanner.EdiTokenCursor;
+import io.github.edilib.edifact.internal.scanner.ScannerTokenType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiled set of selectors picking single values out of an input, for example for routing by
+ * sender or message type without reading whole interchanges. Selectors are written in the
+ * notation of segment position and qualifier common in implementation guides, with one based
+ * element and component positions:
+ * <ul>
+ *     <li><code>UNH[2:1]</code> - first component of the second data element of UNH,</li>
+ *     <li><code>NAD[BY]/2:1</code> - the same position in the first NAD with qualifier BY, which is
+ *     the first value of the segment,</li>
+ *     <li><code>BGM/2</code> - the second data element of BGM, its first component.</li>
+ * </ul>
+ * Components are counted within the first repetition of a data element; further repetitions are
+ * not selectable. Each selector takes its value from the first segment it matches. Segments no
+ * selector is waiting for are skipped without tokenizing them, and reading stops as soon as all selectors are
+ * matched. A query keeps no state between executions, so it can be shared between threads.
+ */
+public final class EdiQuery {
+
+    private final List<String> expressions;
+    private final Selector[] selectors;
+
+    private EdiQuery(List<String> expressions, Selector[] selectors) {
+        this.expressions = expressions;
+        this.selectors = selectors;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an invalid selector
+     */
+    public static EdiQuery compile(String... selectors) {
+        Selector[] compiled = new Selector[selectors.length];
+        for (int i = 0; i < selectors.length; ++i) {
+            compiled[i] = Selector.parse(selectors[i]);
+        }
+        return new EdiQuery(Collections.unmodifiableList(Arrays.asList(selectors.clone())), compiled);
+    }
+
+    public List<String> getSelectors() {
+        return expressions;
+    }
+
+    /**
+     * Reads a file in the format found by {@link FormatDetector}, skipping whitespace before the
+     * first segment.
+     */
+    public QueryResult execute(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Format format = FormatDetector.detectAndSkip(path.toString(), channel);
+            return execute(path.toString(), EdiByteReaders.open(channel, format), format);
+        }
+    }
+
+    public QueryResult execute(Path path, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return execute(path.toString(), EdiByteReaders.open(channel, format), format);
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer, without changing its position.
+     */
+    public QueryResult execute(String filename, ByteBuffer buffer, Format format) throws IOException {
+        return execute(filename, EdiByteReaders.of(buffer, format), format);
+    }
+
+    /**
+     * Reads from the reader until all selectors are matched or the input ends. The reader is not closed.
+     */
+    public QueryResult execute(String filename, Reader rd, Format format) throws IOException {
+        EdiTokenCursor cursor = new EdiTokenCursor(filename, rd, format, ReaderOptions.DEFAULT);
+        String[] values = new String[selectors.length];
+        new Execution(cursor, values).run();
+        return new QueryResult(expressions, values);
+    }
+
+    /**
+     * State of one run over an input.
+     */
+    private class Execution {
+        private final EdiTokenCursor rd;
+        private final String[] values;
+        private final boolean[] candidates = new boolean[selectors.length];
+        private final String[] captured = new String[selectors.length];
+        private int unmatched = selectors.length;
+
+        Execution(EdiTokenCursor rd, String[] values) {
+            this.rd = rd;
+            this.values = values;
+        }
+
+        void run() throws IOException {
+            while (unmatched > 0) {
+                ScannerTokenType type = rd.next();
+                if (type == ScannerTokenType.EOF) {
+                    return;
+                } else if (type == ScannerTokenType.ERROR) {
+                    throw new ParseException(rd.message(), rd.location());
+                } else if (type == ScannerTokenType.VALUE) {
+                    if (!readSegment()) {
+                        return;
+                    }
+                } else if (type != ScannerTokenType.UNA_TAG && type != ScannerTokenType.SEGMENT_TERMINATOR && !rd.skipSegment()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Reads the segment of the current tag as far as needed for the selectors waiting for it.
+         *
+         * @return false if the input ended
+         */
+        private boolean readSegment() throws IOException {
+            CharSequence tag = rd.text();
+            int lastElement = 0;
+            for (int i = 0; i < selectors.length; ++i) {
+                candidates[i] = values[i] == null && selectors[i].tag.contentEquals(tag);
+                captured[i] = null;
+                if (candidates[i]) {
+                    lastElement = Math.max(lastElement, selectors[i].element);
+                }
+            }
+            if (lastElement == 0) {
+                return rd.skipSegment();
+            }
+
+            int element = 0;
+            int component = 1;
+            boolean repeated = false;
+            String qualifier = null;
+            boolean more = true;
+            read:
+            while (true) {
+                switch (rd.next()) {
+                    case VALUE:
+                        if (repeated) {
+                            break;
+                        }
+                        if (element == 1 && component == 1) {
+                            qualifier = rd.stringValue();
+                        }
+                        for (int i = 0; i < selectors.length; ++i) {
+                            if (candidates[i] && selectors[i].element == element && selectors[i].component == component) {
+                                captured[i] = rd.stringValue();
+                            }
+                        }
+                        break;
+                    case DATA_ELEMENT_SEPERATOR:
+                        element++;
+                        component = 1;
+                        repeated = false;
+                        if (element > lastElement && element > 1) {
+                            more = rd.skipSegment();
+                            break read;
+                        }
+                        break;
+                    case COMPONENT_DATA_ELEMENT_SEPERATOR:
+                        component++;
+                        break;
+                    case REPETITION_SEPERATOR:
+                        repeated = true;
+                        break;
+                    case SEGMENT_TERMINATOR:
+                        break read;
+                    case EOF:
+                        more = false;
+                        break read;
+                    case ERROR:
+                        throw new ParseException(rd.message(), rd.location());
+                    default:
+                        more = rd.skipSegment();
+                        break read;
+                }
+            }
+
+            for (int i = 0; i < selectors.length; ++i) {
+                if (candidates[i] && (selectors[i].qualifier == null || selectors[i].qualifier.equals(qualifier))) {
+                    values[i] = captured[i] != null ? captured[i] : "";
+                    unmatched--;
+                }
+            }
+            return more;
+        }
+    }
+
+    private static class Selector {
+        final String tag;
+        final String qualifier;
+        final int element;
+        final int component;
+
+        Selector(String tag, String qualifier, int element, int component) {
+            this.tag = tag;
+            this.qualifier = qualifier;
+            this.element = element;
+            this.component = component;
+        }
+
+        static Selector parse(String selector) {
+            int open = selector.indexOf('[');
+            int slash = selector.indexOf('/');
+            int tagEnd = open != -1 ? open : slash != -1 ? slash : selector.length();
+            String tag = selector.substring(0, tagEnd);
+            String qualifier = null;
+            String position;
+            if (open != -1) {
+                int close = selector.indexOf(']', open);
+                if (close == -1) {
+                    throw invalid(selector);
+                }
+                String bracket = selector.substring(open + 1, close);
+                if (close + 1 < selector.length() && selector.charAt(close + 1) == '/') {
+                    qualifier = bracket;
+                    position = selector.substring(close + 2);
+                } else if (close + 1 == selector.length()) {
+                    position = bracket;
+                } else {
+                    throw invalid(selector);
+                }
+            } else if (slash != -1) {
+                position = selector.substring(slash + 1);
+            } else {
+                throw invalid(selector);
+            }
+            if (tag.isEmpty() || (qualifier != null && qualifier.isEmpty())) {
+                throw invalid(selector);
+            }
+
+            String[] parts = position.split(":", -1);
+            if (parts.length > 2) {
+                throw invalid(selector);
+            }
+            try {
+                int element = Integer.parseInt(parts[0]);
+                int component = parts.length == 2 ? Integer.parseInt(parts[1]) : 1;
+                if (element < 1 || component < 1) {
+                    throw invalid(selector);
+                }
+                return new Selector(tag, qualifier, element, component);
+            } catch (NumberFormatException ex) {
+                throw invalid(selector);
+            }
+        }
+
+        private static IllegalArgumentException invalid(String selector) {
+            return new IllegalArgumentException("Invalid selector " + selector + ", expected TAG[element:component], TAG[qualifier]/element:component or TAG/element:component.");
+        }
+    }
+}
@@ -12,10 +12,14 @@ public class Format {
     public final char componentDataElementSeperator;
     public final char dataElementSeperator;
     public final char decimalMark;
-    public final char releaseCharacter;
+    public final char releaseCharacter; // optional, if unset '\0'
     public final char repetitionSeperator; // optional, if unset ' '
     public final char segmentTerminator;
 
+    public boolean hasReleaseCharacter() {
+        return releaseCharacter != '\0';
+    }
+
     public boolean hasRepetitionSeperator() {
         return repetitionSeperator != ' ';
     }
@@ -0,0 +1,199 @@
+package io.github.edilib.edifact;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects syntax and delimiters from the head of an input, so that folders mixing UN/EDIFACT and
+ * X12 from different partners can be read without knowing the format upfront. Only the first
+ * {@link #HEAD_SIZE} bytes are looked at:
+ * <ul>
+ *     <li>a UNA service string advice gives the UN/EDIFACT delimiters, UNB or UNH without it
+ *     means the default ones,</li>
+ *     <li>an ISA segment gives the X12 delimiters: the element separator follows the tag, the
+ *     component separator is ISA16 and the segment terminator follows it. From version 00402 on,
+ *     ISA11 is the repetition separator. X12 has no release character.</li>
+ * </ul>
+ * The charset is not part of the format; readers over bytes take it from the UNB syntax
+ * identifier as before. Detected formats are shared between inputs with the same delimiters,
+ * which in practice means one instance per partner.
+ */
+public final class FormatDetector {
+
+    public static final int HEAD_SIZE = 512;
+
+    private static final int UNA_LENGTH = 9;
+    private static final int ISA_ELEMENTS = 16;
+    private static final String FIRST_REPETITION_VERSION = "00402";
+    private static final int MAX_CACHED_FORMATS = 256;
+    private static final Map<String, Format> FORMATS = new ConcurrentHashMap<>();
+
+    static {
+        cache(Format.UNEDIFACT_DEFAULT);
+        cache(Format.X12_DEFAULT);
+    }
+
+    private FormatDetector() {
+    }
+
+    public static Format detect(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return detect(path.toString(), channel);
+        }
+    }
+
+    /**
+     * Reads the head from the current position of the channel, without changing it.
+     */
+    public static Format detect(String filename, FileChannel channel) throws IOException {
+        return detect(filename, head(channel));
+    }
+
+    /**
+     * Detects the format and moves the channel past the whitespace before the first segment, where
+     * readers of the format have to start.
+     */
+    static Format detectAndSkip(String filename, FileChannel channel) throws IOException {
+        ByteBuffer head = head(channel);
+        Format format = detect(filename, head);
+        channel.position(channel.position() + leadingWhitespace(head));
+        return format;
+    }
+
+    /**
+     * Looks at the head of the remaining bytes, without changing the buffer position.
+     *
+     * @throws ParseException if the input starts with neither UNA, UNB, UNH nor ISA
+     */
+    public static Format detect(String filename, ByteBuffer buffer) throws ParseException {
+        int pos = buffer.position() + leadingWhitespace(buffer);
+        int limit = Math.min(buffer.limit(), buffer.position() + HEAD_SIZE);
+
+        if (startsWith(buffer, pos, limit, "UNA")) {
+            if (limit - pos < UNA_LENGTH) {
+                throw new ParseException("Truncated UNA segment.", location(filename));
+            }
+            return cache(new Format(true, true, charAt(buffer, pos + 3), charAt(buffer, pos + 4), charAt(buffer, pos + 5),
+                    charAt(buffer, pos + 6), charAt(buffer, pos + 7), charAt(buffer, pos + 8)));
+        }
+        if (startsWith(buffer, pos, limit, "UNB") || startsWith(buffer, pos, limit, "UNH")) {
+            return Format.UNEDIFACT_DEFAULT;
+        }
+        if (startsWith(buffer, pos, limit, "ISA") && pos + 3 < limit) {
+            return x12(filename, buffer, pos, limit);
+        }
+        throw new ParseException("Cannot detect format, input starts with neither UNA, UNB, UNH nor ISA.", location(filename));
+    }
+
+    /**
+     * @return the number of whitespace bytes, like a leading line break, the detection skips at the
+     * start of the remaining bytes; readers of the detected format have to start after them
+     */
+    static int leadingWhitespace(ByteBuffer buffer) {
+        int pos = buffer.position();
+        int limit = Math.min(buffer.limit(), pos + HEAD_SIZE);
+        while (pos < limit && Character.isWhitespace(charAt(buffer, pos))) {
+            pos++;
+        }
+        return pos - buffer.position();
+    }
+
+    private static ByteBuffer head(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEAD_SIZE);
+        long position = channel.position();
+        int count;
+        do {
+            count = channel.read(head, position + head.position());
+        } while (count > 0 && head.hasRemaining());
+        head.flip();
+        return head;
+    }
+
+    /**
+     * Splits the ISA at its element separator instead of relying on fixed offsets, so that
+     * senders not padding their identifiers are read as well.
+     */
+    private static Format x12(String filename, ByteBuffer buffer, int pos, int limit) throws ParseException {
+        char elementSeparator = charAt(buffer, pos + 3);
+        int[] starts = new int[ISA_ELEMENTS + 1];
+        int elements = 0;
+        for (int i = pos + 3; i < limit && elements < ISA_ELEMENTS; ++i) {
+            if (charAt(buffer, i) == elementSeparator) {
+                starts[++elements] = i + 1;
+            }
+        }
+        if (elements < ISA_ELEMENTS || starts[ISA_ELEMENTS] + 1 >= limit) {
+            throw new ParseException("Truncated ISA segment.", location(filename));
+        }
+
+        char componentSeparator = charAt(buffer, starts[ISA_ELEMENTS]);
+        char segmentTerminator = charAt(buffer, starts[ISA_ELEMENTS] + 1);
+        char repetitionSeparator = Format.X12_DEFAULT.repetitionSeperator;
+        String version = text(buffer, starts[12], starts[13] - 1);
+        String isa11 = text(buffer, starts[11], starts[12] - 1);
+        if (version.compareTo(FIRST_REPETITION_VERSION) >= 0 && isa11.length() == 1 && !Character.isLetterOrDigit(isa11.charAt(0))) {
+            repetitionSeparator = isa11.charAt(0);
+        }
+        Format defaults = Format.X12_DEFAULT;
+        return cache(new Format(defaults.skipNewlineAfterSegment, false, componentSeparator, elementSeparator,
+                defaults.decimalMark, '\0', repetitionSeparator, segmentTerminator));
+    }
+
+    /**
+     * @return the cached format with the same delimiters, or the given one
+     */
+    private static Format cache(Format format) {
+        String key = key(format);
+        Format cached = FORMATS.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (FORMATS.size() >= MAX_CACHED_FORMATS) {
+            return format;
+        }
+        cached = FORMATS.putIfAbsent(key, format);
+        return cached != null ? cached : format;
+    }
+
+    /**
+     * @return a key equal for formats with the same syntax and delimiters
+     */
+    static String key(Format format) {
+        return new String(new char[]{format.unaAllowed ? 'E' : 'X', format.componentDataElementSeperator,
+                format.dataElementSeperator, format.decimalMark, format.releaseCharacter, format.repetitionSeperator,
+                format.segmentTerminator});
+    }
+
+    private static Location location(String filename) {
+        return new Location(filename, 0, 0);
+    }
+
+    private static char charAt(ByteBuffer buffer, int pos) {
+        return (char) (buffer.get(pos) & 0xff);
+    }
+
+    private static String text(ByteBuffer buffer, int from, int to) {
+        StringBuilder text = new StringBuilder(to - from);
+        for (int i = from; i < to; ++i) {
+            text.append(charAt(buffer, i));
+        }
+        return text.toString();
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int pos, int limit, String s) {
+        if (limit - pos < s.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); ++i) {
+            if (charAt(buffer, pos + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.io.FeedReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Non-blocking counterpart of {@link EdiEventReader}: input is fed in chunks as it arrives, for
+ * example from a selector loop, and each call reports the segments completed so far to the
+ * handler. A segment split across chunks is reported once its terminator is fed, so one thread
+ * can serve many inputs without blocking on any of them.
+ * <p>
+ * Parse errors are thrown from the call that completes the offending segment. With
+ * {@link ReaderOptions#recovery} they are reported to the handler like by {@link EdiEventReader}.
+ * A segment exceeding {@link ReaderOptions#maxSegmentLength} fails feeding in any case.
+ */
+public class IncrementalEventReader {
+
+    private final FeedReader input;
+    private final EdiEventReader reader;
+    private final EdiHandler handler;
+    private final int maxSegmentLength;
+
+    /**
+     * Reads bytes in the charset named by the UNB syntax identifier.
+     */
+    public IncrementalEventReader(String filename, Format format, EdiHandler handler) {
+        this(filename, format, null, ReaderOptions.DEFAULT, handler);
+    }
+
+    /**
+     * @param charset charset of fed bytes, null to detect it from the UNB syntax identifier
+     */
+    public IncrementalEventReader(String filename, Format format, Charset charset, ReaderOptions options, EdiHandler handler) {
+        this.input = new FeedReader(format, charset);
+        this.reader = new EdiEventReader(filename, input, format, options,
+                offset -> input.isEnded() || offset < input.completed());
+        this.handler = handler;
+        this.maxSegmentLength = options.maxSegmentLength;
+    }
+
+    /**
+     * Feeds the remaining bytes of the buffer and reports the segments completed by them.
+     */
+    public void feed(ByteBuffer bytes) throws IOException {
+        input.feed(bytes);
+        readAvailable();
+        checkPending();
+    }
+
+    /**
+     * Feeds chars and reports the segments completed by them.
+     */
+    public void feed(char[] chars, int offset, int length) throws IOException {
+        input.feed(chars, offset, length);
+        readAvailable();
+        checkPending();
+    }
+
+    /**
+     * Reports the remaining segments. Throws a {@link ParseException} if the input ends within a
+     * segment.
+     */
+    public void endOfInput() throws IOException {
+        input.end();
+        readAvailable();
+    }
+
+    /**
+     * @see EdiEventReader#format()
+     */
+    public Format format() {
+        return reader.format();
+    }
+
+    private void readAvailable() throws IOException {
+        while (reader.readSegment(handler)) {
+            // continue
+        }
+    }
+
+    private void checkPending() throws ParseException {
+        if (input.pending() > maxSegmentLength) {
+            throw new ParseException("Segment longer than " + maxSegmentLength + " chars.", reader.location());
+        }
+    }
+}
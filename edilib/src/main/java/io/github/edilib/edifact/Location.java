@@ -4,13 +4,18 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+/**
+ * A position in an input, zero based. Readers keep line and column as primitives and create
+ * locations only on request. Columns are longs, as a UN/EDIFACT interchange is often a single
+ * line, which may be larger than 2 GB.
+ */
 @EqualsAndHashCode
 @AllArgsConstructor
 @Getter
 public class Location {
     private final String filename;
     private final int line;
-    private final int column;
+    private final long column;
 
     @Override
     public String toString() {
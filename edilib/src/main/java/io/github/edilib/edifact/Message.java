@@ -0,0 +1,25 @@
+package io.github.edilib.edifact;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * The segments of a message, from its header to its trailer segment.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class Message {
+
+    /**
+     * Zero based position of the message in the input.
+     */
+    private int index;
+
+    private List<Segment> segments;
+}
@@ -0,0 +1,392 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.io.EdiByteReaders;
+import io.github.edilib.edifact.internal.io.MessageSlice;
+import io.github.edilib.edifact.internal.io.MessageSlicer;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the messages in a large file, kept in a sidecar file next to it, for reading single
+ * messages without scanning from the start. {@link #build(Path, Format)} finds the messages in one
+ * pass like {@link ParallelMessageReader} does, without parsing them, and streams an entry per
+ * message to the sidecar; memory stays bounded regardless of the file size.
+ * <p>
+ * Entries have a fixed size, so looking one up is a single read: the byte offset and length of
+ * the message, the interchange it belongs to, its type and reference. Types longer than 8 and
+ * references longer than 14 chars, the maximum in UN/EDIFACT, are cut. Each distinct set of
+ * delimiters and charset is kept once in the footer. The sidecar records size and modification
+ * time of the file, an index not matching the file anymore is rejected on open.
+ */
+public final class MessageIndex implements Closeable {
+
+    public static final String SIDECAR_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x45444958;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int TYPE_LENGTH = 8;
+    private static final int REFERENCE_LENGTH = 14;
+    private static final int ENTRY_SIZE = 8 + 4 + 4 + 4 + TYPE_LENGTH + REFERENCE_LENGTH;
+    private static final int TRAILER_SIZE = 16;
+    private static final int SCAN_BLOCK_ENTRIES = 1024;
+
+    private final Path file;
+    private final FileChannel data;
+    private final FileChannel index;
+    private final int size;
+    private final List<Format> formats;
+    private final List<Charset> charsets;
+    private final ReaderOptions options;
+
+    private MessageIndex(Path file, FileChannel data, FileChannel index, int size, List<Format> formats, List<Charset> charsets, ReaderOptions options) {
+        this.file = file;
+        this.data = data;
+        this.index = index;
+        this.size = size;
+        this.formats = formats;
+        this.charsets = charsets;
+        this.options = options;
+    }
+
+    public static Path sidecarOf(Path file) {
+        return file.resolveSibling(file.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Indexes the file, replacing an existing sidecar, and opens the index.
+     */
+    public static MessageIndex build(Path file, Format format) throws IOException {
+        return build(file, format, ReaderOptions.DEFAULT);
+    }
+
+    public static MessageIndex build(Path file, Format format, ReaderOptions options) throws IOException {
+        Path sidecar = sidecarOf(file);
+        Path temp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (MessageSlicer slicer = MessageSlicer.open(FileChannel.open(file, StandardOpenOption.READ), format);
+             OutputStream stream = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ENTRY_SIZE);
+            out.writeLong(Files.size(file));
+            out.writeLong(Files.getLastModifiedTime(file).toMillis());
+            out.writeInt(0);
+
+            List<Format> formats = new ArrayList<>();
+            List<Charset> charsets = new ArrayList<>();
+            Map<String, Integer> formatIndexes = new HashMap<>();
+            int count = 0;
+            MessageSlice slice;
+            while ((slice = slicer.next()) != null) {
+                writeEntry(out, slice, formatIndex(slice, formatIndexes, formats, charsets));
+                count++;
+            }
+
+            long footerOffset = HEADER_SIZE + (long) count * ENTRY_SIZE;
+            out.writeInt(formats.size());
+            for (int i = 0; i < formats.size(); ++i) {
+                Format f = formats.get(i);
+                out.writeBoolean(f.skipNewlineAfterSegment);
+                out.writeBoolean(f.unaAllowed);
+                out.writeChar(f.componentDataElementSeperator);
+                out.writeChar(f.dataElementSeperator);
+                out.writeChar(f.decimalMark);
+                out.writeChar(f.releaseCharacter);
+                out.writeChar(f.repetitionSeperator);
+                out.writeChar(f.segmentTerminator);
+                out.writeUTF(charsets.get(i).name());
+            }
+            out.writeLong(footerOffset);
+            out.writeInt(count);
+            out.writeInt(MAGIC);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+        Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+        return open(file, options);
+    }
+
+    /**
+     * Opens the index of the file from its sidecar.
+     *
+     * @throws IOException if the sidecar is missing, corrupt or does not match the file anymore
+     */
+    public static MessageIndex open(Path file) throws IOException {
+        return open(file, ReaderOptions.DEFAULT);
+    }
+
+    public static MessageIndex open(Path file, ReaderOptions options) throws IOException {
+        FileChannel index = FileChannel.open(sidecarOf(file), StandardOpenOption.READ);
+        FileChannel data = null;
+        try {
+            ByteBuffer header = readAt(index, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getInt() != ENTRY_SIZE) {
+                throw new IOException("Not a message index: " + sidecarOf(file) + ".");
+            }
+            if (header.getLong() != Files.size(file) || header.getLong() != Files.getLastModifiedTime(file).toMillis()) {
+                throw new IOException("Message index " + sidecarOf(file) + " is stale, rebuild it.");
+            }
+
+            long indexSize = index.size();
+            ByteBuffer trailer = readAt(index, indexSize - TRAILER_SIZE, TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            int size = trailer.getInt();
+            if (trailer.getInt() != MAGIC || footerOffset != HEADER_SIZE + (long) size * ENTRY_SIZE) {
+                throw new IOException("Message index " + sidecarOf(file) + " is corrupt.");
+            }
+
+            ByteBuffer footer = readAt(index, footerOffset, (int) (indexSize - TRAILER_SIZE - footerOffset));
+            int formatCount = footer.getInt();
+            List<Format> formats = new ArrayList<>(formatCount);
+            List<Charset> charsets = new ArrayList<>(formatCount);
+            for (int i = 0; i < formatCount; ++i) {
+                formats.add(new Format(footer.get() != 0, footer.get() != 0, footer.getChar(), footer.getChar(),
+                        footer.getChar(), footer.getChar(), footer.getChar(), footer.getChar()));
+                byte[] name = new byte[footer.getShort() & 0xffff];
+                footer.get(name);
+                charsets.add(Charset.forName(new String(name, StandardCharsets.UTF_8)));
+            }
+
+            data = FileChannel.open(file, StandardOpenOption.READ);
+            return new MessageIndex(file, data, index, size, formats, charsets, options);
+        } catch (IOException | RuntimeException ex) {
+            index.close();
+            if (data != null) {
+                data.close();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the number of messages
+     */
+    public int size() {
+        return size;
+    }
+
+    public Entry get(int message) throws IOException {
+        if (message < 0 || message >= size) {
+            throw new IndexOutOfBoundsException("Message " + message + " out of bounds for " + size + " messages.");
+        }
+        return readEntry(message, readAt(index, HEADER_SIZE + (long) message * ENTRY_SIZE, ENTRY_SIZE));
+    }
+
+    /**
+     * Scans the entries for a message reference.
+     *
+     * @return the position of the first message with the reference, -1 if there is none
+     */
+    public int find(String reference) throws IOException {
+        for (int first = 0; first < size; first += SCAN_BLOCK_ENTRIES) {
+            int count = Math.min(SCAN_BLOCK_ENTRIES, size - first);
+            ByteBuffer block = readAt(index, HEADER_SIZE + (long) first * ENTRY_SIZE, count * ENTRY_SIZE);
+            for (int i = 0; i < count; ++i) {
+                block.position(i * ENTRY_SIZE + ENTRY_SIZE - REFERENCE_LENGTH);
+                if (text(block, REFERENCE_LENGTH).equals(reference)) {
+                    return first + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Opens a reader over the segments of a single message; closing it leaves the index open.
+     */
+    public SegmentReader openMessage(int message) throws IOException {
+        Entry entry = get(message);
+        if (entry.format < 0 || entry.format >= formats.size()) {
+            throw new IOException("Message index " + sidecarOf(file) + " is corrupt, format " + entry.format + " of message " + message + " is not in the footer.");
+        }
+        ByteBuffer bytes = data.map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length);
+        int bufferSize = Math.min(options.bufferSize, entry.length + 1);
+        return new SegmentReader(file.toString(), EdiByteReaders.of(bytes, charsets.get(entry.format)), formats.get(entry.format),
+                options.withBufferSize(bufferSize));
+    }
+
+    public Message readMessage(int message) throws IOException {
+        try (SegmentReader reader = openMessage(message)) {
+            return new Message(message, reader.readAll());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            index.close();
+        } finally {
+            data.close();
+        }
+    }
+
+    /**
+     * Each UNA creates a new format, so formats are told apart by their delimiters, which keeps the
+     * footer at one entry per distinct delimiters and charset.
+     */
+    private static int formatIndex(MessageSlice slice, Map<String, Integer> indexes, List<Format> formats, List<Charset> charsets) {
+        String key = FormatDetector.key(slice.format) + slice.charset.name();
+        Integer index = indexes.get(key);
+        if (index == null) {
+            index = formats.size();
+            indexes.put(key, index);
+            formats.add(slice.format);
+            charsets.add(slice.charset);
+        }
+        return index;
+    }
+
+    private static void writeEntry(DataOutputStream out, MessageSlice slice, int format) throws IOException {
+        String[] header = headerValues(slice);
+        boolean edifact = slice.format.unaAllowed;
+        out.writeLong(slice.offset);
+        out.writeInt(slice.bytes.remaining());
+        out.writeInt(slice.interchange);
+        out.writeInt(format);
+        writeText(out, edifact ? header[1] : header[0], TYPE_LENGTH);
+        writeText(out, edifact ? header[0] : header[1], REFERENCE_LENGTH);
+    }
+
+    /**
+     * Reads the first value of the first two data elements of the message header: reference and
+     * type in UN/EDIFACT, type and reference in X12.
+     */
+    private static String[] headerValues(MessageSlice slice) {
+        ByteBuffer bytes = slice.bytes;
+        Format format = slice.format;
+        String[] values = {"", ""};
+        StringBuilder value = new StringBuilder();
+        int element = 0;
+        boolean inFirstComponent = false;
+        for (int i = bytes.position(); i < bytes.limit(); ++i) {
+            char c = (char) (bytes.get(i) & 0xff);
+            if (format.hasReleaseCharacter() && c == format.releaseCharacter && i + 1 < bytes.limit()) {
+                if (inFirstComponent) {
+                    value.append((char) (bytes.get(++i) & 0xff));
+                } else {
+                    ++i;
+                }
+            } else if (c == format.dataElementSeperator || c == format.segmentTerminator) {
+                if (element > 0) {
+                    values[element - 1] = value.toString();
+                }
+                if (c == format.segmentTerminator || ++element > values.length) {
+                    break;
+                }
+                value.setLength(0);
+                inFirstComponent = true;
+            } else if (c == format.componentDataElementSeperator) {
+                inFirstComponent = false;
+            } else if (inFirstComponent) {
+                value.append(c);
+            }
+        }
+        return values;
+    }
+
+    private static void writeText(DataOutputStream out, String text, int length) throws IOException {
+        for (int i = 0; i < length; ++i) {
+            out.writeByte(i < text.length() ? text.charAt(i) : 0);
+        }
+    }
+
+    private static Entry readEntry(int message, ByteBuffer bytes) {
+        long offset = bytes.getLong();
+        int length = bytes.getInt();
+        int interchange = bytes.getInt();
+        int format = bytes.getInt();
+        String type = text(bytes, TYPE_LENGTH);
+        String reference = text(bytes, REFERENCE_LENGTH);
+        return new Entry(message, offset, length, interchange, format, type, reference);
+    }
+
+    private static String text(ByteBuffer bytes, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            char c = (char) (bytes.get() & 0xff);
+            if (c != 0) {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position + bytes.position()) == -1) {
+                throw new EOFException("Expected " + length + " bytes at " + position + ".");
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Position of a message in the indexed file.
+     */
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static class Entry {
+
+        /**
+         * Zero based position of the message in the file.
+         */
+        private int index;
+
+        /**
+         * Byte offset of the message header segment.
+         */
+        private long offset;
+
+        /**
+         * Length in bytes, up to and including the trailer segment.
+         */
+        private int length;
+
+        /**
+         * Zero based position of the enclosing interchange, -1 if the message is not in one.
+         */
+        private int interchange;
+
+        /**
+         * Index of the delimiters and charset in the footer.
+         */
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private int format;
+
+        /**
+         * Message type, like ORDERS or 850.
+         */
+        private String type;
+
+        private String reference;
+    }
+}
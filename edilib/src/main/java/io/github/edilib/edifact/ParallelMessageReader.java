@@ -0,0 +1,291 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.io.EdiByteReaders;
+import io.github.edilib.edifact.internal.io.MessageSlice;
+import io.github.edilib.edifact.internal.io.MessageSlicer;
+import io.github.edilib.edifact.internal.text.StringCache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the messages of an input in parallel. The calling thread finds the message boundaries in
+ * the raw bytes and hands batches of messages to an executor for parsing, while it passes parsed
+ * messages on to the caller's action. Segments outside of messages, like the interchange header
+ * and trailer, are not returned; use {@link SegmentReader} for them.
+ * <p>
+ * The action is always called on the calling thread, so it needs no synchronization.
+ * <p>
+ * Messages are always parsed strictly, {@link ReaderOptions#recovery} is ignored: an error fails
+ * reading instead of being skipped silently on a worker thread.
+ */
+public class ParallelMessageReader implements Closeable {
+
+    private static final int BATCH_SIZE = 256 * 1024;
+    private static final int PENDING_BATCHES_PER_PROCESSOR = 4;
+
+    private final String filename;
+    private final MessageSlicer slicer;
+    private final ReaderOptions options;
+    // shared by the messages, which are parsed by separate segment readers
+    private final StringCache cache;
+
+    private ParallelMessageReader(String filename, MessageSlicer slicer, ReaderOptions options) {
+        this.filename = filename;
+        this.slicer = slicer;
+        this.options = options.withRecovery(Recovery.NONE);
+        this.cache = StringCache.of(options.valueCache);
+    }
+
+    public static ParallelMessageReader open(Path path, Format format) throws IOException {
+        return open(path, format, ReaderOptions.DEFAULT);
+    }
+
+    /**
+     * Opens a file for reading through memory mapped windows.
+     */
+    public static ParallelMessageReader open(Path path, Format format, ReaderOptions options) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ParallelMessageReader(path.toString(), MessageSlicer.open(channel, format), options);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer, without changing its position.
+     */
+    public static ParallelMessageReader of(String filename, ByteBuffer buffer, Format format) {
+        return of(filename, buffer, format, ReaderOptions.DEFAULT);
+    }
+
+    public static ParallelMessageReader of(String filename, ByteBuffer buffer, Format format, ReaderOptions options) {
+        return new ParallelMessageReader(filename, MessageSlicer.of(buffer, format), options);
+    }
+
+    /**
+     * Parses all messages on the common fork join pool.
+     *
+     * @return the messages in input order
+     */
+    public List<Message> readAll() throws IOException {
+        List<Message> messages = new ArrayList<>();
+        forEachOrdered(ForkJoinPool.commonPool(), messages::add);
+        return messages;
+    }
+
+    /**
+     * Parses the messages on the executor and passes them on in input order.
+     */
+    public void forEachOrdered(Executor executor, Consumer<? super Message> action) throws IOException {
+        forEach(executor, true, action);
+    }
+
+    /**
+     * Parses the messages on the executor and passes them on as soon as they are parsed. Use
+     * {@link Message#getIndex()} to restore the input order.
+     */
+    public void forEach(Executor executor, Consumer<? super Message> action) throws IOException {
+        forEach(executor, false, action);
+    }
+
+    /**
+     * Streams the messages. A parallel stream splits off batches of message boundaries, which are
+     * parsed by the worker threads of the stream. Closing the stream closes the reader; read
+     * errors are thrown as {@link UncheckedIOException}.
+     */
+    public Stream<Message> messages() {
+        return StreamSupport.stream(new MessageSpliterator(), false).onClose(this::closeUnchecked);
+    }
+
+    @Override
+    public void close() throws IOException {
+        slicer.close();
+    }
+
+    private void forEach(Executor executor, boolean ordered, Consumer<? super Message> action) throws IOException {
+        int maxPending = PENDING_BATCHES_PER_PROCESSOR * Runtime.getRuntime().availableProcessors();
+        Deque<BatchTask> pending = new ArrayDeque<>();
+        BlockingQueue<BatchTask> completed = new LinkedBlockingQueue<>();
+        boolean more = true;
+        try {
+            while (true) {
+                while (more && pending.size() < maxPending) {
+                    List<MessageSlice> batch = nextBatch();
+                    if (batch.isEmpty()) {
+                        more = false;
+                    } else {
+                        BatchTask task = new BatchTask(batch, ordered ? null : completed);
+                        pending.add(task);
+                        executor.execute(task);
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                BatchTask task = ordered ? pending.peekFirst() : completed.take();
+                List<Message> messages = result(task);
+                pending.remove(task);
+                messages.forEach(action);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for messages.");
+        } finally {
+            for (BatchTask task : pending) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private List<MessageSlice> nextBatch() throws IOException {
+        List<MessageSlice> batch = new ArrayList<>();
+        int size = 0;
+        while (size < BATCH_SIZE) {
+            MessageSlice slice = slicer.next();
+            if (slice == null) {
+                break;
+            }
+            batch.add(slice);
+            size += slice.bytes.remaining();
+        }
+        return batch;
+    }
+
+    private static List<Message> result(BatchTask task) throws IOException, InterruptedException {
+        try {
+            return task.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private Message parse(MessageSlice slice) throws IOException {
+        // messages are small, so a read buffer of the default size would dominate the cost
+        int bufferSize = Math.min(options.bufferSize, slice.bytes.remaining() + 1);
+        SegmentReader reader = new SegmentReader(filename, EdiByteReaders.of(slice.bytes, slice.charset), slice.format, options.withBufferSize(bufferSize), cache);
+        try {
+            return new Message(slice.index, reader.readAll());
+        } catch (ParseException ex) {
+            ParseException wrapped = new ParseException(ex.getMessage() + " In message " + slice.index + " at offset " + slice.offset + ".", ex.getLocation());
+            wrapped.initCause(ex);
+            throw wrapped;
+        }
+    }
+
+    private Message parseUnchecked(MessageSlice slice) {
+        try {
+            return parse(slice);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void closeUnchecked() {
+        try {
+            close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private class MessageSpliterator implements Spliterator<Message> {
+        @Override
+        public boolean tryAdvance(Consumer<? super Message> action) {
+            MessageSlice slice = nextSlice();
+            if (slice == null) {
+                return false;
+            }
+            action.accept(parseUnchecked(slice));
+            return true;
+        }
+
+        @Override
+        public Spliterator<Message> trySplit() {
+            List<MessageSlice> batch;
+            try {
+                batch = nextBatch();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            if (batch.isEmpty()) {
+                return null;
+            }
+            return batch.stream().map(ParallelMessageReader.this::parseUnchecked).spliterator();
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+        private MessageSlice nextSlice() {
+            try {
+                return slicer.next();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Parses a batch of messages and, if given a queue, adds itself to it when done.
+     */
+    private class BatchTask extends FutureTask<List<Message>> {
+        private final BlockingQueue<BatchTask> completed;
+
+        BatchTask(List<MessageSlice> batch, BlockingQueue<BatchTask> completed) {
+            super(() -> {
+                List<Message> messages = new ArrayList<>(batch.size());
+                for (MessageSlice slice : batch) {
+                    messages.add(parse(slice));
+                }
+                return messages;
+            });
+            this.completed = completed;
+        }
+
+        @Override
+        protected void done() {
+            if (completed != null) {
+                completed.add(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.edilib.edifact;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Diagnostic reported instead of a {@link ParseException} when reading with {@link Recovery}.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class ParseError {
+
+    private String message;
+
+    private Location location;
+}
@@ -0,0 +1,172 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.io.EdiByteReaders;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Cache of parsed interchanges keyed by the SHA-256 of their bytes, for partners retransmitting
+ * the same interchange after missing acknowledgements. Hashing runs many times faster than
+ * parsing, so a hit costs a fraction of reading the interchange again.
+ * <p>
+ * Interchanges are kept as {@link CompactInterchange}, which is immutable and can be handed to
+ * several callers. The least recently used entries are evicted once the approximate size of all
+ * entries exceeds the limit; an interchange larger than the limit is parsed but not cached.
+ * Inputs failing to parse are never cached, and as a {@link CompactInterchange} keeps no errors,
+ * the cache only reads without {@link ReaderOptions#recovery recovery}. The cache is thread safe;
+ * parsing runs outside the lock, so concurrent misses on the same input may both parse it.
+ */
+public final class ParseResultCache {
+
+    private final long maxBytes;
+    private final ReaderOptions options;
+    private final LinkedHashMap<Key, CompactInterchange> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ParseResultCache(long maxBytes) {
+        this(maxBytes, ReaderOptions.DEFAULT);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the options recover from errors, which would cache
+     * interchanges with dropped segments as if they were complete
+     */
+    public ParseResultCache(long maxBytes, ReaderOptions options) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Negative cache size " + maxBytes + ".");
+        }
+        if (options.recovery != Recovery.NONE) {
+            throw new IllegalArgumentException("Recovery " + options.recovery + " not supported, only complete parses are cached.");
+        }
+        this.maxBytes = maxBytes;
+        this.options = options;
+    }
+
+    /**
+     * Reads a file of up to 2 GB, mapped into memory for hashing and parsing.
+     */
+    public CompactInterchange read(Path path, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(path.toString(), channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), format);
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer, without changing its position.
+     */
+    public CompactInterchange read(String filename, ByteBuffer buffer, Format format) throws IOException {
+        Key key = key(buffer, format);
+        CompactInterchange interchange = get(key);
+        if (interchange != null) {
+            return interchange;
+        }
+
+        interchange = CompactInterchange.read(filename, EdiByteReaders.of(buffer, format), format, options);
+        put(key, interchange);
+        return interchange;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), bytes);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    private synchronized CompactInterchange get(Key key) {
+        CompactInterchange interchange = entries.get(key);
+        if (interchange != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return interchange;
+    }
+
+    private synchronized void put(Key key, CompactInterchange interchange) {
+        long size = interchange.memorySize();
+        if (size > maxBytes) {
+            return;
+        }
+        CompactInterchange previous = entries.put(key, interchange);
+        bytes += size - (previous != null ? previous.memorySize() : 0);
+        Iterator<CompactInterchange> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().memorySize();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Hashes the delimiters along with the bytes, as they decide how the bytes are read.
+     */
+    private static Key key(ByteBuffer buffer, Format format) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is required of every Java platform.", ex);
+        }
+        digest.update(new byte[]{(byte) (format.unaAllowed ? 1 : 0), (byte) format.componentDataElementSeperator,
+                (byte) format.dataElementSeperator, (byte) format.decimalMark, (byte) format.releaseCharacter,
+                (byte) format.repetitionSeperator, (byte) format.segmentTerminator});
+        digest.update(buffer.duplicate());
+        return new Key(digest.digest());
+    }
+
+    private static final class Key {
+        private final byte[] hash;
+        private final int hashCode;
+
+        Key(byte[] hash) {
+            this.hash = hash;
+            this.hashCode = Arrays.hashCode(hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(hash, ((Key) o).hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static class Stats {
+
+        private long hits;
+
+        private long misses;
+
+        private long evictions;
+
+        private int entries;
+
+        private long bytes;
+    }
+}
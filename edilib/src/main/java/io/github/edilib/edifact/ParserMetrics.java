@@ -0,0 +1,65 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.scanner.ScannerTokenType;
+
+/**
+ * Receives measurements from reading, for export to monitoring. Set an implementation with
+ * {@link ReaderOptions#withMetrics(ParserMetrics)}; with the default {@link #NONE} readers skip
+ * measuring altogether, so the disabled case costs a branch per block and segment.
+ * <p>
+ * Callbacks run on the reading thread and pass primitives only. Readers sharing an instance,
+ * like the workers of {@link ParallelMessageReader}, call it concurrently, so implementations
+ * must be thread safe. {@link CountingParserMetrics} keeps counters and a latency histogram;
+ * to record JFR events, commit a <code>jdk.jfr.Event</code> from {@link #message(long)} in an
+ * implementation of your own, the library itself does not depend on JFR to stay on Java 8.
+ */
+public interface ParserMetrics {
+
+    ParserMetrics NONE = new ParserMetrics() {
+    };
+
+    /**
+     * A block of chars was read from the underlying reader.
+     *
+     * @param chars number of chars read, 0 at the end of input; equals the bytes for single byte charsets
+     * @param nanos time blocked in {@link java.io.Reader#read(char[], int, int)}
+     */
+    default void read(int chars, long nanos) {
+    }
+
+    /**
+     * A token was scanned. Segments skipped without tokenizing them, like by {@link EdiQuery}, are
+     * not reported.
+     */
+    default void token(ScannerTokenType type) {
+    }
+
+    /**
+     * A segment starts.
+     *
+     * @param tag the tag, only valid during the call
+     */
+    default void segment(CharSequence tag) {
+    }
+
+    /**
+     * A message ended with its trailer, UNT or SE.
+     *
+     * @param nanos time spent reading the segments of the message, not counting the time the
+     *              caller spent between segments
+     */
+    default void message(long nanos) {
+    }
+
+    /**
+     * An interchange starts with UNB or ISA.
+     */
+    default void interchange() {
+    }
+
+    /**
+     * An error was found, either thrown or, when recovering, reported and skipped.
+     */
+    default void error(ParseError error) {
+    }
+}
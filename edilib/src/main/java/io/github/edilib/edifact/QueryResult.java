@@ -0,0 +1,57 @@
+package io.github.edilib.edifact;
+
+import java.util.List;
+
+/**
+ * Values selected by an {@link EdiQuery}, in the order of its selectors. A value is null if no
+ * segment matched the selector, and empty if the matching segment has no value at the position.
+ */
+public final class QueryResult {
+
+    private final List<String> selectors;
+    private final String[] values;
+
+    QueryResult(List<String> selectors, String[] values) {
+        this.selectors = selectors;
+        this.values = values;
+    }
+
+    public String get(int index) {
+        return values[index];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the selector is not part of the query
+     */
+    public String get(String selector) {
+        int index = selectors.indexOf(selector);
+        if (index == -1) {
+            throw new IllegalArgumentException("Unknown selector " + selector + ".");
+        }
+        return values[index];
+    }
+
+    /**
+     * @return true if all selectors matched
+     */
+    public boolean isComplete() {
+        for (String value : values) {
+            if (value == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("{");
+        for (int i = 0; i < values.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(selectors.get(i)).append('=').append(values[i]);
+        }
+        return buf.append('}').toString();
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.edilib.edifact;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.With;
+
+/**
+ * Tuning options for reading. Start from {@link #DEFAULT} and adapt with the <code>with...</code> methods.
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@With
+public class ReaderOptions {
+    public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+    public static final int DEFAULT_ERROR_BUDGET = 1000;
+
+    public static final int DEFAULT_MAX_SEGMENT_LENGTH = 1024 * 1024;
+
+    public static final ReaderOptions DEFAULT = new ReaderOptions(true, DEFAULT_BUFFER_SIZE, ValueCache.READER, Recovery.NONE, DEFAULT_ERROR_BUDGET, ParserMetrics.NONE,
+            DEFAULT_MAX_SEGMENT_LENGTH);
+
+    /**
+     * If set, {@link SimpleValue#integerValue} and {@link SimpleValue#decimalValue} are filled while reading.
+     * Otherwise they stay null and numbers are only parsed when asked for via {@link SimpleValue#asInt()},
+     * {@link SimpleValue#asLong()} or {@link SimpleValue#asDecimal()}.
+     */
+    public final boolean numericInference;
+
+    /**
+     * Size in chars of the read buffer. The underlying reader is read in blocks of this size, so no
+     * additional buffering is needed.
+     */
+    public final int bufferSize;
+
+    /**
+     * Scope of the cache for tags and short values. Values of up to 16 chars, like qualifiers and
+     * codes, are looked up in the cache so that equal values share one string.
+     */
+    public final ValueCache valueCache;
+
+    /**
+     * How to continue after malformed input. Unless {@link Recovery#NONE}, errors are reported to
+     * {@link EdiHandler#error(ParseError)} and reading resumes at the next segment or message.
+     */
+    public final Recovery recovery;
+
+    /**
+     * Number of errors tolerated when recovering; one more fails reading with a {@link ParseException}.
+     */
+    public final int errorBudget;
+
+    /**
+     * Receiver of measurements, {@link ParserMetrics#NONE} to skip measuring.
+     */
+    public final ParserMetrics metrics;
+
+    /**
+     * Maximum length in chars of a segment fed to an {@link IncrementalEventReader}, which holds an
+     * unterminated segment in memory until its terminator arrives. Feeding more fails with a
+     * {@link ParseException}, also when recovering.
+     */
+    public final int maxSegmentLength;
+}
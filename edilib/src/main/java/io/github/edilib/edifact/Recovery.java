@@ -0,0 +1,19 @@
+package io.github.edilib.edifact;
+
+/**
+ * What a reader does on malformed input.
+ */
+public enum Recovery {
+    /**
+     * Throw a {@link ParseException} on the first error.
+     */
+    NONE,
+    /**
+     * Report the error, skip to the end of the segment and continue with the next one.
+     */
+    SEGMENT,
+    /**
+     * Report the error and skip to the next message header, UNH or ST for formats without UNA.
+     */
+    MESSAGE
+}
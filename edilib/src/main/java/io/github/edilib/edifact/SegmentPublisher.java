@@ -0,0 +1,199 @@
+package io.github.edilib.edifact;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive Streams publisher of the segments or messages of a {@link SegmentReader}. Segments are
+ * only read as the subscriber requests them, so a slow subscriber slows down reading instead of
+ * letting segments pile up. The reader is closed when all segments are published, on an error
+ * and on cancellation. A subscriber throwing from <code>onNext</code> cancels its subscription, so
+ * it gets no further signal.
+ * <p>
+ * Segments are read on the executor, or on the thread requesting them if none is given. A reader
+ * can only be published once, so the publisher accepts a single subscriber. On Java 9 and later,
+ * <code>org.reactivestreams.FlowAdapters</code> adapts it to a <code>java.util.concurrent.Flow.Publisher</code>.
+ * Needs <code>org.reactivestreams:reactive-streams</code> on the classpath.
+ */
+public final class SegmentPublisher<T> implements Publisher<T> {
+
+    /**
+     * Reads the next item, null at the end of input.
+     */
+    private interface Source<T> {
+        T read() throws IOException;
+    }
+
+    private static final Executor CALLING_THREAD = Runnable::run;
+
+    private final SegmentReader reader;
+    private final Source<T> source;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    private SegmentPublisher(SegmentReader reader, Source<T> source, Executor executor) {
+        this.reader = reader;
+        this.source = source;
+        this.executor = executor;
+    }
+
+    public static SegmentPublisher<Segment> segments(SegmentReader reader) {
+        return segments(reader, CALLING_THREAD);
+    }
+
+    public static SegmentPublisher<Segment> segments(SegmentReader reader, Executor executor) {
+        return new SegmentPublisher<>(reader, () -> reader.hasNext() ? reader.next() : null, executor);
+    }
+
+    /**
+     * Publishes messages as {@link SegmentReader#messages()} streams them.
+     */
+    public static SegmentPublisher<Message> messages(SegmentReader reader) {
+        return messages(reader, CALLING_THREAD);
+    }
+
+    public static SegmentPublisher<Message> messages(SegmentReader reader, Executor executor) {
+        return new SegmentPublisher<>(reader, reader::readMessage, executor);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null.");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Only a single subscriber is supported."));
+            return;
+        }
+
+        ReaderSubscription subscription = new ReaderSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Requests and cancellation are recorded and handed to a drain loop, which only ever runs on
+     * one thread at a time. A request from within onNext only adds demand for the running loop,
+     * so the stack does not grow with the number of segments.
+     */
+    private class ReaderSubscription implements Subscription, Runnable {
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile Throwable invalidRequest;
+        private boolean done = false;
+
+        ReaderSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " items, but must request a positive number.");
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                finish(null, false);
+                return;
+            }
+            if (invalidRequest != null) {
+                finish(invalidRequest, true);
+                return;
+            }
+
+            while (demand.get() > 0 && !cancelled) {
+                T item;
+                try {
+                    item = source.read();
+                } catch (IOException | RuntimeException ex) {
+                    finish(ex, true);
+                    return;
+                }
+                if (item == null) {
+                    finish(null, true);
+                    return;
+                }
+                demand.decrementAndGet();
+                try {
+                    subscriber.onNext(item);
+                } catch (RuntimeException ex) {
+                    // the subscriber broke the contract, which only leaves cancelling
+                    cancelled = true;
+                }
+            }
+            if (cancelled) {
+                finish(null, false);
+            }
+        }
+
+        /**
+         * Closes the reader and, unless cancelled, signals the end to the subscriber.
+         */
+        private void finish(Throwable error, boolean signal) {
+            done = true;
+            try {
+                reader.close();
+            } catch (IOException ex) {
+                if (error == null) {
+                    error = ex;
+                } else {
+                    error.addSuppressed(ex);
+                }
+            }
+            if (!signal) {
+                return;
+            }
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -1,33 +1,109 @@
 package io.github.edilib.edifact;
 
-import io.github.edilib.edifact.internal.scanner.Scanner;
-import io.github.edilib.edifact.internal.scanner.ScannerToken;
-import io.github.edilib.edifact.internal.scanner.ScannerTokenType;
+import io.github.edilib.edifact.internal.io.EdiByteReaders;
+import io.github.edilib.edifact.internal.text.Numbers;
+import io.github.edilib.edifact.internal.text.StringCache;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import static java.util.Arrays.asList;
+public class SegmentReader implements Closeable {
 
-public class SegmentReader {
+    private final EdiEventReader rd;
+    private final ReaderOptions options;
+    private final SegmentBuilder builder;
+    private final List<ParseError> errors = new ArrayList<>();
+    private Segment segment;
+    private int messageIndex = 0;
 
-    enum State {
-        INITIAL,
-        INITIAL_UNA_SEEN,
-        IN_MESSAGE;
+    public SegmentReader(String filename, Reader rd, Format format) {
+        this(filename, rd, format, ReaderOptions.DEFAULT);
     }
 
-    private final List<Segment> segments = new LinkedList<>();
-    private final Scanner rd;
-    private State state = State.INITIAL;
+    public SegmentReader(String filename, Reader rd, Format format, ReaderOptions options) {
+        this(filename, rd, format, options, StringCache.of(options.valueCache));
+    }
 
-    public SegmentReader(String filename, Reader rd, Format format) {
-        this.rd = new Scanner(filename, rd, format);
+    /**
+     * @param cache cache for tags and values, null to cache tags only
+     */
+    SegmentReader(String filename, Reader rd, Format format, ReaderOptions options, StringCache cache) {
+        this.rd = new EdiEventReader(filename, rd, format, options);
+        this.options = options;
+        this.builder = new SegmentBuilder(cache != null ? cache : new StringCache(StringCache.TAG_CACHE_SIZE), cache);
+    }
+
+    /**
+     * Opens a file for reading in the format found by {@link FormatDetector}, skipping whitespace
+     * before the first segment.
+     */
+    public static SegmentReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return open(path.toString(), channel, FormatDetector.detectAndSkip(path.toString(), channel), ReaderOptions.DEFAULT);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens a file for reading. Single byte charsets, as named by the UNB syntax identifier, are read
+     * from memory mapped windows without charset decoding.
+     */
+    public static SegmentReader open(Path path, Format format) throws IOException {
+        return open(path, format, ReaderOptions.DEFAULT);
+    }
+
+    public static SegmentReader open(Path path, Format format, ReaderOptions options) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return open(path.toString(), channel, format, options);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads a file channel from its current position. The channel is closed with the reader.
+     */
+    public static SegmentReader open(String filename, FileChannel channel, Format format, ReaderOptions options) throws IOException {
+        return new SegmentReader(filename, EdiByteReaders.open(channel, format), format, options);
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer in the format found by {@link FormatDetector},
+     * without changing its position. Whitespace before the first segment is skipped.
+     */
+    public static SegmentReader of(String filename, ByteBuffer buffer) throws ParseException {
+        Format format = FormatDetector.detect(filename, buffer);
+        ByteBuffer content = buffer.duplicate();
+        content.position(buffer.position() + FormatDetector.leadingWhitespace(buffer));
+        return of(filename, content, format, ReaderOptions.DEFAULT);
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer, without changing its position.
+     */
+    public static SegmentReader of(String filename, ByteBuffer buffer, Format format) {
+        return of(filename, buffer, format, ReaderOptions.DEFAULT);
+    }
+
+    public static SegmentReader of(String filename, ByteBuffer buffer, Format format, ReaderOptions options) {
+        return new SegmentReader(filename, EdiByteReaders.of(buffer, format), format, options);
     }
 
     public List<Segment> readAll() throws IOException {
@@ -43,196 +119,197 @@ public class SegmentReader {
     public boolean hasNext() throws IOException {
         fill();
 
-        return !segments.isEmpty();
+        return segment != null;
     }
 
     public Segment peek() throws IOException {
         fillAndCheckNotEmpty();
 
-        return segments.get(0);
+        return segment;
     }
 
     public Segment next() throws IOException {
         fillAndCheckNotEmpty();
 
-        return segments.remove(0);
+        Segment next = segment;
+        segment = null;
+        return next;
     }
 
-    private void fillAndCheckNotEmpty() throws IOException {
-        fill();
+    /**
+     * Streams the remaining segments without holding them in memory. A parallel stream reads
+     * ahead batches of whole messages and processes them in parallel. Closing the stream closes
+     * the reader; read errors are thrown as {@link UncheckedIOException}.
+     */
+    public Stream<Segment> stream() {
+        return StreamSupport.stream(new BatchSpliterator<Segment>() {
+            @Override
+            protected Segment read() throws IOException {
+                return hasNext() ? next() : null;
+            }
 
-        if (segments.isEmpty()) {
-            throw new NoSuchElementException("No more segments.");
-        }
+            @Override
+            protected boolean endsBatch(Segment segment) {
+                return isMessageTrailer(segment);
+            }
+        }, false).onClose(this::closeUnchecked);
     }
 
-    private void fill() throws IOException {
-        if (!segments.isEmpty()) {
-            return;
+    /**
+     * Streams the remaining messages, from UNH to UNT or from ST to SE for formats without UNA.
+     * Segments outside of messages are skipped. Otherwise like {@link #stream()}.
+     */
+    public Stream<Message> messages() {
+        return StreamSupport.stream(new BatchSpliterator<Message>() {
+            @Override
+            protected Message read() throws IOException {
+                return readMessage();
+            }
+
+            @Override
+            protected boolean endsBatch(Message message) {
+                return true;
+            }
+        }, false).onClose(this::closeUnchecked);
+    }
+
+    /**
+     * @return the location of the last token read, the end of the segment last returned unless peeked ahead
+     */
+    public Location location() {
+        return rd.location();
+    }
+
+    /**
+     * @return the errors skipped so far when reading with {@link ReaderOptions#recovery}
+     */
+    public List<ParseError> errors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public void close() throws IOException {
+        rd.close();
+    }
+
+    Message readMessage() throws IOException {
+        while (hasNext() && !isMessageHeader(peek())) {
+            next();
+        }
+        if (!hasNext()) {
+            return null;
         }
 
-        while (true) {
-            switch (state) {
-                case INITIAL:
-                    if (rd.peek().type == ScannerTokenType.UNA_TAG) {
-                        readUnaSegment();
-                        state = State.INITIAL_UNA_SEEN;
-                    } else if (rd.peek().type == ScannerTokenType.EOF) {
-                        throw new ParseException("Empty file.", rd.peek().pos);
-                    } else {
-                        state = State.IN_MESSAGE;
-                    }
-                    break;
-                case INITIAL_UNA_SEEN:
-                    if (rd.peek().type == ScannerTokenType.UNA_TAG) {
-                        throw new ParseException("Duplicate UNA segment seen.", rd.peek().pos);
-                    } else if (rd.peek().type == ScannerTokenType.EOF) {
-                        throw new ParseException("No segments after UNA segment found.", rd.peek().pos);
-                    } else {
-                        state = State.IN_MESSAGE;
-                    }
-                    break;
-                case IN_MESSAGE:
-                    if (rd.peek().type == ScannerTokenType.EOF) {
-                        return;
-                    } else if (rd.peek().type == ScannerTokenType.VALUE) {
-                        readSegment();
-                        return;
-                    } else {
-                        throw unexpectedInput(rd.next());
-                    }
-                default:
-                    throw new IllegalStateException("Illegal state: " + state + ".");
+        List<Segment> segments = new ArrayList<>();
+        segments.add(next());
+        while (hasNext()) {
+            Segment segment = next();
+            segments.add(segment);
+            if (isMessageTrailer(segment)) {
+                return new Message(messageIndex++, segments);
             }
         }
+        throw new ParseException("Message not terminated.", rd.location());
     }
 
-    private void readUnaSegment() throws IOException {
-        consume(ScannerTokenType.UNA_TAG);
+    private boolean isMessageHeader(Segment segment) {
+        return segment.getTag().getName().equals(rd.format().unaAllowed ? "UNH" : "ST");
     }
 
-    private IOException unexpectedInput(ScannerToken next) {
-        return new ParseException("Unexpected token: " + next.type + ", value=" + next.stringValue, next.pos);
+    private boolean isMessageTrailer(Segment segment) {
+        return segment.getTag().getName().equals(rd.format().unaAllowed ? "UNT" : "SE");
     }
 
-    private void readSegment() throws IOException {
-        if (follows(ScannerTokenType.EOF)) {
-            return;
+    private void closeUnchecked() {
+        try {
+            close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
+    }
 
-        Tag tag = readSegmentTag();
-        List<Value> dataElements = readSegmentDataElements();
-        readSegmentEnd();
+    private void fillAndCheckNotEmpty() throws IOException {
+        fill();
 
-        segments.add(new Segment(tag, dataElements));
+        if (segment == null) {
+            throw new NoSuchElementException("No more segments.");
+        }
     }
 
-    private void readSegmentEnd() throws IOException {
-        consume(ScannerTokenType.SEGMENT_TERMINATOR);
+    private void fill() throws IOException {
+        if (segment != null) {
+            return;
+        }
+
+        rd.readSegment(builder);
     }
 
-    private ScannerToken consume(ScannerTokenType... expectedTypes) throws IOException {
-        ScannerToken next = rd.next();
-        if (!asList(expectedTypes).contains(next.type)) {
-            throw unexpectedInput(next);
+    private class SegmentBuilder implements EdiHandler {
+        private final StringCache tags;
+        private final StringCache values;
+        private String tagName;
+        private List<SimpleValue> tagComponents;
+        private List<Value> dataElements;
+        private List<SimpleValue> simpleValues;
+
+        SegmentBuilder(StringCache tags, StringCache values) {
+            this.tags = tags;
+            this.values = values;
         }
-        return next;
-    }
 
-    private List<Value> readSegmentDataElements() throws IOException {
-        List<Value> dataElements = new ArrayList<>();
-        while (follows(ScannerTokenType.DATA_ELEMENT_SEPERATOR)) {
-            Value dataElement = readDataElement();
-            dataElements.add(dataElement);
-        }
-        return dataElements;
-    }
-
-    private Value readDataElement() throws IOException {
-        List<Value> values = new ArrayList<>();
-        consume(ScannerTokenType.DATA_ELEMENT_SEPERATOR);
-        final int IN_SIMPLE_VALUE = 0;
-        final int IN_COMPOSITE_VALUE = 1;
-        final int IN_REPETITION_VALUE = 2;
-        int state = IN_SIMPLE_VALUE;
-        boolean valueSeen = false;
-        while (true) {
-            if (follows(ScannerTokenType.VALUE)) {
-                ScannerToken valueToken = consume(ScannerTokenType.VALUE);
-                values.add(new SimpleValue(valueToken.stringValue, valueToken.integerValue, valueToken.decimalValue));
-                valueSeen = true;
-            } else if ((state == IN_SIMPLE_VALUE || state == IN_COMPOSITE_VALUE)
-                    && follows(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR)) {
-                state = IN_COMPOSITE_VALUE;
-                if (!valueSeen) {
-                    values.add(new SimpleValue("", null, null));
-                }
-                valueSeen = false;
-                consume(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR);
-            } else if ((state == IN_SIMPLE_VALUE || state == IN_REPETITION_VALUE)
-                    && follows(ScannerTokenType.REPETITION_SEPERATOR)) {
-                state = IN_REPETITION_VALUE;
-                if (!valueSeen) {
-                    values.add(new SimpleValue("", null, null));
-                }
-                valueSeen = false;
-                consume(ScannerTokenType.REPETITION_SEPERATOR);
-            } else if (follows(ScannerTokenType.DATA_ELEMENT_SEPERATOR, ScannerTokenType.SEGMENT_TERMINATOR)) {
-                if (!valueSeen) {
-                    values.add(new SimpleValue("", null, null));
-                }
-
-                if (state == IN_SIMPLE_VALUE) {
-                    return values.get(0);
-                } else if (state == IN_COMPOSITE_VALUE) {
-                    return new ComponentValue(values.stream().map((c) -> (SimpleValue) c).collect(Collectors.toList()));
-                } else if (state == IN_REPETITION_VALUE) {
-                    return new RepetitionValue(values.stream().map((c) -> (SimpleValue) c).collect(Collectors.toList()));
-                } else {
-                    throw new IllegalStateException(String.valueOf(state));
-                }
-            } else {
-                throw unexpectedInput(rd.next());
+        @Override
+        public void startSegment(CharSequence tag) {
+            tagName = tags.get(tag);
+            tagComponents = new ArrayList<>();
+            dataElements = new ArrayList<>();
+        }
+
+        @Override
+        public void tagComponent(int componentIndex, CharSequence value) {
+            tagComponents.add(simpleValue(value));
+        }
+
+        @Override
+        public void element(int elementIndex, CharSequence value) {
+            dataElements.add(simpleValue(value));
+        }
+
+        @Override
+        public void component(int elementIndex, int componentIndex, CharSequence value) {
+            if (componentIndex == 0) {
+                simpleValues = new ArrayList<>();
+                dataElements.add(new ComponentValue(simpleValues));
             }
+            simpleValues.add(simpleValue(value));
         }
-    }
 
-    private boolean follows(ScannerTokenType... types) throws IOException {
-        return asList(types).contains(rd.peek().type);
-    }
-
-    private Tag readSegmentTag() throws IOException {
-
-        ScannerToken valueToken = consume(ScannerTokenType.VALUE);
-        List<SimpleValue> componentValues = new ArrayList<>();
-        boolean valueSeen = false;
-        if (follows(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR)) {
-            consume(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR);
-            while (true) {
-                if (follows(ScannerTokenType.VALUE)) {
-                    ScannerToken componentValueToken = consume(ScannerTokenType.VALUE);
-                    componentValues.add(new SimpleValue(componentValueToken.stringValue, componentValueToken.integerValue, componentValueToken.decimalValue));
-                    valueSeen = true;
-                } else if (follows(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR)
-                        || follows(ScannerTokenType.DATA_ELEMENT_SEPERATOR)) {
-                    if (!valueSeen) {
-                        componentValues.add(new SimpleValue("", null, null));
-                    }
-                    consume(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR,
-                            ScannerTokenType.DATA_ELEMENT_SEPERATOR,
-                            ScannerTokenType.SEGMENT_TERMINATOR);
-                    valueSeen = false;
-                } else if (follows(ScannerTokenType.SEGMENT_TERMINATOR, ScannerTokenType.DATA_ELEMENT_SEPERATOR)) {
-                    if (!valueSeen) {
-                        componentValues.add(new SimpleValue("", null, null));
-                    }
-                    break;
-                } else {
-                    throw unexpectedInput(rd.next());
-                }
+        @Override
+        public void repetition(int elementIndex, int repetitionIndex, CharSequence value) {
+            if (repetitionIndex == 0) {
+                simpleValues = new ArrayList<>();
+                dataElements.add(new RepetitionValue(simpleValues));
             }
+            simpleValues.add(simpleValue(value));
+        }
+
+        @Override
+        public void endSegment() {
+            segment = new Segment(new Tag(tagName, tagComponents), dataElements);
+            simpleValues = null;
         }
 
-        return new Tag(valueToken.stringValue, componentValues);
+        @Override
+        public void error(ParseError error) {
+            errors.add(error);
+        }
+
+        private SimpleValue simpleValue(CharSequence value) {
+            char decimalMark = rd.format().decimalMark;
+            String stringValue = values != null ? values.get(value) : value.toString();
+            if (options.numericInference) {
+                return new SimpleValue(stringValue, Numbers.parseInteger(value), Numbers.parseDecimal(value, decimalMark), decimalMark);
+            }
+            return new SimpleValue(stringValue, null, null, decimalMark);
+        }
     }
 }
@@ -0,0 +1,262 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.io.ByteBufferOutputStream;
+import io.github.edilib.edifact.internal.io.EdiCharsets;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Writes segments in a format, the counterpart of {@link SegmentReader}. Delimiters and release
+ * characters within values are escaped by the release character; in a format without one, like
+ * X12, a delimiter within a value is rejected. Output is collected in a buffer
+ * and passed on in blocks; call {@link #flush()} or {@link #close()} when done.
+ * <p>
+ * Besides whole {@link Segment segments}, segments can be written piece by piece: a segment is
+ * started with its tag, each {@link #writeElement(CharSequence)} starts a data element, and
+ * {@link #writeComponent(CharSequence)} and {@link #writeRepetition(CharSequence)} append further
+ * values to the current data element, or to the tag if no data element was written yet.
+ */
+public class SegmentWriter implements Closeable, Flushable {
+
+    private static final int MIN_BUFFER_SIZE = 16;
+
+    private final Writer wr;
+    private final Format format;
+    private final WriterOptions options;
+    private final boolean[] escaped;
+    private final char[] buffer;
+    private int pos = 0;
+    private boolean started = false;
+    private boolean inSegment = false;
+
+    public SegmentWriter(Writer wr, Format format) {
+        this(wr, format, WriterOptions.DEFAULT);
+    }
+
+    public SegmentWriter(Writer wr, Format format, WriterOptions options) {
+        this.wr = wr;
+        this.format = format;
+        this.options = options;
+        this.escaped = escapeTable(format);
+        this.buffer = new char[Math.max(MIN_BUFFER_SIZE, options.bufferSize)];
+    }
+
+    /**
+     * Writes ISO-8859-1 bytes, the default charset of the UNOC syntax identifier.
+     */
+    public static SegmentWriter of(OutputStream out, Format format) {
+        return of(out, format, EdiCharsets.DEFAULT, WriterOptions.DEFAULT);
+    }
+
+    public static SegmentWriter of(OutputStream out, Format format, Charset charset, WriterOptions options) {
+        return new SegmentWriter(new OutputStreamWriter(out, charset.newEncoder()), format, options);
+    }
+
+    /**
+     * Writes into a buffer from its current position. Writing beyond its limit throws a
+     * {@link java.nio.BufferOverflowException}.
+     */
+    public static SegmentWriter of(ByteBuffer buffer, Format format, Charset charset, WriterOptions options) {
+        return of(new ByteBufferOutputStream(buffer), format, charset, options);
+    }
+
+    public void writeAll(List<Segment> segments) throws IOException {
+        for (Segment segment : segments) {
+            write(segment);
+        }
+    }
+
+    public void write(Segment segment) throws IOException {
+        Tag tag = segment.getTag();
+        startSegment(tag.getName());
+        if (tag.getComponentValues() != null) {
+            for (SimpleValue value : tag.getComponentValues()) {
+                writeComponent(value.stringValue);
+            }
+        }
+        for (Value value : segment.getDataElements()) {
+            if (value instanceof SimpleValue) {
+                writeElement(((SimpleValue) value).stringValue);
+            } else if (value instanceof ComponentValue) {
+                writeValues(((ComponentValue) value).values, format.componentDataElementSeperator);
+            } else if (value instanceof RepetitionValue) {
+                checkRepetitionSeperator();
+                writeValues(((RepetitionValue) value).values, format.repetitionSeperator);
+            } else {
+                throw new IllegalArgumentException("Unsupported value type: " + value);
+            }
+        }
+        endSegment();
+    }
+
+    /**
+     * Writes the UNA service string advice with the delimiters of the format. Written implicitly
+     * before the first segment if {@link WriterOptions#serviceStringAdvice} is set.
+     */
+    public void writeServiceStringAdvice() throws IOException {
+        if (inSegment) {
+            throw new IllegalStateException("UNA within segment.");
+        }
+        started = true;
+        ensureCapacity(9);
+        buffer[pos++] = 'U';
+        buffer[pos++] = 'N';
+        buffer[pos++] = 'A';
+        buffer[pos++] = format.componentDataElementSeperator;
+        buffer[pos++] = format.dataElementSeperator;
+        buffer[pos++] = format.decimalMark;
+        buffer[pos++] = format.hasReleaseCharacter() ? format.releaseCharacter : ' ';
+        buffer[pos++] = format.repetitionSeperator;
+        buffer[pos++] = format.segmentTerminator;
+    }
+
+    public void startSegment(CharSequence tag) throws IOException {
+        if (inSegment) {
+            throw new IllegalStateException("Segment not ended.");
+        }
+        if (!started && options.serviceStringAdvice) {
+            writeServiceStringAdvice();
+        }
+        started = true;
+        inSegment = true;
+        writeEscaped(tag);
+    }
+
+    public void writeElement(CharSequence value) throws IOException {
+        writeSeperated(format.dataElementSeperator, value);
+    }
+
+    public void writeComponent(CharSequence value) throws IOException {
+        writeSeperated(format.componentDataElementSeperator, value);
+    }
+
+    public void writeRepetition(CharSequence value) throws IOException {
+        checkRepetitionSeperator();
+        writeSeperated(format.repetitionSeperator, value);
+    }
+
+    public void endSegment() throws IOException {
+        checkInSegment();
+        inSegment = false;
+        ensureCapacity(2);
+        buffer[pos++] = format.segmentTerminator;
+        if (options.newlineAfterSegment) {
+            buffer[pos++] = '\n';
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        wr.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            wr.close();
+        }
+    }
+
+    private void writeValues(List<SimpleValue> values, char seperator) throws IOException {
+        for (int i = 0; i < values.size(); ++i) {
+            writeSeperated(i == 0 ? format.dataElementSeperator : seperator, values.get(i).stringValue);
+        }
+    }
+
+    private void writeSeperated(char seperator, CharSequence value) throws IOException {
+        checkInSegment();
+        ensureCapacity(1);
+        buffer[pos++] = seperator;
+        writeEscaped(value);
+    }
+
+    /**
+     * Copies the value into the buffer, prefixing delimiters and release characters with the release
+     * character. Up to twice the length of the value is reserved up front, so the loop needs no
+     * bounds checks per char.
+     */
+    private void writeEscaped(CharSequence value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        boolean[] escaped = this.escaped;
+        char releaseCharacter = format.releaseCharacter;
+        int length = value.length();
+        int start = 0;
+        while (start < length) {
+            int count = Math.min(length - start, buffer.length / 2);
+            ensureCapacity(2 * count);
+            char[] buffer = this.buffer;
+            int pos = this.pos;
+            for (int i = start; i < start + count; ++i) {
+                char c = value.charAt(i);
+                if (c < escaped.length && escaped[c]) {
+                    if (!format.hasReleaseCharacter()) {
+                        this.pos = pos;
+                        throw new IllegalArgumentException("Value " + value + " contains delimiter " + c + ", but the format has no release character.");
+                    }
+                    buffer[pos++] = releaseCharacter;
+                }
+                buffer[pos++] = c;
+            }
+            this.pos = pos;
+            start += count;
+        }
+    }
+
+    private void ensureCapacity(int count) throws IOException {
+        if (buffer.length - pos < count) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            wr.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+
+    private void checkInSegment() {
+        if (!inSegment) {
+            throw new IllegalStateException("No segment started.");
+        }
+    }
+
+    private void checkRepetitionSeperator() {
+        if (!format.hasRepetitionSeperator()) {
+            throw new IllegalArgumentException("Format has no repetition seperator.");
+        }
+    }
+
+    private static boolean[] escapeTable(Format format) {
+        char[] specials = {
+                format.componentDataElementSeperator,
+                format.dataElementSeperator,
+                format.hasReleaseCharacter() ? format.releaseCharacter : format.segmentTerminator,
+                format.segmentTerminator,
+                format.hasRepetitionSeperator() ? format.repetitionSeperator : format.segmentTerminator
+        };
+        char max = 0;
+        for (char c : specials) {
+            max = (char) Math.max(max, c);
+        }
+        boolean[] table = new boolean[max + 1];
+        for (char c : specials) {
+            table[c] = true;
+        }
+        return table;
+    }
+}
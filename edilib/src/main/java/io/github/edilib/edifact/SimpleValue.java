@@ -1,5 +1,6 @@
 package io.github.edilib.edifact;
 
+import io.github.edilib.edifact.internal.text.Numbers;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 
@@ -15,10 +16,45 @@ public class SimpleValue implements Value {
 
     public final BigDecimal decimalValue;
 
+    @EqualsAndHashCode.Exclude
+    private final char decimalMark;
+
     public SimpleValue(String stringValue) {
         this(stringValue, null, null);
     }
 
+    public SimpleValue(String stringValue, Integer integerValue, BigDecimal decimalValue) {
+        this(stringValue, integerValue, decimalValue, '.');
+    }
+
+    /**
+     * @return true if the value is a number, with or without decimal mark
+     */
+    public boolean isNumeric() {
+        return decimalValue != null || Numbers.isNumeric(stringValue, decimalMark);
+    }
+
+    /**
+     * @return the value as int or null if it is no integer in int range
+     */
+    public Integer asInt() {
+        return integerValue != null ? integerValue : Numbers.parseInteger(stringValue);
+    }
+
+    /**
+     * @return the value as long or null if it is no integer in long range
+     */
+    public Long asLong() {
+        return integerValue != null ? Long.valueOf(integerValue) : Numbers.parseLong(stringValue);
+    }
+
+    /**
+     * @return the value as decimal or null if it is not numeric
+     */
+    public BigDecimal asDecimal() {
+        return decimalValue != null ? decimalValue : Numbers.parseDecimal(stringValue, decimalMark);
+    }
+
     @Override
     public String toString() {
         return stringValue;
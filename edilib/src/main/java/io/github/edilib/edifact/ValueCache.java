@@ -0,0 +1,19 @@
+package io.github.edilib.edifact;
+
+/**
+ * Scope of the cache that lets equal short values share one string instance.
+ */
+public enum ValueCache {
+    /**
+     * Values are not cached; tags are still cached per reader.
+     */
+    NONE,
+    /**
+     * Each reader has its own cache.
+     */
+    READER,
+    /**
+     * All readers share a cache, which pays off for many small inputs in one application.
+     */
+    SHARED
+}
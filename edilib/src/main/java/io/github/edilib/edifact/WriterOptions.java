@@ -0,0 +1,36 @@
+package io.github.edilib.edifact;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.With;
+
+/**
+ * Options for writing. Start from {@link #DEFAULT} and adapt with the <code>with...</code> methods.
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@With
+public class WriterOptions {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    public static final WriterOptions DEFAULT = new WriterOptions(false, false, DEFAULT_BUFFER_SIZE);
+
+    /**
+     * If set, a UNA service string advice with the delimiters of the format is written before the
+     * first segment.
+     */
+    public final boolean serviceStringAdvice;
+
+    /**
+     * If set, a newline is written after each segment terminator.
+     */
+    public final boolean newlineAfterSegment;
+
+    /**
+     * Size in chars of the write buffer. Output is passed on in blocks of this size, so no
+     * additional buffering is needed.
+     */
+    public final int bufferSize;
+}
@@ -0,0 +1,354 @@
+package io.github.edilib.edifact.binary;
+
+import io.github.edilib.edifact.ComponentValue;
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.Message;
+import io.github.edilib.edifact.ReaderOptions;
+import io.github.edilib.edifact.RepetitionValue;
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SimpleValue;
+import io.github.edilib.edifact.Tag;
+import io.github.edilib.edifact.Value;
+import io.github.edilib.edifact.internal.text.Numbers;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.COMPONENT;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.END;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.FIRST_TAG_INDEX;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.MAGIC;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.MESSAGE_ENTRY_SIZE;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.NEW_TAG;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.REPETITION;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.SIMPLE;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.SKIP_NEWLINE_FLAG;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.TRAILER_SIZE;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.UNA_ALLOWED_FLAG;
+import static io.github.edilib.edifact.binary.BinarySegmentWriter.VERSION;
+
+/**
+ * Reads segments written by {@link BinarySegmentWriter}. Segments are read one after the other
+ * like from a {@link io.github.edilib.edifact.SegmentReader}; on seekable channels, like files,
+ * {@link #readMessage(int)} also jumps to a message by the offsets in the footer.
+ * <p>
+ * Values are stored as text. Of the {@link ReaderOptions}, {@link ReaderOptions#numericInference}
+ * applies as when parsing, in the decimal mark of the format the segments were written in.
+ */
+public class BinarySegmentReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final Format format;
+    private final boolean numericInference;
+    private final List<String> tags = new ArrayList<>();
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean dictionaryComplete = false;
+    private boolean readingFooter = false;
+    private Segment segment;
+    private boolean ended = false;
+    private long messagesOffset = -1;
+    private int messageCount;
+
+    /**
+     * Reads the header from the current position of the channel.
+     *
+     * @throws IOException if the channel does not start with binary segments
+     */
+    public BinarySegmentReader(ReadableByteChannel channel) throws IOException {
+        this(channel, ReaderOptions.DEFAULT);
+    }
+
+    public BinarySegmentReader(ReadableByteChannel channel, ReaderOptions options) throws IOException {
+        this.channel = channel;
+        this.numericInference = options.numericInference;
+        buffer.limit(0);
+        ensure(6);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not binary segments, magic number missing.");
+        }
+        int version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version + " of binary segments.");
+        }
+        int flags = buffer.get();
+        char componentDataElementSeperator = (char) readVarint();
+        char dataElementSeperator = (char) readVarint();
+        char decimalMark = (char) readVarint();
+        char releaseCharacter = (char) readVarint();
+        char repetitionSeperator = (char) readVarint();
+        char segmentTerminator = (char) readVarint();
+        this.format = new Format((flags & SKIP_NEWLINE_FLAG) != 0, (flags & UNA_ALLOWED_FLAG) != 0, componentDataElementSeperator,
+                dataElementSeperator, decimalMark, releaseCharacter, repetitionSeperator, segmentTerminator);
+    }
+
+    public static BinarySegmentReader open(Path path) throws IOException {
+        return open(path, ReaderOptions.DEFAULT);
+    }
+
+    public static BinarySegmentReader open(Path path, ReaderOptions options) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BinarySegmentReader(channel, options);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the format the segments were read in
+     */
+    public Format format() {
+        return format;
+    }
+
+    public List<Segment> readAll() throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        while (hasNext()) {
+            segments.add(next());
+        }
+        return segments;
+    }
+
+    public boolean hasNext() throws IOException {
+        if (segment == null && !ended) {
+            segment = readSegment();
+        }
+        return segment != null;
+    }
+
+    public Segment next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more segments.");
+        }
+        Segment next = segment;
+        segment = null;
+        return next;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the channel is not seekable
+     */
+    public int messageCount() throws IOException {
+        readFooter();
+        return messageCount;
+    }
+
+    /**
+     * Reads a message by its zero based position. Reading continues after it.
+     *
+     * @throws UnsupportedOperationException if the channel is not seekable
+     */
+    public Message readMessage(int index) throws IOException {
+        readFooter();
+        if (index < 0 || index >= messageCount) {
+            throw new IndexOutOfBoundsException("Message " + index + " out of bounds for " + messageCount + " messages.");
+        }
+        SeekableByteChannel seekable = (SeekableByteChannel) channel;
+        ByteBuffer entry = readAt(seekable, messagesOffset + (long) index * MESSAGE_ENTRY_SIZE, MESSAGE_ENTRY_SIZE);
+        long offset = entry.getLong();
+        int segmentCount = entry.getInt();
+
+        seekable.position(offset);
+        buffer.clear().limit(0);
+        segment = null;
+        ended = false;
+        List<Segment> segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; ++i) {
+            Segment next = readSegment();
+            if (next == null) {
+                throw new EOFException("Message " + index + " truncated.");
+            }
+            segments.add(next);
+        }
+        return new Message(index, segments);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Loads the message table position and the complete tag dictionary, so that reading can
+     * start at any message.
+     */
+    private void readFooter() throws IOException {
+        if (messagesOffset != -1) {
+            return;
+        }
+        if (!(channel instanceof SeekableByteChannel)) {
+            throw new UnsupportedOperationException("Random access needs a seekable channel.");
+        }
+        SeekableByteChannel seekable = (SeekableByteChannel) channel;
+        long position = seekable.position();
+        long size = seekable.size();
+        if (size < TRAILER_SIZE) {
+            throw new EOFException("Footer missing.");
+        }
+        ByteBuffer trailer = readAt(seekable, size - TRAILER_SIZE, TRAILER_SIZE);
+        long messages = trailer.getLong();
+        int count = trailer.getInt();
+        long dictionaryOffset = trailer.getLong();
+        if (trailer.getInt() != MAGIC || dictionaryOffset > size - TRAILER_SIZE) {
+            throw new IOException("Footer missing or corrupt.");
+        }
+
+        ByteBuffer dictionary = readAt(seekable, dictionaryOffset, (int) (size - TRAILER_SIZE - dictionaryOffset));
+        ByteBuffer current = buffer;
+        buffer = dictionary;
+        readingFooter = true;
+        try {
+            int tagCount = readVarint();
+            tags.clear();
+            for (int i = 0; i < tagCount; ++i) {
+                tags.add(readString());
+            }
+        } finally {
+            buffer = current;
+            readingFooter = false;
+        }
+        dictionaryComplete = true;
+        seekable.position(position);
+        messagesOffset = messages;
+        messageCount = count;
+    }
+
+    private static ByteBuffer readAt(SeekableByteChannel channel, long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        channel.position(position);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes) == -1) {
+                throw new EOFException("Expected " + length + " bytes at " + position + ".");
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * @return the next segment, null at the end marker
+     */
+    private Segment readSegment() throws IOException {
+        int tagRef = readVarint();
+        if (tagRef == END) {
+            ended = true;
+            return null;
+        }
+        String tag;
+        if (tagRef == NEW_TAG) {
+            tag = readString();
+            // known already when the dictionary was loaded from the footer
+            if (!dictionaryComplete) {
+                tags.add(tag);
+            }
+        } else if (tagRef - FIRST_TAG_INDEX < tags.size()) {
+            tag = tags.get(tagRef - FIRST_TAG_INDEX);
+        } else {
+            throw new IOException("Undefined tag " + (tagRef - FIRST_TAG_INDEX) + ".");
+        }
+
+        int tagComponentCount = readVarint();
+        List<SimpleValue> tagComponents = tagComponentCount == 0 ? null : readValues(tagComponentCount - 1);
+
+        int elementCount = readVarint();
+        List<Value> elements = new ArrayList<>(elementCount);
+        for (int i = 0; i < elementCount; ++i) {
+            int header = readVarint();
+            int count = header >>> 2;
+            switch (header & 3) {
+                case SIMPLE:
+                    elements.add(readValue());
+                    break;
+                case COMPONENT:
+                    elements.add(new ComponentValue(readValues(count)));
+                    break;
+                case REPETITION:
+                    elements.add(new RepetitionValue(readValues(count)));
+                    break;
+                default:
+                    throw new IOException("Unknown element kind " + (header & 3) + ".");
+            }
+        }
+        return new Segment(new Tag(tag, tagComponents), elements);
+    }
+
+    private List<SimpleValue> readValues(int count) throws IOException {
+        List<SimpleValue> values = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            values.add(readValue());
+        }
+        return values;
+    }
+
+    private SimpleValue readValue() throws IOException {
+        String value = readString();
+        if (numericInference) {
+            return new SimpleValue(value, Numbers.parseInteger(value), Numbers.parseDecimal(value, format.decimalMark), format.decimalMark);
+        }
+        return new SimpleValue(value, null, null, format.decimalMark);
+    }
+
+    private String readString() throws IOException {
+        int header = readVarint();
+        int length = header >>> 1;
+        ensure(length);
+        int offset = buffer.arrayOffset() + buffer.position();
+        String s = new String(buffer.array(), offset, length, (header & 1) == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return s;
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                ensure(1);
+            }
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+
+    /**
+     * Makes n bytes available in the buffer, reading from the channel as needed.
+     */
+    private void ensure(int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return;
+        }
+        if (readingFooter) {
+            throw new IOException("Footer corrupt.");
+        }
+        if (buffer.capacity() < n) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(n, buffer.capacity() * 2));
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < n) {
+            if (channel.read(buffer) == -1) {
+                throw new EOFException("Binary segments truncated.");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,240 @@
+package io.github.edilib.edifact.binary;
+
+import io.github.edilib.edifact.ComponentValue;
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.RepetitionValue;
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SimpleValue;
+import io.github.edilib.edifact.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes segments in a compact binary form, to be read again by {@link BinarySegmentReader}
+ * without tokenizing text. All numbers are unsigned varints unless noted:
+ * <pre>
+ * file     := MAGIC(int) VERSION(byte) flags(byte) delimiters(6 chars) segment* END footer trailer
+ * segment  := tag tagComponents elementCount element*
+ * tag      := NEW_TAG string | index + FIRST_TAG_INDEX
+ * element  := (count &lt;&lt; 2 | kind) (string | string*count)
+ * string   := (length &lt;&lt; 1 | wide) bytes, Latin-1 unless wide, then UTF-8
+ * footer   := (offset(long) segmentCount(int))* per message, tagCount string*
+ * trailer  := messagesOffset(long) messageCount(int) dictionaryOffset(long) MAGIC(int)
+ * </pre>
+ * Tag components are written as count + 1, 0 standing for none. Tags are numbered in the order
+ * of their first use. The footer repeats all tags and gives the position of each message, so
+ * that a seekable reader can start at any message. Output is collected in a buffer and passed on
+ * in blocks; {@link #close()} writes the footer.
+ */
+public class BinarySegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x45444942;
+    static final int VERSION = 1;
+    static final int END = 0;
+    static final int NEW_TAG = 1;
+    static final int FIRST_TAG_INDEX = 2;
+    static final int SIMPLE = 0;
+    static final int COMPONENT = 1;
+    static final int REPETITION = 2;
+    static final int SKIP_NEWLINE_FLAG = 1;
+    static final int UNA_ALLOWED_FLAG = 2;
+    static final int MESSAGE_ENTRY_SIZE = 12;
+    static final int TRAILER_SIZE = 24;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_VARINT_SIZE = 5;
+
+    private final WritableByteChannel channel;
+    private final String messageHeader;
+    private final String messageTrailer;
+    private final Map<String, Integer> tags = new HashMap<>();
+    private final List<String> tagNames = new ArrayList<>();
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long flushed = 0;
+    private long[] messageOffsets = new long[16];
+    private int[] messageSegments = new int[16];
+    private int messageCount = 0;
+    private boolean inMessage = false;
+    private boolean closed = false;
+
+    public BinarySegmentWriter(WritableByteChannel channel, Format format) throws IOException {
+        this.channel = channel;
+        this.messageHeader = format.unaAllowed ? "UNH" : "ST";
+        this.messageTrailer = format.unaAllowed ? "UNT" : "SE";
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) ((format.skipNewlineAfterSegment ? SKIP_NEWLINE_FLAG : 0) | (format.unaAllowed ? UNA_ALLOWED_FLAG : 0)));
+        char[] delimiters = {format.componentDataElementSeperator, format.dataElementSeperator, format.decimalMark,
+                format.releaseCharacter, format.repetitionSeperator, format.segmentTerminator};
+        for (char delimiter : delimiters) {
+            putVarint(delimiter);
+        }
+    }
+
+    public void writeAll(List<Segment> segments) throws IOException {
+        for (Segment segment : segments) {
+            write(segment);
+        }
+    }
+
+    public void write(Segment segment) throws IOException {
+        if (closed) {
+            throw new IOException("Writer closed.");
+        }
+        String tag = segment.getTag().getName();
+        if (tag.equals(messageHeader)) {
+            startMessage();
+        }
+        if (inMessage) {
+            messageSegments[messageCount - 1]++;
+            inMessage = !tag.equals(messageTrailer);
+        }
+
+        Integer index = tags.get(tag);
+        if (index == null) {
+            tags.put(tag, tagNames.size());
+            tagNames.add(tag);
+            putVarint(NEW_TAG);
+            putString(tag);
+        } else {
+            putVarint(index + FIRST_TAG_INDEX);
+        }
+
+        List<SimpleValue> tagComponents = segment.getTag().getComponentValues();
+        if (tagComponents == null) {
+            putVarint(0);
+        } else {
+            putVarint(tagComponents.size() + 1);
+            putValues(tagComponents);
+        }
+
+        List<Value> elements = segment.getDataElements();
+        putVarint(elements.size());
+        for (Value element : elements) {
+            if (element instanceof SimpleValue) {
+                putVarint(SIMPLE);
+                putString(((SimpleValue) element).stringValue);
+            } else if (element instanceof ComponentValue) {
+                List<SimpleValue> values = ((ComponentValue) element).values;
+                putVarint(values.size() << 2 | COMPONENT);
+                putValues(values);
+            } else if (element instanceof RepetitionValue) {
+                List<SimpleValue> values = ((RepetitionValue) element).values;
+                putVarint(values.size() << 2 | REPETITION);
+                putValues(values);
+            } else {
+                throw new IllegalArgumentException("Unsupported value type: " + element);
+            }
+        }
+    }
+
+    /**
+     * Writes the footer and the rest of the buffer, then closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            putVarint(END);
+            long messagesOffset = offset();
+            for (int i = 0; i < messageCount; ++i) {
+                ensure(MESSAGE_ENTRY_SIZE);
+                buffer.putLong(messageOffsets[i]);
+                buffer.putInt(messageSegments[i]);
+            }
+            long dictionaryOffset = offset();
+            putVarint(tagNames.size());
+            for (String tag : tagNames) {
+                putString(tag);
+            }
+            ensure(TRAILER_SIZE);
+            buffer.putLong(messagesOffset);
+            buffer.putInt(messageCount);
+            buffer.putLong(dictionaryOffset);
+            buffer.putInt(MAGIC);
+            flushBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void startMessage() {
+        if (messageCount == messageOffsets.length) {
+            messageOffsets = Arrays.copyOf(messageOffsets, messageCount * 2);
+            messageSegments = Arrays.copyOf(messageSegments, messageCount * 2);
+        }
+        messageOffsets[messageCount] = offset();
+        messageSegments[messageCount] = 0;
+        messageCount++;
+        inMessage = true;
+    }
+
+    private long offset() {
+        return flushed + buffer.position();
+    }
+
+    private void putValues(List<SimpleValue> values) throws IOException {
+        for (SimpleValue value : values) {
+            putString(value.stringValue);
+        }
+    }
+
+    private void putString(String s) throws IOException {
+        int length = s.length();
+        boolean latin1 = true;
+        for (int i = 0; i < length && latin1; ++i) {
+            latin1 = s.charAt(i) <= 0xff;
+        }
+        if (latin1) {
+            putVarint(length << 1);
+            ensure(length);
+            for (int i = 0; i < length; ++i) {
+                buffer.put((byte) s.charAt(i));
+            }
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putVarint(bytes.length << 1 | 1);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private void putVarint(int value) throws IOException {
+        ensure(MAX_VARINT_SIZE);
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) (value & 0x7f | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return;
+        }
+        flushBuffer();
+        if (buffer.capacity() < n) {
+            buffer = ByteBuffer.allocate(n);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushed += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
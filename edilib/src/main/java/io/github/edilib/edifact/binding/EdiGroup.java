@@ -0,0 +1,19 @@
+package io.github.edilib.edifact.binding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a field to a nested segment group, named as in the {@link MessageDefinition}. A field of
+ * type {@link java.util.List} receives all occurrences, bound to its type argument, any other
+ * type the first one. The type is bound like the message, by its own {@link EdiValue} and
+ * {@link EdiGroup} fields.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface EdiGroup {
+
+    String value();
+}
@@ -0,0 +1,29 @@
+package io.github.edilib.edifact.binding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a field to a value of a segment of the enclosing group. Element and component indexes
+ * are zero based, the first data element after the tag has index 0. Supported field types are
+ * String, int, long, their wrappers and BigDecimal; fields stay untouched if the segment or value
+ * is missing.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface EdiValue {
+
+    String segment();
+
+    /**
+     * Selects the first segment whose first value, like the date/time qualifier of DTM, equals
+     * the qualifier. Empty to select the first segment of the tag.
+     */
+    String qualifier() default "";
+
+    int element();
+
+    int component() default 0;
+}
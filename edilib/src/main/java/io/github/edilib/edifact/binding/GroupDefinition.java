@@ -0,0 +1,52 @@
+package io.github.edilib.edifact.binding;
+
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Segment group, started by its first segment, the trigger segment.
+ */
+@ToString
+public final class GroupDefinition extends NodeDefinition {
+
+    private final String name;
+
+    private final List<NodeDefinition> children;
+
+    public GroupDefinition(String name, boolean mandatory, int maxOccurs, List<NodeDefinition> children) {
+        super(mandatory, maxOccurs);
+        if (children.isEmpty() || !(children.get(0) instanceof SegmentDefinition)) {
+            throw new IllegalArgumentException("Group " + name + " must start with a segment.");
+        }
+        this.name = name;
+        this.children = Collections.unmodifiableList(children);
+    }
+
+    @Override
+    public String getTriggerTag() {
+        return children.get(0).getTriggerTag();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public List<NodeDefinition> getChildren() {
+        return children;
+    }
+
+    /**
+     * @return the direct child of the name, null if there is none
+     */
+    public NodeDefinition getChild(String name) {
+        for (NodeDefinition child : children) {
+            if (child.getName().equals(name)) {
+                return child;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,302 @@
+package io.github.edilib.edifact.binding;
+
+import io.github.edilib.edifact.ComponentValue;
+import io.github.edilib.edifact.Message;
+import io.github.edilib.edifact.RepetitionValue;
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SimpleValue;
+import io.github.edilib.edifact.Value;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds messages to objects whose fields are annotated with {@link EdiValue} and {@link EdiGroup}.
+ * The annotations are checked against the message definition and compiled into method handles
+ * once, so binding a message does no reflection; create a binder once and reuse it, it is thread
+ * safe.
+ * <p>
+ * Bound classes need a no-arg constructor and non-final fields, which may be private as long as
+ * the package is open to this library.
+ */
+public final class MessageBinder<T> {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final MessageDefinition definition;
+    private final GroupBinder binder;
+
+    private MessageBinder(MessageDefinition definition, GroupBinder binder) {
+        this.definition = definition;
+        this.binder = binder;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the annotations of the type do not fit the definition
+     */
+    public static <T> MessageBinder<T> of(Class<T> type, MessageDefinition definition) {
+        return new MessageBinder<>(definition, compile(type, definition.getRoot()));
+    }
+
+    public T bind(Message message) {
+        return bind(message.getSegments());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the segments do not match the message definition or a
+     * value cannot be converted to the type of its field
+     */
+    public T bind(List<Segment> segments) {
+        return bind(definition.match(segments));
+    }
+
+    /**
+     * @throws IllegalArgumentException if a value cannot be converted to the type of its field
+     */
+    @SuppressWarnings("unchecked")
+    public T bind(SegmentGroup message) {
+        return (T) binder.bind(message);
+    }
+
+    private static GroupBinder compile(Class<?> type, GroupDefinition group) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<FieldBinder> fields = new ArrayList<>();
+        try {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    EdiValue value = field.getAnnotation(EdiValue.class);
+                    EdiGroup nested = field.getAnnotation(EdiGroup.class);
+                    if (value == null && nested == null) {
+                        continue;
+                    }
+                    if (Modifier.isFinal(field.getModifiers()) || Modifier.isStatic(field.getModifiers())) {
+                        throw new IllegalArgumentException("Field " + field + " must not be final or static.");
+                    }
+                    field.setAccessible(true);
+                    MethodHandle setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+                    if (value != null) {
+                        fields.add(valueBinder(field, value, group, setter));
+                    } else {
+                        fields.add(groupBinder(field, nested, group, setter));
+                    }
+                }
+            }
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return new GroupBinder(lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE), fields);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalArgumentException("Class " + type.getName() + " needs a no-arg constructor.", ex);
+        } catch (IllegalArgumentException ex) {
+            throw ex;
+        } catch (IllegalAccessException | RuntimeException ex) {
+            throw new IllegalArgumentException("Cannot bind class " + type.getName() + ".", ex);
+        }
+    }
+
+    private static FieldBinder valueBinder(Field field, EdiValue value, GroupDefinition group, MethodHandle setter) {
+        if (!(group.getChild(value.segment()) instanceof SegmentDefinition)) {
+            throw new IllegalArgumentException("Segment " + value.segment() + " of field " + field + " is not defined in " + group.getName() + ".");
+        }
+        if (value.element() < 0 || value.component() < 0) {
+            throw new IllegalArgumentException("Negative index in field " + field + ".");
+        }
+        return new ValueBinder(field, value.segment(), value.qualifier().isEmpty() ? null : value.qualifier(),
+                value.element(), value.component(), Conversion.of(field), setter);
+    }
+
+    private static FieldBinder groupBinder(Field field, EdiGroup nested, GroupDefinition group, MethodHandle setter) {
+        NodeDefinition child = group.getChild(nested.value());
+        if (!(child instanceof GroupDefinition)) {
+            throw new IllegalArgumentException("Group " + nested.value() + " of field " + field + " is not defined in " + group.getName() + ".");
+        }
+        boolean list = field.getType() == List.class;
+        Class<?> type = list ? elementType(field) : field.getType();
+        return new GroupFieldBinder(nested.value(), list, compile(type, (GroupDefinition) child), setter);
+    }
+
+    private static Class<?> elementType(Field field) {
+        Type type = field.getGenericType();
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+        }
+        throw new IllegalArgumentException("List field " + field + " needs a class as type argument.");
+    }
+
+    private static void set(MethodHandle setter, Object target, Object value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private enum Conversion {
+        STRING,
+        INT,
+        LONG,
+        DECIMAL;
+
+        static Conversion of(Field field) {
+            Class<?> type = field.getType();
+            if (type == String.class) {
+                return STRING;
+            } else if (type == int.class || type == Integer.class) {
+                return INT;
+            } else if (type == long.class || type == Long.class) {
+                return LONG;
+            } else if (type == BigDecimal.class) {
+                return DECIMAL;
+            }
+            throw new IllegalArgumentException("Unsupported type of field " + field + ".");
+        }
+
+        Object convert(SimpleValue value) {
+            switch (this) {
+                case STRING:
+                    return value.stringValue;
+                case INT:
+                    return value.asInt();
+                case LONG:
+                    return value.asLong();
+                case DECIMAL:
+                    return value.asDecimal();
+                default:
+                    throw new IllegalStateException("Unknown conversion " + this + ".");
+            }
+        }
+    }
+
+    private interface FieldBinder {
+        void bind(Object target, SegmentGroup group);
+    }
+
+    private static class GroupBinder {
+        private final MethodHandle constructor;
+        private final FieldBinder[] fields;
+
+        GroupBinder(MethodHandle constructor, List<FieldBinder> fields) {
+            this.constructor = constructor;
+            this.fields = fields.toArray(new FieldBinder[0]);
+        }
+
+        Object bind(SegmentGroup group) {
+            Object target;
+            try {
+                target = constructor.invokeExact();
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+            for (FieldBinder field : fields) {
+                field.bind(target, group);
+            }
+            return target;
+        }
+    }
+
+    private static class ValueBinder implements FieldBinder {
+        private final Field field;
+        private final String tag;
+        private final String qualifier;
+        private final int element;
+        private final int component;
+        private final Conversion conversion;
+        private final MethodHandle setter;
+
+        ValueBinder(Field field, String tag, String qualifier, int element, int component, Conversion conversion, MethodHandle setter) {
+            this.field = field;
+            this.tag = tag;
+            this.qualifier = qualifier;
+            this.element = element;
+            this.component = component;
+            this.conversion = conversion;
+            this.setter = setter;
+        }
+
+        @Override
+        public void bind(Object target, SegmentGroup group) {
+            for (Segment segment : group.getSegments()) {
+                if (segment.getTag().getName().equals(tag) && (qualifier == null || qualifier.equals(value(segment, 0, 0)))) {
+                    SimpleValue value = simpleValue(segment, element, component);
+                    if (value == null || value.stringValue.isEmpty()) {
+                        return;
+                    }
+                    Object converted = conversion.convert(value);
+                    if (converted == null) {
+                        throw new IllegalArgumentException("Value " + value.stringValue + " of " + tag + " " + element + ":" + component
+                                + " cannot be converted for field " + field + ".");
+                    }
+                    set(setter, target, converted);
+                    return;
+                }
+            }
+        }
+
+        private static String value(Segment segment, int element, int component) {
+            SimpleValue value = simpleValue(segment, element, component);
+            return value != null ? value.stringValue : null;
+        }
+
+        private static SimpleValue simpleValue(Segment segment, int element, int component) {
+            List<Value> elements = segment.getDataElements();
+            if (element >= elements.size()) {
+                return null;
+            }
+            Value value = elements.get(element);
+            if (value instanceof SimpleValue) {
+                return component == 0 ? (SimpleValue) value : null;
+            }
+            List<SimpleValue> values = value instanceof ComponentValue ? ((ComponentValue) value).values : ((RepetitionValue) value).values;
+            return component < values.size() ? values.get(component) : null;
+        }
+    }
+
+    private static class GroupFieldBinder implements FieldBinder {
+        private final String name;
+        private final boolean list;
+        private final GroupBinder binder;
+        private final MethodHandle setter;
+
+        GroupFieldBinder(String name, boolean list, GroupBinder binder, MethodHandle setter) {
+            this.name = name;
+            this.list = list;
+            this.binder = binder;
+            this.setter = setter;
+        }
+
+        @Override
+        public void bind(Object target, SegmentGroup group) {
+            List<Object> bound = list ? new ArrayList<>() : null;
+            for (SegmentGroup nested : group.getGroups()) {
+                if (!nested.getName().equals(name)) {
+                    continue;
+                }
+                Object value = binder.bind(nested);
+                if (!list) {
+                    set(setter, target, value);
+                    return;
+                }
+                bound.add(value);
+            }
+            if (list) {
+                set(setter, target, bound);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.edilib.edifact.binding;
+
+import io.github.edilib.edifact.Segment;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Structure of a message type, as listed in the message structure of a UN/EDIFACT directory like
+ * D96A. Definitions are written one entry per line, giving tag or group name, status (M or C) and
+ * maximum repetitions; the entries of a group follow it, indented deeper:
+ * <pre>
+ * UNH M 1
+ * BGM M 1
+ * DTM M 35
+ * SG2 C 99
+ *   NAD M 1
+ *   SG5 C 5
+ *     CTA M 1
+ *     COM C 5
+ * UNT M 1
+ * </pre>
+ * Blank lines and lines starting with <code>#</code> are ignored.
+ */
+@Getter
+public final class MessageDefinition {
+
+    private final String name;
+
+    private final GroupDefinition root;
+
+    public MessageDefinition(String name, GroupDefinition root) {
+        this.name = name;
+        this.root = root;
+    }
+
+    public static MessageDefinition parse(String name, String text) {
+        Deque<Entry> open = new ArrayDeque<>();
+        Entry root = new Entry(-1, name, true, 1);
+        open.push(root);
+        String[] lines = text.split("\r?\n");
+        for (int i = 0; i < lines.length; ++i) {
+            String line = lines[i];
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = trimmed.split("\\s+");
+            if (fields.length != 3 || !(fields[1].equals("M") || fields[1].equals("C"))) {
+                throw new IllegalArgumentException("Expected name, status M or C and repetitions in line " + (i + 1) + ": " + line);
+            }
+            int maxOccurs;
+            try {
+                maxOccurs = Integer.parseInt(fields[2]);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid repetitions in line " + (i + 1) + ": " + line);
+            }
+
+            int indent = line.indexOf(trimmed.charAt(0));
+            while (open.peek().indent >= indent) {
+                open.pop();
+            }
+            Entry entry = new Entry(indent, fields[0], fields[1].equals("M"), maxOccurs);
+            open.peek().children.add(entry);
+            open.push(entry);
+        }
+        if (root.children.isEmpty()) {
+            throw new IllegalArgumentException("No entries in definition of " + name + ".");
+        }
+        return new MessageDefinition(name, (GroupDefinition) root.toDefinition());
+    }
+
+    /**
+     * Arranges the segments of a message into groups. Occurrences are matched greedily by their
+     * trigger segment, the way UN/EDIFACT structures are designed to be read.
+     *
+     * @throws IllegalArgumentException if a mandatory entry is missing or a segment does not fit
+     * the structure
+     */
+    public SegmentGroup match(List<Segment> segments) {
+        int[] pos = {0};
+        SegmentGroup group = match(root, segments, pos);
+        if (pos[0] < segments.size()) {
+            throw new IllegalArgumentException("Unexpected segment " + segments.get(pos[0]).getTag().getName()
+                    + " at index " + pos[0] + " of " + name + " message.");
+        }
+        return group;
+    }
+
+    private SegmentGroup match(GroupDefinition definition, List<Segment> segments, int[] pos) {
+        List<Segment> groupSegments = new ArrayList<>();
+        List<SegmentGroup> groups = new ArrayList<>();
+        for (NodeDefinition child : definition.getChildren()) {
+            int count = 0;
+            String trigger = child.getTriggerTag();
+            while (count < child.getMaxOccurs() && pos[0] < segments.size()
+                    && segments.get(pos[0]).getTag().getName().equals(trigger)) {
+                if (child instanceof GroupDefinition) {
+                    groups.add(match((GroupDefinition) child, segments, pos));
+                } else {
+                    groupSegments.add(segments.get(pos[0]++));
+                }
+                count++;
+            }
+            if (count == 0 && child.isMandatory()) {
+                throw new IllegalArgumentException("Mandatory " + child.getName() + " missing at index " + pos[0] + " of " + name + " message.");
+            }
+        }
+        return new SegmentGroup(definition.getName(), groupSegments, groups);
+    }
+
+    private static class Entry {
+        final int indent;
+        final String name;
+        final boolean mandatory;
+        final int maxOccurs;
+        final List<Entry> children = new ArrayList<>();
+
+        Entry(int indent, String name, boolean mandatory, int maxOccurs) {
+            this.indent = indent;
+            this.name = name;
+            this.mandatory = mandatory;
+            this.maxOccurs = maxOccurs;
+        }
+
+        NodeDefinition toDefinition() {
+            if (children.isEmpty()) {
+                return new SegmentDefinition(name, mandatory, maxOccurs);
+            }
+            List<NodeDefinition> definitions = new ArrayList<>(children.size());
+            for (Entry child : children) {
+                definitions.add(child.toDefinition());
+            }
+            return new GroupDefinition(name, mandatory, maxOccurs, definitions);
+        }
+    }
+}
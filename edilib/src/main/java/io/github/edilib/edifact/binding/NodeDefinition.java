@@ -0,0 +1,30 @@
+package io.github.edilib.edifact.binding;
+
+import lombok.Getter;
+
+/**
+ * Entry of a message structure, a segment or a segment group, with its status and how often it
+ * may repeat.
+ */
+@Getter
+public abstract class NodeDefinition {
+
+    private final boolean mandatory;
+
+    private final int maxOccurs;
+
+    NodeDefinition(boolean mandatory, int maxOccurs) {
+        this.mandatory = mandatory;
+        this.maxOccurs = maxOccurs;
+    }
+
+    /**
+     * @return the tag of the segment that starts an occurrence of this entry
+     */
+    public abstract String getTriggerTag();
+
+    /**
+     * @return the segment tag or the group name
+     */
+    public abstract String getName();
+}
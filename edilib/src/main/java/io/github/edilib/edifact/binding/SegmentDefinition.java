@@ -0,0 +1,24 @@
+package io.github.edilib.edifact.binding;
+
+import lombok.ToString;
+
+@ToString
+public final class SegmentDefinition extends NodeDefinition {
+
+    private final String tag;
+
+    public SegmentDefinition(String tag, boolean mandatory, int maxOccurs) {
+        super(mandatory, maxOccurs);
+        this.tag = tag;
+    }
+
+    @Override
+    public String getTriggerTag() {
+        return tag;
+    }
+
+    @Override
+    public String getName() {
+        return tag;
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.edilib.edifact.binding;
+
+import io.github.edilib.edifact.Segment;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Occurrence of a segment group in a message, holding its segments and nested groups in input
+ * order. The message itself is the root group.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class SegmentGroup {
+
+    private String name;
+
+    private List<Segment> segments;
+
+    private List<SegmentGroup> groups;
+
+    /**
+     * @return the first segment of the tag, null if there is none
+     */
+    public Segment getSegment(String tag) {
+        for (Segment segment : segments) {
+            if (segment.getTag().getName().equals(tag)) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    public List<Segment> getSegments(String tag) {
+        List<Segment> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.getTag().getName().equals(tag)) {
+                result.add(segment);
+            }
+        }
+        return result;
+    }
+
+    public List<SegmentGroup> getGroups(String name) {
+        List<SegmentGroup> result = new ArrayList<>();
+        for (SegmentGroup group : groups) {
+            if (group.name.equals(name)) {
+                result.add(group);
+            }
+        }
+        return result;
+    }
+}
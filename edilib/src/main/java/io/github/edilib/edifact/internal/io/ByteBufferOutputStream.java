@@ -0,0 +1,27 @@
+package io.github.edilib.edifact.internal.io;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Output stream into a byte buffer, used to encode chars into a buffer. Writing beyond the limit of
+ * the buffer throws a {@link java.nio.BufferOverflowException}.
+ */
+public class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferOutputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        buffer.put(b, off, len);
+    }
+}
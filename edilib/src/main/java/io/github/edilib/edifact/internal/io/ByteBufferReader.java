@@ -0,0 +1,114 @@
+package io.github.edilib.edifact.internal.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads chars from byte buffers in a single byte charset. Bytes are mapped to chars through a
+ * 256 entry table, so no {@link CharsetDecoder} and no intermediate copy are involved.
+ */
+public class ByteBufferReader extends Reader {
+
+    private static final int SCRATCH_SIZE = 8 * 1024;
+    private static final Map<Charset, char[]> TABLES = new ConcurrentHashMap<>();
+    private static final Map<Charset, Boolean> SINGLE_BYTE = new ConcurrentHashMap<>();
+
+    private final char[] table;
+    private ByteBuffer buffer;
+    private byte[] scratch;
+
+    public ByteBufferReader(ByteBuffer buffer, Charset charset) {
+        this.buffer = buffer;
+        this.table = charset.equals(StandardCharsets.ISO_8859_1) ? null : TABLES.computeIfAbsent(charset, ByteBufferReader::decodingTable);
+    }
+
+    public static boolean isSingleByte(Charset charset) {
+        return SINGLE_BYTE.computeIfAbsent(charset, c -> c.newEncoder().maxBytesPerChar() == 1.0f);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (buffer != null && !buffer.hasRemaining()) {
+            buffer = nextBuffer();
+        }
+        if (buffer == null) {
+            return -1;
+        }
+
+        int count = Math.min(len, buffer.remaining());
+        if (buffer.hasArray()) {
+            byte[] bytes = buffer.array();
+            int start = buffer.arrayOffset() + buffer.position();
+            decode(bytes, start, cbuf, off, count);
+            buffer.position(buffer.position() + count);
+        } else {
+            if (scratch == null) {
+                // small buffers, like single messages, need no full size scratch array
+                scratch = new byte[Math.min(SCRATCH_SIZE, buffer.remaining())];
+            }
+            count = Math.min(count, scratch.length);
+            buffer.get(scratch, 0, count);
+            decode(scratch, 0, cbuf, off, count);
+        }
+        return count;
+    }
+
+    private void decode(byte[] bytes, int start, char[] cbuf, int off, int count) {
+        if (table == null) {
+            for (int i = 0; i < count; ++i) {
+                cbuf[off + i] = (char) (bytes[start + i] & 0xff);
+            }
+        } else {
+            for (int i = 0; i < count; ++i) {
+                cbuf[off + i] = table[bytes[start + i] & 0xff];
+            }
+        }
+    }
+
+    /**
+     * @return the buffer to continue with after the current one is exhausted or null at end of input
+     */
+    protected ByteBuffer nextBuffer() throws IOException {
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+    }
+
+    private static char[] decodingTable(Charset charset) {
+        if (!isSingleByte(charset)) {
+            throw new IllegalArgumentException("Not a single byte charset: " + charset + ".");
+        }
+
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte) i;
+        }
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        char[] table = new char[256];
+        for (int i = 0; i < bytes.length; ++i) {
+            CharBuffer chars = CharBuffer.allocate(1);
+            decoder.reset();
+            decoder.decode(ByteBuffer.wrap(bytes, i, 1), chars, true);
+            decoder.flush(chars);
+            table[i] = chars.position() == 1 ? chars.get(0) : '\uFFFD';
+        }
+        return table;
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.edilib.edifact.internal.io;
+
+import io.github.edilib.edifact.Format;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Creates readers over bytes, in the charset named by the UNB syntax identifier. Single byte
+ * charsets are mapped directly, others go through a charset decoder.
+ */
+public final class EdiByteReaders {
+
+    private static final int HEAD_SIZE = 512;
+
+    private EdiByteReaders() {
+    }
+
+    /**
+     * @return a reader over the remaining bytes, leaving the position of the given buffer untouched
+     */
+    public static Reader of(ByteBuffer buffer, Format format) {
+        ByteBuffer bytes = buffer.slice();
+        return of(bytes, EdiCharsets.detect(bytes, format));
+    }
+
+    /**
+     * @return a reader over the remaining bytes in the given charset
+     */
+    public static Reader of(ByteBuffer bytes, Charset charset) {
+        if (ByteBufferReader.isSingleByte(charset)) {
+            return new ByteBufferReader(bytes, charset);
+        }
+
+        return new InputStreamReader(new ByteBufferInputStream(bytes), charset.newDecoder());
+    }
+
+    /**
+     * @return a reader over the channel from its current position, closing the channel on close
+     */
+    public static Reader open(FileChannel channel, Format format) throws IOException {
+        long position = channel.position();
+        long length = channel.size() - position;
+        Charset charset = EdiCharsets.detect(MappedFileReader.map(channel, position, Math.min(length, HEAD_SIZE)), format);
+        if (ByteBufferReader.isSingleByte(charset)) {
+            return new MappedFileReader(channel, position, length, charset);
+        }
+
+        return Channels.newReader(channel, charset.newDecoder(), -1);
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.edilib.edifact.internal.io;
+
+import io.github.edilib.edifact.Format;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the syntax identifier of the UNB segment to a charset.
+ */
+// https://unece.org/fileadmin/DAM/trade/untdid/d16b/tred/tred0001.htm
+public final class EdiCharsets {
+
+    public static final Charset DEFAULT = StandardCharsets.ISO_8859_1;
+
+    private static final int UNA_LENGTH = 9;
+    private static final int MAX_SYNTAX_IDENTIFIER_LENGTH = 4;
+    private static final Map<String, String> CHARSET_NAMES = new HashMap<>();
+
+    static {
+        CHARSET_NAMES.put("UNOA", "US-ASCII");
+        CHARSET_NAMES.put("UNOB", "US-ASCII");
+        CHARSET_NAMES.put("UNOC", "ISO-8859-1");
+        CHARSET_NAMES.put("UNOD", "ISO-8859-2");
+        CHARSET_NAMES.put("UNOE", "ISO-8859-5");
+        CHARSET_NAMES.put("UNOF", "ISO-8859-7");
+        CHARSET_NAMES.put("UNOG", "ISO-8859-3");
+        CHARSET_NAMES.put("UNOH", "ISO-8859-4");
+        CHARSET_NAMES.put("UNOI", "ISO-8859-6");
+        CHARSET_NAMES.put("UNOJ", "ISO-8859-8");
+        CHARSET_NAMES.put("UNOK", "ISO-8859-9");
+        CHARSET_NAMES.put("UNOW", "UTF-8");
+        CHARSET_NAMES.put("UNOY", "UTF-8");
+    }
+
+    private EdiCharsets() {
+    }
+
+    /**
+     * @return the charset for the syntax identifier or null if it is unknown
+     */
+    public static Charset forSyntaxIdentifier(String syntaxIdentifier) {
+        String name = CHARSET_NAMES.get(syntaxIdentifier);
+        if (name == null || !Charset.isSupported(name)) {
+            return null;
+        }
+        return Charset.forName(name);
+    }
+
+    /**
+     * Looks at the head of the buffer for an optional UNA and the UNB syntax identifier, without
+     * changing the buffer position.
+     *
+     * @return the charset named by the syntax identifier or {@link #DEFAULT}
+     */
+    public static Charset detect(ByteBuffer buffer, Format format) {
+        int pos = buffer.position();
+        int limit = buffer.limit();
+        char dataElementSeperator = format.dataElementSeperator;
+        char componentDataElementSeperator = format.componentDataElementSeperator;
+        char segmentTerminator = format.segmentTerminator;
+        if (format.unaAllowed && startsWith(buffer, pos, "UNA") && limit - pos >= UNA_LENGTH) {
+            componentDataElementSeperator = (char) (buffer.get(pos + 3) & 0xff);
+            dataElementSeperator = (char) (buffer.get(pos + 4) & 0xff);
+            segmentTerminator = (char) (buffer.get(pos + 8) & 0xff);
+            pos += UNA_LENGTH;
+        }
+        while (pos < limit && Character.isWhitespace((char) (buffer.get(pos) & 0xff)) && buffer.get(pos) != segmentTerminator) {
+            pos++;
+        }
+        if (!startsWith(buffer, pos, "UNB") || pos + 3 >= limit || buffer.get(pos + 3) != dataElementSeperator) {
+            return DEFAULT;
+        }
+
+        StringBuilder syntaxIdentifier = new StringBuilder(MAX_SYNTAX_IDENTIFIER_LENGTH);
+        for (pos += 4; pos < limit && syntaxIdentifier.length() <= MAX_SYNTAX_IDENTIFIER_LENGTH; ++pos) {
+            char c = (char) (buffer.get(pos) & 0xff);
+            if (c == componentDataElementSeperator || c == dataElementSeperator || c == segmentTerminator) {
+                break;
+            }
+            syntaxIdentifier.append(c);
+        }
+
+        Charset charset = forSyntaxIdentifier(syntaxIdentifier.toString());
+        return charset != null ? charset : DEFAULT;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int pos, String s) {
+        if (buffer.limit() - pos < s.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); ++i) {
+            if (buffer.get(pos + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
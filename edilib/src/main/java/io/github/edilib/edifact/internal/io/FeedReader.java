@@ -0,0 +1,303 @@
+package io.github.edilib.edifact.internal.io;
+
+import io.github.edilib.edifact.Format;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Reader over input that is fed in chunks, for example from a non-blocking channel. It tracks
+ * where complete segments end, carrying the release character, a partially fed UNA and the
+ * newline after a segment across chunks, so that a scanner is only started on segments it can
+ * read without waiting for more input; see {@link #completed()}.
+ * <p>
+ * Bytes are decoded in the charset given or, if none, in the charset named by the UNB syntax
+ * identifier. Bytes are held back until the first segment after an optional UNA is complete, so
+ * the syntax identifier can be detected. Multi byte sequences split across chunks are decoded
+ * once complete.
+ */
+public final class FeedReader extends Reader {
+
+    enum State {
+        SEGMENT_START,
+        UNA,
+        IN_SEGMENT,
+        RELEASE_SEEN,
+        AFTER_TERMINATOR
+    }
+
+    private static final int UNA_LENGTH = 9;
+    private static final int UNA_TAG_LENGTH = 3;
+    private static final int HEAD_SIZE = 512;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Format initialFormat;
+    private final boolean skipNewlineAfterSegment;
+    // -1 if the format has none
+    private int releaseCharacter;
+    private char segmentTerminator;
+    private Charset charset;
+    private CharsetDecoder decoder;
+    private ByteBuffer undecoded = ByteBuffer.allocate(0);
+
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    // chars before this are dropped, the offset of buffer[0] from the start of input
+    private long dropped = 0;
+    private int pos = 0;
+    private int limit = 0;
+    private int scan = 0;
+    private State state = State.SEGMENT_START;
+    private long completed = 0;
+    private boolean ended = false;
+
+    /**
+     * @param charset charset of fed bytes, null to detect it from the UNB syntax identifier
+     */
+    public FeedReader(Format format, Charset charset) {
+        this.initialFormat = format;
+        this.skipNewlineAfterSegment = format.skipNewlineAfterSegment;
+        this.releaseCharacter = format.hasReleaseCharacter() ? format.releaseCharacter : -1;
+        this.segmentTerminator = format.segmentTerminator;
+        this.charset = charset;
+    }
+
+    /**
+     * Takes the remaining bytes of the buffer.
+     */
+    public void feed(ByteBuffer bytes) throws IOException {
+        checkNotEnded();
+        undecoded = append(undecoded, bytes);
+        decode(false);
+    }
+
+    public void feed(char[] chars, int offset, int length) {
+        checkNotEnded();
+        ensureCapacity(length);
+        System.arraycopy(chars, offset, buffer, limit, length);
+        limit += length;
+        split();
+    }
+
+    /**
+     * Marks the end of input, after which the rest is read up to EOF.
+     */
+    public void end() throws IOException {
+        checkNotEnded();
+        decode(true);
+        ended = true;
+        split();
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+
+    /**
+     * @return the offset in chars up to which the input consists of complete segments, where the
+     * following chars are available to tell whether a UNA follows. Once ended, all input can be read.
+     */
+    public long completed() {
+        return completed;
+    }
+
+    /**
+     * @return the number of chars fed after {@link #completed()}, that is the length of the
+     * segment not yet terminated
+     */
+    public long pending() {
+        return dropped + limit - completed;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos == limit) {
+            if (ended) {
+                return -1;
+            }
+            throw new IllegalStateException("Read beyond the input fed so far.");
+        }
+
+        int count = Math.min(len, limit - pos);
+        System.arraycopy(buffer, pos, cbuf, off, count);
+        pos += count;
+        return count;
+    }
+
+    @Override
+    public void close() {
+        ended = true;
+    }
+
+    private void checkNotEnded() {
+        if (ended) {
+            throw new IllegalStateException("Input already ended.");
+        }
+    }
+
+    private void decode(boolean endOfInput) throws IOException {
+        undecoded.flip();
+        if (decoder == null) {
+            if (charset == null) {
+                if (!endOfInput && !headComplete(undecoded)) {
+                    undecoded.compact();
+                    return;
+                }
+                charset = EdiCharsets.detect(undecoded, initialFormat);
+            }
+            decoder = charset.newDecoder();
+        }
+
+        while (true) {
+            ensureCapacity((int) (undecoded.remaining() * decoder.maxCharsPerByte()) + 1);
+            CharBuffer out = CharBuffer.wrap(buffer, limit, buffer.length - limit);
+            CoderResult result = decoder.decode(undecoded, out, endOfInput);
+            if (endOfInput && result.isUnderflow()) {
+                result = decoder.flush(out);
+            }
+            limit = out.position();
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+        undecoded.compact();
+        split();
+    }
+
+    /**
+     * @return true if the head holds the first segment after an optional UNA, which contains the
+     * syntax identifier if it is a UNB
+     */
+    private boolean headComplete(ByteBuffer head) {
+        int start = head.position();
+        int length = head.remaining();
+        if (length >= HEAD_SIZE) {
+            return true;
+        }
+        if (length < UNA_TAG_LENGTH) {
+            return false;
+        }
+
+        char terminator = initialFormat.segmentTerminator;
+        if (head.get(start) == 'U' && head.get(start + 1) == 'N' && head.get(start + 2) == 'A') {
+            if (length < UNA_LENGTH) {
+                return false;
+            }
+            terminator = (char) (head.get(start + UNA_LENGTH - 1) & 0xff);
+            start += UNA_LENGTH;
+        }
+        for (int i = start; i < head.limit(); ++i) {
+            if ((head.get(i) & 0xff) == terminator) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Advances over the chars not yet split into segments, the same way the scanner reads them.
+     */
+    private void split() {
+        char[] buffer = this.buffer;
+        while (true) {
+            switch (state) {
+                case SEGMENT_START:
+                    if (limit - scan < UNA_TAG_LENGTH && !ended) {
+                        return;
+                    }
+                    completed = dropped + scan;
+                    state = limit - scan >= UNA_TAG_LENGTH && buffer[scan] == 'U' && buffer[scan + 1] == 'N' && buffer[scan + 2] == 'A'
+                            ? State.UNA : State.IN_SEGMENT;
+                    break;
+                case UNA:
+                    if (limit - scan < UNA_LENGTH) {
+                        return;
+                    }
+                    releaseCharacter = buffer[scan + 6];
+                    segmentTerminator = buffer[scan + 8];
+                    scan += UNA_LENGTH;
+                    state = State.SEGMENT_START;
+                    break;
+                case IN_SEGMENT:
+                    while (scan < limit) {
+                        char c = buffer[scan++];
+                        if (c == releaseCharacter) {
+                            state = State.RELEASE_SEEN;
+                            break;
+                        } else if (c == segmentTerminator) {
+                            state = State.AFTER_TERMINATOR;
+                            break;
+                        }
+                    }
+                    if (state == State.IN_SEGMENT) {
+                        return;
+                    }
+                    break;
+                case RELEASE_SEEN:
+                    if (scan == limit) {
+                        return;
+                    }
+                    scan++;
+                    state = State.IN_SEGMENT;
+                    break;
+                case AFTER_TERMINATOR:
+                    if (skipNewlineAfterSegment) {
+                        if (scan == limit && !ended) {
+                            return;
+                        }
+                        if (scan < limit && buffer[scan] == '\n') {
+                            scan++;
+                        }
+                    }
+                    state = State.SEGMENT_START;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown state " + state + ".");
+            }
+        }
+    }
+
+    /**
+     * Makes room for count more chars, dropping chars that are both read and split.
+     */
+    private void ensureCapacity(int count) {
+        if (buffer.length - limit >= count) {
+            return;
+        }
+
+        int start = Math.min(pos, scan);
+        int available = limit - start;
+        if (buffer.length < available + count) {
+            char[] grown = new char[Math.max(available + count, buffer.length * 2)];
+            System.arraycopy(buffer, start, grown, 0, available);
+            buffer = grown;
+        } else {
+            System.arraycopy(buffer, start, buffer, 0, available);
+        }
+        dropped += start;
+        pos -= start;
+        scan -= start;
+        limit = available;
+    }
+
+    private static ByteBuffer append(ByteBuffer target, ByteBuffer bytes) {
+        if (target.remaining() < bytes.remaining()) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(target.position() + bytes.remaining(), target.capacity() * 2));
+            target.flip();
+            grown.put(target);
+            target = grown;
+        }
+        target.put(bytes);
+        return target;
+    }
+}
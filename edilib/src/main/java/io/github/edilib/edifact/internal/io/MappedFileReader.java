@@ -0,0 +1,51 @@
+package io.github.edilib.edifact.internal.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Reads a file channel through consecutive memory mapped windows, so files beyond 2 GB work and
+ * no file content is copied onto the heap. The channel is closed with the reader.
+ */
+public class MappedFileReader extends ByteBufferReader {
+
+    static final long WINDOW_SIZE = 1024L * 1024L * 1024L;
+
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+
+    public MappedFileReader(FileChannel channel, Charset charset) throws IOException {
+        this(channel, 0, channel.size(), charset);
+    }
+
+    public MappedFileReader(FileChannel channel, long position, long length, Charset charset) throws IOException {
+        super(map(channel, position, length), charset);
+        this.channel = channel;
+        this.end = position + length;
+        this.position = position + Math.min(length, WINDOW_SIZE);
+    }
+
+    @Override
+    protected ByteBuffer nextBuffer() throws IOException {
+        if (position >= end) {
+            return null;
+        }
+
+        ByteBuffer buffer = map(channel, position, end - position);
+        position += buffer.remaining();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        channel.close();
+    }
+
+    static ByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(length, WINDOW_SIZE));
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.edilib.edifact.internal.io;
+
+import io.github.edilib.edifact.Format;
+import lombok.AllArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The bytes of a single message, from its header to its trailer segment, with the format and
+ * charset of the enclosing interchange.
+ */
+@AllArgsConstructor
+public class MessageSlice {
+    public final int index;
+
+    /**
+     * Zero based position of the enclosing interchange, -1 if the message is not in one.
+     */
+    public final int interchange;
+
+    public final long offset;
+
+    public final ByteBuffer bytes;
+
+    public final Format format;
+
+    public final Charset charset;
+}
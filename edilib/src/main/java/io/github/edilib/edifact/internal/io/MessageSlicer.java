@@ -0,0 +1,224 @@
+package io.github.edilib.edifact.internal.io;
+
+import io.github.edilib.edifact.Format;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Finds message boundaries in raw bytes without parsing. Segments are delimited by scanning for
+ * the segment terminator, which is escaped if preceded by an odd number of release characters.
+ * A message runs from a UNH to the next UNT segment, or from ST to SE if the format does not
+ * allow a UNA service string advice. Segments outside of messages are skipped, except that a UNA
+ * changes the delimiters and the syntax identifier of a UNB changes the charset for the following
+ * messages. UNB or ISA segments are counted to tell the interchange of each message.
+ * <p>
+ * Only charsets that encode the delimiters as single ASCII bytes are supported, which holds for
+ * all charsets of {@link EdiCharsets}.
+ */
+public final class MessageSlicer implements Closeable {
+
+    private static final int UNA_LENGTH = 9;
+    private static final byte[] UNA = ascii("UNA");
+
+    private final FileChannel channel;
+    private final long end;
+    private final byte[] startTag;
+    private final byte[] endTag;
+    private final byte[] interchangeTag;
+    private ByteBuffer window;
+    private long windowStart;
+    private int pos;
+    private int index;
+    private int interchange = -1;
+
+    private Format format;
+    private Charset charset = EdiCharsets.DEFAULT;
+    private byte segmentTerminator;
+    // outside the byte range if the format has none
+    private int releaseCharacter;
+    private byte dataElementSeperator;
+    private byte componentDataElementSeperator;
+
+    private MessageSlicer(FileChannel channel, long windowStart, long end, ByteBuffer window, Format format) {
+        this.channel = channel;
+        this.windowStart = windowStart;
+        this.end = end;
+        this.window = window;
+        this.startTag = ascii(format.unaAllowed ? "UNH" : "ST");
+        this.endTag = ascii(format.unaAllowed ? "UNT" : "SE");
+        this.interchangeTag = ascii(format.unaAllowed ? "UNB" : "ISA");
+        setFormat(format);
+    }
+
+    /**
+     * Slices the remaining bytes of a buffer, without changing its position.
+     */
+    public static MessageSlicer of(ByteBuffer buffer, Format format) {
+        ByteBuffer bytes = buffer.slice();
+        return new MessageSlicer(null, 0, bytes.limit(), bytes, format);
+    }
+
+    /**
+     * Slices a file channel from its current position through memory mapped windows. The channel
+     * is closed with the slicer.
+     */
+    public static MessageSlicer open(FileChannel channel, Format format) throws IOException {
+        long position = channel.position();
+        long end = channel.size();
+        return new MessageSlicer(channel, position, end, MappedFileReader.map(channel, position, end - position), format);
+    }
+
+    /**
+     * @return the next message or null at end of input. An unterminated message at end of input is
+     * returned as is, so that parsing it reports the error.
+     */
+    public MessageSlice next() throws IOException {
+        int messageStart = -1;
+        while (true) {
+            int limit = window.limit();
+            if (limit - pos <= UNA_LENGTH && slide(messageStart >= 0 ? messageStart : pos)) {
+                messageStart = messageStart >= 0 ? 0 : -1;
+                continue;
+            }
+            if (format.skipNewlineAfterSegment && pos < limit && window.get(pos) == '\n') {
+                pos++;
+            }
+            int segmentStart = pos;
+
+            if (messageStart < 0 && format.unaAllowed && startsWith(segmentStart, UNA) && limit - segmentStart >= UNA_LENGTH) {
+                readUna(segmentStart);
+                pos = segmentStart + UNA_LENGTH;
+                continue;
+            }
+
+            int segmentEnd = segmentEnd(segmentStart, limit);
+            if (segmentEnd < 0) {
+                int restart = messageStart >= 0 ? messageStart : segmentStart;
+                if (slide(restart)) {
+                    messageStart = messageStart >= 0 ? 0 : -1;
+                    continue;
+                }
+                pos = limit;
+                return messageStart >= 0 ? slice(messageStart, limit) : null;
+            }
+
+            pos = segmentEnd;
+            if (messageStart < 0) {
+                if (isTag(segmentStart, startTag)) {
+                    messageStart = segmentStart;
+                } else if (isTag(segmentStart, interchangeTag)) {
+                    interchange++;
+                    if (format.unaAllowed) {
+                        ByteBuffer header = window.duplicate();
+                        header.position(segmentStart);
+                        charset = EdiCharsets.detect(header, format);
+                    }
+                }
+            } else if (isTag(segmentStart, endTag)) {
+                return slice(messageStart, pos);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Maps the next window of the file, starting at the given index of the current window.
+     *
+     * @return false if the current window already reaches the end of input
+     */
+    private boolean slide(int from) throws IOException {
+        if (channel == null || windowStart + window.limit() >= end) {
+            return false;
+        }
+        if (from == 0) {
+            throw new IOException("Message at offset " + windowStart + " exceeds " + MappedFileReader.WINDOW_SIZE + " bytes.");
+        }
+
+        windowStart += from;
+        window = MappedFileReader.map(channel, windowStart, end - windowStart);
+        pos -= from;
+        return true;
+    }
+
+    /**
+     * @return the index after the segment terminator or -1 if the window ends before
+     */
+    private int segmentEnd(int from, int limit) {
+        ByteBuffer window = this.window;
+        byte segmentTerminator = this.segmentTerminator;
+        int releaseCharacter = this.releaseCharacter;
+        int releaseCharacters = 0;
+        for (int i = from; i < limit; ++i) {
+            byte b = window.get(i);
+            if (b == segmentTerminator && (releaseCharacters & 1) == 0) {
+                return i + 1;
+            }
+            releaseCharacters = b == releaseCharacter ? releaseCharacters + 1 : 0;
+        }
+        return -1;
+    }
+
+    private boolean isTag(int at, byte[] tag) {
+        if (!startsWith(at, tag) || at + tag.length >= window.limit()) {
+            return false;
+        }
+        byte next = window.get(at + tag.length);
+        return next == dataElementSeperator || next == componentDataElementSeperator || next == segmentTerminator;
+    }
+
+    private boolean startsWith(int at, byte[] bytes) {
+        if (window.limit() - at < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; ++i) {
+            if (window.get(at + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void readUna(int at) {
+        setFormat(new Format(format.skipNewlineAfterSegment, true,
+                (char) (window.get(at + 3) & 0xff),
+                (char) (window.get(at + 4) & 0xff),
+                (char) (window.get(at + 5) & 0xff),
+                (char) (window.get(at + 6) & 0xff),
+                (char) (window.get(at + 7) & 0xff),
+                (char) (window.get(at + 8) & 0xff)));
+    }
+
+    private void setFormat(Format format) {
+        this.format = format;
+        segmentTerminator = (byte) format.segmentTerminator;
+        releaseCharacter = format.hasReleaseCharacter() ? (byte) format.releaseCharacter : Integer.MIN_VALUE;
+        dataElementSeperator = (byte) format.dataElementSeperator;
+        componentDataElementSeperator = (byte) format.componentDataElementSeperator;
+    }
+
+    private MessageSlice slice(int from, int to) {
+        ByteBuffer bytes = window.duplicate();
+        bytes.limit(to);
+        bytes.position(from);
+        return new MessageSlice(index++, interchange, windowStart + from, bytes.slice(), format, charset);
+    }
+
+    private static byte[] ascii(String s) {
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte) s.charAt(i);
+        }
+        return bytes;
+    }
+}
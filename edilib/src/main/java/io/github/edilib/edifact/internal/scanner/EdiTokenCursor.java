@@ -0,0 +1,400 @@
+package io.github.edilib.edifact.internal.scanner;
+
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.Location;
+import io.github.edilib.edifact.ParserMetrics;
+import io.github.edilib.edifact.ReaderOptions;
+import io.github.edilib.edifact.ValueCache;
+import io.github.edilib.edifact.internal.text.CharArrayView;
+import io.github.edilib.edifact.internal.text.Numbers;
+import io.github.edilib.edifact.internal.text.StringCache;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Low level pull tokenizer. Each call to {@link #next()} moves the cursor to the next token,
+ * whose text is available as {@link #length()} chars at {@link #offset()} in {@link #buffer()}.
+ * The buffer is reused and only valid until the next call to {@link #next()}; no objects are
+ * created per token unless {@link #stringValue()} or {@link #location()} is called. The token
+ * position is kept as primitive {@link #line()} and {@link #column()}.
+ */
+// https://unece.org/fileadmin/DAM/trade/edifact/untdid/d422_s.htm
+public class EdiTokenCursor implements AutoCloseable {
+
+    enum State {
+        INITIAL,
+        IN_VALUE,
+        IN_VALUE_RELEASE_SEEN
+    }
+
+    private static final int UNA_LENGTH = 9;
+
+    private final String filename;
+    private final LookAheadReader reader;
+    private final ValueCache valueCache;
+    private final ParserMetrics metrics;
+    private final boolean measuring;
+    private StringCache cache;
+    private StringCache tagCache;
+    private Format format;
+    private State state = State.INITIAL;
+    private boolean atSegmentStart = true;
+    private boolean unaPending = false;
+
+    private ScannerTokenType type;
+    private char[] text = new char[64];
+    private final CharArrayView textView = new CharArrayView();
+    private int length;
+    private int line;
+    private long column;
+    private String message;
+    private String stringValue;
+    // the token is the first value of a segment
+    private boolean tag;
+
+    public EdiTokenCursor(String filename, Reader reader, Format format) {
+        this(filename, reader, format, ReaderOptions.DEFAULT);
+    }
+
+    public EdiTokenCursor(String filename, Reader reader, Format format, ReaderOptions options) {
+        this.filename = filename;
+        this.reader = new LookAheadReader(reader, options.bufferSize, options.metrics);
+        this.metrics = options.metrics;
+        this.measuring = options.metrics != ParserMetrics.NONE;
+        this.valueCache = options.valueCache;
+        this.format = format;
+    }
+
+    public ScannerTokenType next() throws IOException {
+        ScannerTokenType scanned = scan();
+        if (measuring) {
+            metrics.token(scanned);
+        }
+        return scanned;
+    }
+
+    private ScannerTokenType scan() throws IOException {
+        length = 0;
+        message = null;
+        stringValue = null;
+        tag = false;
+
+        if (unaPending) {
+            unaPending = false;
+            readUna();
+            return type;
+        }
+
+        line = reader.line();
+        column = reader.column();
+        if (state == State.INITIAL && atSegmentStart && reader.follows("UNA")) {
+            if (!format.unaAllowed) {
+                unaPending = true;
+                return error("UNA seen but now allowed.");
+            }
+            readUna();
+            return type;
+        }
+
+        while (true) {
+            int c = reader.peek();
+            switch (state) {
+                case INITIAL:
+                    if (c == -1) {
+                        type = ScannerTokenType.EOF;
+                        return type;
+                    } else if (format.hasReleaseCharacter() && c == format.releaseCharacter) {
+                        reader.read();
+                        state = State.IN_VALUE_RELEASE_SEEN;
+                    } else if (c == format.segmentTerminator) {
+                        separator(ScannerTokenType.SEGMENT_TERMINATOR);
+                        skipNewlineAfterSegment();
+                        atSegmentStart = true;
+                        return type;
+                    } else if (c == format.componentDataElementSeperator) {
+                        return separator(ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR);
+                    } else if (c == format.dataElementSeperator) {
+                        return separator(ScannerTokenType.DATA_ELEMENT_SEPERATOR);
+                    } else if (format.hasRepetitionSeperator() && c == format.repetitionSeperator) {
+                        return separator(ScannerTokenType.REPETITION_SEPERATOR);
+                    } else {
+                        reader.read();
+                        state = State.IN_VALUE;
+                        append((char) c);
+                    }
+                    break;
+                case IN_VALUE:
+                    if (c == -1
+                            || c == format.segmentTerminator
+                            || c == format.componentDataElementSeperator
+                            || c == format.dataElementSeperator
+                            || (format.hasRepetitionSeperator() && c == format.repetitionSeperator)) {
+                        return value();
+                    } else if (format.hasReleaseCharacter() && c == format.releaseCharacter) {
+                        reader.read();
+                        state = State.IN_VALUE_RELEASE_SEEN;
+                    } else {
+                        appendPlainChars();
+                    }
+                    break;
+                case IN_VALUE_RELEASE_SEEN:
+                    if (c == -1) {
+                        // the next token is EOF, so readers recovering from the error terminate
+                        state = State.INITIAL;
+                        return error("EOF after release character.");
+                    } else {
+                        reader.read();
+                        state = State.IN_VALUE;
+                        append((char) c);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown state " + state + ".");
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of the current segment up to and including its terminator, without creating
+     * tokens. The cursor is then on the terminator, or on EOF if the input ends before.
+     *
+     * @return false if the input ended within the segment
+     */
+    public boolean skipSegment() throws IOException {
+        length = 0;
+        message = null;
+        stringValue = null;
+        boolean released = state == State.IN_VALUE_RELEASE_SEEN;
+        state = State.INITIAL;
+        int releaseCharacter = format.hasReleaseCharacter() ? format.releaseCharacter : -1;
+        char segmentTerminator = format.segmentTerminator;
+        while (reader.pos < reader.limit || reader.fill(1)) {
+            char[] buffer = reader.buffer;
+            int pos = reader.pos;
+            int limit = reader.limit;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (released) {
+                    released = false;
+                } else if (c == releaseCharacter) {
+                    released = true;
+                } else if (c == segmentTerminator) {
+                    reader.pos = pos;
+                    type = ScannerTokenType.SEGMENT_TERMINATOR;
+                    skipNewlineAfterSegment();
+                    atSegmentStart = true;
+                    return true;
+                }
+            }
+            reader.pos = pos;
+        }
+        type = ScannerTokenType.EOF;
+        return false;
+    }
+
+    /**
+     * Tells the type of the following token from its first char, without moving the cursor. This
+     * lets a caller decide how to handle a value before the cursor moves on and the text is gone.
+     * Only meaningful after a VALUE or separator token, a service string advice is not detected.
+     */
+    public ScannerTokenType peekType() throws IOException {
+        int c = reader.peek();
+        if (c == -1) {
+            return ScannerTokenType.EOF;
+        } else if (c == format.segmentTerminator) {
+            return ScannerTokenType.SEGMENT_TERMINATOR;
+        } else if (c == format.componentDataElementSeperator) {
+            return ScannerTokenType.COMPONENT_DATA_ELEMENT_SEPERATOR;
+        } else if (c == format.dataElementSeperator) {
+            return ScannerTokenType.DATA_ELEMENT_SEPERATOR;
+        } else if (format.hasRepetitionSeperator() && c == format.repetitionSeperator) {
+            return ScannerTokenType.REPETITION_SEPERATOR;
+        }
+        return ScannerTokenType.VALUE;
+    }
+
+    public ScannerTokenType type() {
+        return type;
+    }
+
+    public char[] buffer() {
+        return text;
+    }
+
+    public int offset() {
+        return 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return a view of the token text, only valid until the next call to {@link #next()}
+     */
+    public CharSequence text() {
+        return textView.set(text, 0, length);
+    }
+
+    /**
+     * @return the token text as string, null for EOF and ERROR tokens. Short texts are shared
+     * through the value cache of the reader options; tags always are, through a small cache of the
+     * cursor under {@link ValueCache#NONE}.
+     */
+    public String stringValue() {
+        if (type == ScannerTokenType.EOF || type == ScannerTokenType.ERROR) {
+            return null;
+        }
+
+        if (stringValue == null) {
+            StringCache cache = tag ? tagCache() : valueCache();
+            stringValue = cache != null ? cache.get(text, 0, length) : new String(text, 0, length);
+        }
+
+        return stringValue;
+    }
+
+    private StringCache valueCache() {
+        if (cache == null && valueCache != ValueCache.NONE) {
+            cache = StringCache.of(valueCache);
+        }
+        return cache;
+    }
+
+    private StringCache tagCache() {
+        StringCache values = valueCache();
+        if (values != null) {
+            return values;
+        }
+        if (tagCache == null) {
+            tagCache = new StringCache(StringCache.TAG_CACHE_SIZE);
+        }
+        return tagCache;
+    }
+
+    public Integer integerValue() {
+        return Numbers.parseInteger(text());
+    }
+
+    public BigDecimal decimalValue() {
+        return Numbers.parseDecimal(text(), format.decimalMark);
+    }
+
+    public String message() {
+        return message;
+    }
+
+    /**
+     * @return the zero based line of the token
+     */
+    public int line() {
+        return line;
+    }
+
+    /**
+     * @return the zero based column of the token
+     */
+    public long column() {
+        return column;
+    }
+
+    public Location location() {
+        return new Location(filename, line, column);
+    }
+
+    /**
+     * @return the number of chars taken from the input, including those of a peeked token
+     */
+    public long inputOffset() {
+        return reader.position();
+    }
+
+    public Format format() {
+        return format;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readUna() throws IOException {
+        String value = reader.readNChars(UNA_LENGTH);
+        for (int i = 0; i < value.length(); ++i) {
+            append(value.charAt(i));
+        }
+        type = ScannerTokenType.UNA_TAG;
+        format = new Format(format.skipNewlineAfterSegment, true, value.charAt(3), value.charAt(4), value.charAt(5), value.charAt(6), value.charAt(7), value.charAt(8));
+    }
+
+    private ScannerTokenType separator(ScannerTokenType separatorType) throws IOException {
+        append((char) reader.read());
+        atSegmentStart = false;
+        type = separatorType;
+        return type;
+    }
+
+    private ScannerTokenType value() {
+        state = State.INITIAL;
+        tag = atSegmentStart;
+        atSegmentStart = false;
+        type = ScannerTokenType.VALUE;
+        return type;
+    }
+
+    private ScannerTokenType error(String message) {
+        this.message = message;
+        type = ScannerTokenType.ERROR;
+        return type;
+    }
+
+    private void skipNewlineAfterSegment() throws IOException {
+        if (format.skipNewlineAfterSegment && reader.peek() == '\n') {
+            reader.read();
+        }
+    }
+
+    /**
+     * Copies the run of chars up to the next separator or release character in one go.
+     */
+    private void appendPlainChars() {
+        char[] buffer = reader.buffer;
+        int start = reader.pos;
+        int end = start;
+        int limit = reader.limit;
+        Format format = this.format;
+        boolean repetitionSeperator = format.hasRepetitionSeperator();
+        int releaseCharacter = format.hasReleaseCharacter() ? format.releaseCharacter : -1;
+        while (end < limit) {
+            char c = buffer[end];
+            if (c == format.segmentTerminator
+                    || c == format.dataElementSeperator
+                    || c == format.componentDataElementSeperator
+                    || c == releaseCharacter
+                    || (repetitionSeperator && c == format.repetitionSeperator)) {
+                break;
+            }
+            end++;
+        }
+
+        int count = end - start;
+        ensureCapacity(length + count);
+        System.arraycopy(buffer, start, text, length, count);
+        length += count;
+        reader.pos = end;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > text.length) {
+            text = Arrays.copyOf(text, Math.max(capacity, text.length * 2));
+        }
+    }
+
+    private void append(char c) {
+        ensureCapacity(length + 1);
+        text[length++] = c;
+    }
+}
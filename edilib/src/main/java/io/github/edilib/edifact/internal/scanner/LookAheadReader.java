@@ -1,49 +1,70 @@
 package io.github.edilib.edifact.internal.scanner;
 
-import io.github.edilib.edifact.Location;
+import io.github.edilib.edifact.ParserMetrics;
 
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
-
+import java.util.Arrays;
+
+/**
+ * Reads blocks from the underlying reader into a linear buffer. Unread chars are moved to the
+ * front of the buffer before a refill, so lookahead works directly on the buffer.
+ * <p>
+ * Lines are counted on demand over the chars read since the last request, and before read chars
+ * are dropped from the buffer, so tracking them costs one pass over the input and no objects.
+ */
 class LookAheadReader implements AutoCloseable {
 
     private final Reader reader;
-    private final CharRingBuffer charRingBuffer = new CharRingBuffer(128);
-    private int pos = 0;
-    private final String filename;
+    private final ParserMetrics metrics;
+    private final boolean measuring;
+    char[] buffer;
+    int pos = 0;
+    int limit = 0;
+    // offset of buffer[0] from the start of input
+    long compacted = 0;
+    private int line = 0;
+    private long lineStart = 0;
+    // chars before this index in the buffer are counted into line and lineStart
+    private int counted = 0;
+    private boolean eof = false;
+
+    public LookAheadReader(Reader rd, int bufferSize) {
+        this(rd, bufferSize, ParserMetrics.NONE);
+    }
+
+    public LookAheadReader(Reader rd, int bufferSize, ParserMetrics metrics) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive, but was " + bufferSize + ".");
+        }
 
-    public LookAheadReader(String filename, Reader rd) {
-        this.filename = filename;
         this.reader = rd;
+        this.metrics = metrics;
+        this.measuring = metrics != ParserMetrics.NONE;
+        this.buffer = new char[bufferSize];
     }
 
     public String readNChars(int n) throws IOException {
         fill(n);
 
-        StringBuilder buf = new StringBuilder();
-
-        for (int i = 0; i < n; ++i) {
-            int c = read();
-            if (c == -1) {
-                throw new EOFException("Expected " + n + " chars, but got " + buf + " and EOF.");
-            }
-
-            buf.append((char) c);
+        int count = Math.min(n, limit - pos);
+        String s = new String(buffer, pos, count);
+        pos += count;
+        if (count < n) {
+            throw new EOFException("Expected " + n + " chars, but got " + s + " and EOF.");
         }
 
-        return buf.toString();
+        return s;
     }
 
     public boolean follows(String s) throws IOException {
-        fill(s.length());
-
-        if (charRingBuffer.size() < s.length()) {
+        if (!fill(s.length())) {
             return false;
         }
 
         for (int i = 0; i < s.length(); ++i) {
-            if (s.charAt(i) != charRingBuffer.get(i)) {
+            if (s.charAt(i) != buffer[pos + i]) {
                 return false;
             }
         }
@@ -52,35 +73,65 @@ class LookAheadReader implements AutoCloseable {
     }
 
     public int peek() throws IOException {
-        fill(1);
-
-        if (charRingBuffer.size() < 1) {
-            return -1;
+        if (pos < limit || fill(1)) {
+            return buffer[pos];
         }
 
-        return charRingBuffer.get(0);
+        return -1;
     }
 
     public int read() throws IOException {
-        fill(1);
+        if (pos < limit || fill(1)) {
+            return buffer[pos++];
+        }
+
+        return -1;
+    }
+
+    /**
+     * Makes at least n chars available at {@link #pos}, unless the input ends before.
+     *
+     * @return true if n chars are available
+     */
+    boolean fill(int n) throws IOException {
+        while (limit - pos < n) {
+            if (eof) {
+                return false;
+            }
 
-        if (this.charRingBuffer.isEmpty()) {
-            return -1;
+            if (buffer.length - pos < n) {
+                compact(n);
+            }
+
+            int count = measuring ? timedRead() : reader.read(buffer, limit, buffer.length - limit);
+            if (count == -1) {
+                eof = true;
+            } else {
+                limit += count;
+            }
         }
 
-        pos++;
+        return true;
+    }
 
-        return this.charRingBuffer.remove();
+    private int timedRead() throws IOException {
+        long start = System.nanoTime();
+        int count = reader.read(buffer, limit, buffer.length - limit);
+        metrics.read(Math.max(count, 0), System.nanoTime() - start);
+        return count;
     }
 
-    private void fill(int n) throws IOException {
-        while (charRingBuffer.size() < n) {
-            int c = this.reader.read();
-            if (c == -1) {
-                break;
-            }
-            charRingBuffer.add((char) c);
+    private void compact(int n) {
+        int available = limit - pos;
+        if (buffer.length < n) {
+            buffer = Arrays.copyOf(buffer, Math.max(n, buffer.length * 2));
         }
+        countLines();
+        System.arraycopy(buffer, pos, buffer, 0, available);
+        compacted += pos;
+        pos = 0;
+        counted = 0;
+        limit = available;
     }
 
     @Override
@@ -88,7 +139,37 @@ class LookAheadReader implements AutoCloseable {
         this.reader.close();
     }
 
-    public Location pos() {
-        return new Location(this.filename, 0, pos);
+    /**
+     * @return the offset of the next char from the start of input
+     */
+    public long position() {
+        return compacted + pos;
+    }
+
+    /**
+     * @return the zero based line of the next char
+     */
+    public int line() {
+        countLines();
+        return line;
+    }
+
+    /**
+     * @return the zero based column of the next char
+     */
+    public long column() {
+        countLines();
+        return compacted + pos - lineStart;
+    }
+
+    private void countLines() {
+        char[] buffer = this.buffer;
+        for (int i = counted; i < pos; ++i) {
+            if (buffer[i] == '\n') {
+                line++;
+                lineStart = compacted + i + 1;
+            }
+        }
+        counted = pos;
     }
 }
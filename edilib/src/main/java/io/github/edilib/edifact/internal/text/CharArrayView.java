@@ -0,0 +1,73 @@
+package io.github.edilib.edifact.internal.text;
+
+/**
+ * A reusable {@link CharSequence} over a region of a char array. The view is repointed instead of
+ * allocated per value, so it must not be retained; call {@link #toString()} to keep the text.
+ */
+public final class CharArrayView implements CharSequence {
+
+    private char[] chars;
+    private int offset;
+    private int length;
+
+    public CharArrayView() {
+        this(new char[0], 0, 0);
+    }
+
+    public CharArrayView(char[] chars, int offset, int length) {
+        set(chars, offset, length);
+    }
+
+    public CharArrayView set(char[] chars, int offset, int length) {
+        this.chars = chars;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    public char[] array() {
+        return chars;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length + ".");
+        }
+        return chars[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range " + start + ".." + end + " out of bounds for length " + length + ".");
+        }
+        return new String(chars, offset + start, end - start);
+    }
+
+    public boolean contentEquals(CharSequence s) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (chars[offset + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, offset, length);
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.edilib.edifact.internal.text;
+
+import java.math.BigDecimal;
+
+/**
+ * Exception free number parsing for EDI values. Most values are not numeric, so instead of
+ * letting {@link Integer#parseInt(String)} or {@link BigDecimal#BigDecimal(String)} throw, the
+ * text is checked first and converted only if valid. All methods return null for text that is
+ * not a number of the requested kind.
+ * <p>
+ * The full stop is always accepted as decimal mark in addition to the given one.
+ */
+public final class Numbers {
+
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int MAX_EXPONENT_DIGITS = 9;
+    // negative accumulation never yields a positive result
+    private static final long INVALID = 1L;
+
+    private Numbers() {
+    }
+
+    public static boolean isNumeric(CharSequence s, char decimalMark) {
+        return decimalEnd(s, decimalMark) == s.length();
+    }
+
+    public static Integer parseInteger(CharSequence s) {
+        boolean negative = s.length() > 0 && s.charAt(0) == '-';
+        long result = accumulateNegative(s, negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE);
+        if (result == INVALID) {
+            return null;
+        }
+        return (int) (negative ? result : -result);
+    }
+
+    public static Long parseLong(CharSequence s) {
+        boolean negative = s.length() > 0 && s.charAt(0) == '-';
+        long result = accumulateNegative(s, negative ? Long.MIN_VALUE : -Long.MAX_VALUE);
+        if (result == INVALID) {
+            return null;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Accumulates the digits negatively, so that the minimum value fits.
+     *
+     * @return the negated magnitude or {@link #INVALID}
+     */
+    private static long accumulateNegative(CharSequence s, long limit) {
+        int length = s.length();
+        int i = 0;
+        if (length > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            i++;
+        }
+        if (i == length) {
+            return INVALID;
+        }
+
+        long multiplicationLimit = limit / 10;
+        long result = 0;
+        for (; i < length; ++i) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplicationLimit) {
+                return INVALID;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return INVALID;
+            }
+            result -= digit;
+        }
+        return result;
+    }
+
+    public static BigDecimal parseDecimal(CharSequence s, char decimalMark) {
+        int length = s.length();
+        if (length == 0 || decimalEnd(s, decimalMark) != length) {
+            return null;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean negative = false;
+        for (int i = 0; i < length; ++i) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                if (unscaled != 0) {
+                    digits++;
+                }
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == '-') {
+                negative = true;
+            } else if (c == decimalMark || c == '.') {
+                fraction = true;
+            } else if (c != '+') {
+                // exponent or too many digits for the fast path
+                return slowParseDecimal(s, decimalMark);
+            }
+
+            if (digits > MAX_LONG_DIGITS) {
+                return slowParseDecimal(s, decimalMark);
+            }
+        }
+
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    private static BigDecimal slowParseDecimal(CharSequence s, char decimalMark) {
+        char[] chars = new char[s.length()];
+        for (int i = 0; i < chars.length; ++i) {
+            char c = s.charAt(i);
+            chars[i] = c == decimalMark ? '.' : c;
+        }
+        return new BigDecimal(chars);
+    }
+
+    /**
+     * Scans <code>[+-]?digits*(mark digits*)?([eE][+-]?digits)?</code> with at least one mantissa digit.
+     *
+     * @return the index after the number or -1 if the text does not start with a number
+     */
+    private static int decimalEnd(CharSequence s, char decimalMark) {
+        int length = s.length();
+        int i = 0;
+        if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            i++;
+        }
+
+        int mantissaDigits = 0;
+        boolean markSeen = false;
+        for (; i < length; ++i) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissaDigits++;
+            } else if ((c == decimalMark || c == '.') && !markSeen) {
+                markSeen = true;
+            } else {
+                break;
+            }
+        }
+        if (mantissaDigits == 0) {
+            return -1;
+        }
+
+        if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9'; ++i) {
+                exponentDigits++;
+            }
+            if (exponentDigits == 0 || exponentDigits > MAX_EXPONENT_DIGITS) {
+                return -1;
+            }
+        }
+
+        return i;
+    }
+}
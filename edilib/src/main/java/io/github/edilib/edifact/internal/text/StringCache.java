@@ -0,0 +1,130 @@
+package io.github.edilib.edifact.internal.text;
+
+import io.github.edilib.edifact.ValueCache;
+
+/**
+ * Bounded cache returning shared string instances for short values like tags, qualifiers and
+ * codes, which repeat over and over in an interchange. Strings are kept in an open addressed table
+ * keyed by their chars, so a hit creates no objects. On a miss after a few probes an entry is
+ * replaced, so the cache never grows.
+ * <p>
+ * The cache is safe to share between threads without locking: strings are immutable, so a
+ * racing reader either sees a complete string or misses and creates its own.
+ */
+public final class StringCache {
+
+    public static final int MAX_LENGTH = 16;
+
+    /**
+     * Size of the cache readers keep for tags when values are not cached.
+     */
+    public static final int TAG_CACHE_SIZE = 256;
+
+    /**
+     * Cache shared by all readers using the shared scope.
+     */
+    public static final StringCache SHARED = new StringCache(1 << 16);
+
+    private static final int DEFAULT_SIZE = 1 << 12;
+    private static final int PROBES = 4;
+
+    private final String[] table;
+    private final int mask;
+
+    public StringCache() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size number of entries, rounded up to a power of two
+     */
+    public StringCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(PROBES, size - 1) << 1);
+        this.table = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the cache for the scope, null for {@link ValueCache#NONE}
+     */
+    public static StringCache of(ValueCache scope) {
+        switch (scope) {
+            case NONE:
+                return null;
+            case READER:
+                return new StringCache();
+            case SHARED:
+                return SHARED;
+            default:
+                throw new IllegalArgumentException("Unknown scope " + scope + ".");
+        }
+    }
+
+    /**
+     * @return a shared string for short values, a new one for values longer than {@link #MAX_LENGTH}
+     */
+    public String get(CharSequence s) {
+        if (s instanceof CharArrayView) {
+            CharArrayView view = (CharArrayView) s;
+            return get(view.array(), view.offset(), view.length());
+        }
+        int length = s.length();
+        if (length > MAX_LENGTH) {
+            return s.toString();
+        }
+
+        int hash = 0;
+        for (int i = 0; i < length; ++i) {
+            hash = 31 * hash + s.charAt(i);
+        }
+        return lookup(hash, s, null, 0, length);
+    }
+
+    public String get(char[] chars, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            return new String(chars, offset, length);
+        }
+
+        int hash = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            hash = 31 * hash + chars[i];
+        }
+        return lookup(hash, null, chars, offset, length);
+    }
+
+    /**
+     * Probes the table for the chars, given either as char sequence or as array range, and adds
+     * them on a miss.
+     */
+    private String lookup(int hash, CharSequence s, char[] chars, int offset, int length) {
+        hash ^= hash >>> 16;
+        String[] table = this.table;
+        for (int probe = 0; probe < PROBES; ++probe) {
+            int index = (hash + probe) & mask;
+            String entry = table[index];
+            if (entry == null) {
+                entry = s != null ? s.toString() : new String(chars, offset, length);
+                table[index] = entry;
+                return entry;
+            } else if (s != null ? entry.contentEquals(s) : contentEquals(entry, chars, offset, length)) {
+                return entry;
+            }
+        }
+
+        String entry = s != null ? s.toString() : new String(chars, offset, length);
+        table[hash & mask] = entry;
+        return entry;
+    }
+
+    private static boolean contentEquals(String s, char[] chars, int offset, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (s.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
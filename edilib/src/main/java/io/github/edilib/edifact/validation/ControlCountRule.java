@@ -0,0 +1,135 @@
+package io.github.edilib.edifact.validation;
+
+import io.github.edilib.edifact.Segment;
+
+/**
+ * Checks the control counts and references of the envelopes against the segments in between:
+ * UNT, UNE and UNZ in UN/EDIFACT, SE, GE and IEA in X12. The syntax is taken from the
+ * interchange header, so one rule serves both.
+ */
+public class ControlCountRule implements ValidationRule {
+
+    private static final Envelope EDIFACT = new Envelope("UNB", 4, "UNZ", "UNG", 4, "UNE", "UNH", 0, "UNT");
+    private static final Envelope X12 = new Envelope("ISA", 12, "IEA", "GS", 5, "GE", "ST", 1, "SE");
+
+    private Envelope envelope = EDIFACT;
+
+    private String interchangeReference;
+    private int groups;
+    private int messages;
+
+    private String groupReference;
+    private int groupMessages;
+
+    private String messageReference;
+    private int segments;
+
+    @Override
+    public void segment(Segment segment, ValidationContext context) {
+        String tag = segment.getTag().getName();
+        if (tag.equals(EDIFACT.interchangeHeader) || tag.equals(X12.interchangeHeader)) {
+            envelope = tag.equals(EDIFACT.interchangeHeader) ? EDIFACT : X12;
+            if (interchangeReference != null) {
+                context.report("Interchange " + interchangeReference + " not terminated by " + envelope.interchangeTrailer + ".");
+            }
+            interchangeReference = reference(segment, envelope.interchangeReference);
+            groups = 0;
+            messages = 0;
+        } else if (tag.equals(envelope.groupHeader)) {
+            if (groupReference != null) {
+                context.report("Group " + groupReference + " not terminated by " + envelope.groupTrailer + ".");
+            }
+            groupReference = reference(segment, envelope.groupReference);
+            groupMessages = 0;
+            groups++;
+        } else if (tag.equals(envelope.messageHeader)) {
+            if (messageReference != null) {
+                context.report("Message " + messageReference + " not terminated by " + envelope.messageTrailer + ".");
+            }
+            messageReference = reference(segment, envelope.messageReference);
+            segments = 1;
+        } else if (tag.equals(envelope.messageTrailer)) {
+            segments++;
+            check(segment, envelope.messageTrailer, segments, "segments", messageReference, context);
+            messageReference = null;
+            groupMessages++;
+            messages++;
+        } else if (tag.equals(envelope.groupTrailer)) {
+            check(segment, envelope.groupTrailer, groupMessages, "messages", groupReference, context);
+            groupReference = null;
+        } else if (tag.equals(envelope.interchangeTrailer)) {
+            if (groups > 0) {
+                check(segment, envelope.interchangeTrailer, groups, "groups", interchangeReference, context);
+            } else {
+                check(segment, envelope.interchangeTrailer, messages, "messages", interchangeReference, context);
+            }
+            interchangeReference = null;
+        } else if (messageReference != null) {
+            segments++;
+        }
+    }
+
+    @Override
+    public void end(ValidationContext context) {
+        if (messageReference != null) {
+            context.report("Message " + messageReference + " not terminated by " + envelope.messageTrailer + ".");
+        }
+        if (groupReference != null) {
+            context.report("Group " + groupReference + " not terminated by " + envelope.groupTrailer + ".");
+        }
+        if (interchangeReference != null) {
+            context.report("Interchange " + interchangeReference + " not terminated by " + envelope.interchangeTrailer + ".");
+        }
+    }
+
+    /**
+     * Checks a trailer giving count and reference in its first two data elements.
+     */
+    private static void check(Segment segment, String tag, int count, String counted, String reference, ValidationContext context) {
+        String expected = Integer.toString(count);
+        String actual = Values.get(segment, 0, 0);
+        if (!expected.equals(actual)) {
+            context.report(tag + " control count " + actual + " does not match " + count + " " + counted + ".");
+        }
+        String trailerReference = Values.get(segment, 1, 0);
+        if (reference == null) {
+            context.report(tag + " without header.");
+        } else if (!reference.equals(trailerReference)) {
+            context.report(tag + " reference " + trailerReference + " does not match header reference " + reference + ".");
+        }
+    }
+
+    /**
+     * @return the reference, empty rather than null so that a header without one still opens the envelope
+     */
+    private static String reference(Segment segment, int element) {
+        String reference = Values.get(segment, element, 0);
+        return reference != null ? reference : "";
+    }
+
+    private static class Envelope {
+        final String interchangeHeader;
+        final int interchangeReference;
+        final String interchangeTrailer;
+        final String groupHeader;
+        final int groupReference;
+        final String groupTrailer;
+        final String messageHeader;
+        final int messageReference;
+        final String messageTrailer;
+
+        Envelope(String interchangeHeader, int interchangeReference, String interchangeTrailer,
+                 String groupHeader, int groupReference, String groupTrailer,
+                 String messageHeader, int messageReference, String messageTrailer) {
+            this.interchangeHeader = interchangeHeader;
+            this.interchangeReference = interchangeReference;
+            this.interchangeTrailer = interchangeTrailer;
+            this.groupHeader = groupHeader;
+            this.groupReference = groupReference;
+            this.groupTrailer = groupTrailer;
+            this.messageHeader = messageHeader;
+            this.messageReference = messageReference;
+            this.messageTrailer = messageTrailer;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.edilib.edifact.validation;
+
+import io.github.edilib.edifact.ParseError;
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SegmentReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Checks the segments of a {@link SegmentReader} against {@link ValidationRule}s while they are
+ * read, either passing them on through {@link #next()} or consuming all with {@link #validate()}.
+ * Nothing is buffered beyond the current segment; errors are handed to the consumer as they are
+ * found, located at the end of the segment they are reported for.
+ * <p>
+ * Rules may keep state for one input, so create new rules or a new validator per input.
+ */
+public class SegmentValidator implements Closeable {
+
+    private final SegmentReader reader;
+    private final List<ValidationRule> rules;
+    private final Consumer<ParseError> errors;
+    private final ValidationContext context = this::report;
+    private boolean ended = false;
+
+    public SegmentValidator(SegmentReader reader, Consumer<ParseError> errors, ValidationRule... rules) {
+        this(reader, errors, Arrays.asList(rules));
+    }
+
+    public SegmentValidator(SegmentReader reader, Consumer<ParseError> errors, List<ValidationRule> rules) {
+        this.reader = reader;
+        this.errors = errors;
+        this.rules = new ArrayList<>(rules);
+    }
+
+    /**
+     * Reads and checks all segments, collecting the errors.
+     */
+    public static List<ParseError> validate(SegmentReader reader, ValidationRule... rules) throws IOException {
+        List<ParseError> errors = new ArrayList<>();
+        try (SegmentValidator validator = new SegmentValidator(reader, errors::add, rules)) {
+            validator.validate();
+        }
+        return Collections.unmodifiableList(errors);
+    }
+
+    public void validate() throws IOException {
+        while (hasNext()) {
+            next();
+        }
+    }
+
+    /**
+     * Completes the rules at the end of input.
+     */
+    public boolean hasNext() throws IOException {
+        if (reader.hasNext()) {
+            return true;
+        }
+        if (!ended) {
+            ended = true;
+            for (ValidationRule rule : rules) {
+                rule.end(context);
+            }
+        }
+        return false;
+    }
+
+    public Segment next() throws IOException {
+        Segment segment = reader.next();
+        for (ValidationRule rule : rules) {
+            rule.segment(segment, context);
+        }
+        return segment;
+    }
+
+    private void report(String message) {
+        errors.accept(new ParseError(message, reader.location()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
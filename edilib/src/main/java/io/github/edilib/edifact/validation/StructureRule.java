@@ -0,0 +1,148 @@
+package io.github.edilib.edifact.validation;
+
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.binding.GroupDefinition;
+import io.github.edilib.edifact.binding.MessageDefinition;
+import io.github.edilib.edifact.binding.NodeDefinition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks segment order, repetitions and mandatory entries of messages against their
+ * {@link MessageDefinition}, chosen by message type: the first component of UNH element 2 in
+ * UN/EDIFACT, ST01 in X12. Messages of other types are not checked.
+ * <p>
+ * Segments are matched as {@link MessageDefinition#match(List)} does, but one at a time, keeping
+ * the position in each open group on a stack no deeper than the definition. A segment that fits
+ * nowhere is reported and skipped, so one misplaced segment does not hide the rest of the message.
+ */
+public class StructureRule implements ValidationRule {
+
+    private final Map<String, MessageDefinition> definitions = new HashMap<>();
+    private final List<Frame> stack = new ArrayList<>();
+    private MessageDefinition message;
+
+    public StructureRule(MessageDefinition... definitions) {
+        for (MessageDefinition definition : definitions) {
+            this.definitions.put(definition.getName(), definition);
+        }
+    }
+
+    public StructureRule(Collection<MessageDefinition> definitions) {
+        this(definitions.toArray(new MessageDefinition[0]));
+    }
+
+    @Override
+    public void segment(Segment segment, ValidationContext context) {
+        String tag = segment.getTag().getName();
+        boolean header = tag.equals("UNH") || tag.equals("ST");
+        if (header) {
+            if (message != null) {
+                finish(context);
+            }
+            message = definitions.get(Values.get(segment, tag.equals("UNH") ? 1 : 0, 0));
+            if (message != null) {
+                stack.add(new Frame(message.getRoot()));
+            }
+        }
+        if (message == null) {
+            return;
+        }
+
+        accept(tag, context);
+        if (tag.equals("UNT") || tag.equals("SE")) {
+            finish(context);
+        }
+    }
+
+    @Override
+    public void end(ValidationContext context) {
+        if (message != null) {
+            finish(context);
+        }
+    }
+
+    private void accept(String tag, ValidationContext context) {
+        int depth = stack.size() - 1;
+        int index = -1;
+        for (; depth >= 0; --depth) {
+            index = stack.get(depth).find(tag);
+            if (index >= 0) {
+                break;
+            }
+        }
+        if (depth < 0) {
+            context.report("Segment " + tag + " not allowed here in " + message.getName() + " message.");
+            return;
+        }
+
+        while (stack.size() > depth + 1) {
+            close(context);
+        }
+        Frame frame = stack.get(depth);
+        frame.checkMandatory(frame.count > 0 ? frame.child + 1 : frame.child, index, context);
+        frame.count = index == frame.child ? frame.count + 1 : 1;
+        frame.child = index;
+        NodeDefinition child = frame.group.getChildren().get(index);
+        if (child instanceof GroupDefinition) {
+            Frame nested = new Frame((GroupDefinition) child);
+            nested.count = 1;
+            stack.add(nested);
+        }
+    }
+
+    private void finish(ValidationContext context) {
+        while (!stack.isEmpty()) {
+            close(context);
+        }
+        message = null;
+    }
+
+    /**
+     * Closes the innermost open group, reporting the mandatory entries it still lacks.
+     */
+    private void close(ValidationContext context) {
+        Frame frame = stack.remove(stack.size() - 1);
+        frame.checkMandatory(frame.count > 0 ? frame.child + 1 : frame.child, frame.group.getChildren().size(), context);
+    }
+
+    /**
+     * Position in an open group: the current child and how often it occurred so far.
+     */
+    private class Frame {
+        final GroupDefinition group;
+        int child = 0;
+        int count = 0;
+
+        Frame(GroupDefinition group) {
+            this.group = group;
+        }
+
+        /**
+         * @return the index of the next child triggered by the tag, -1 if there is none in this group
+         */
+        int find(String tag) {
+            List<NodeDefinition> children = group.getChildren();
+            for (int i = child; i < children.size(); ++i) {
+                NodeDefinition candidate = children.get(i);
+                if (candidate.getTriggerTag().equals(tag) && (i != child || count < candidate.getMaxOccurs())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void checkMandatory(int from, int to, ValidationContext context) {
+            List<NodeDefinition> children = group.getChildren();
+            for (int i = from; i < to; ++i) {
+                if (children.get(i).isMandatory()) {
+                    context.report("Mandatory " + children.get(i).getName() + " missing in " + message.getName() + " message.");
+                }
+            }
+        }
+    }
+}
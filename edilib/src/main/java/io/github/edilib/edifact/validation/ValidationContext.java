@@ -0,0 +1,9 @@
+package io.github.edilib.edifact.validation;
+
+public interface ValidationContext {
+
+    /**
+     * Reports an error at the current segment.
+     */
+    void report(String message);
+}
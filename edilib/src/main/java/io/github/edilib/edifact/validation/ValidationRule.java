@@ -0,0 +1,18 @@
+package io.github.edilib.edifact.validation;
+
+import io.github.edilib.edifact.Segment;
+
+/**
+ * Check applied by a {@link SegmentValidator} to each segment in input order. Rules keep only the
+ * state they need across segments, so validation runs in one pass with bounded memory.
+ */
+public interface ValidationRule {
+
+    void segment(Segment segment, ValidationContext context);
+
+    /**
+     * Called once at the end of input, to report what is left open.
+     */
+    default void end(ValidationContext context) {
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.edilib.edifact.validation;
+
+import io.github.edilib.edifact.Segment;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks one value of a segment type for presence or against a code list. Positions are zero
+ * based, like the indexes of {@link io.github.edilib.edifact.EdiHandler}. Code lists are copied
+ * into a hash set once, so checking a value costs a lookup regardless of the size of the list.
+ */
+public class ValueRule implements ValidationRule {
+
+    private final String tag;
+    private final int element;
+    private final int component;
+    private final boolean mandatory;
+    private final Set<String> codes;
+
+    private ValueRule(String tag, int element, int component, boolean mandatory, Set<String> codes) {
+        if (element < 0 || component < 0) {
+            throw new IllegalArgumentException("Negative position " + element + ":" + component + " of " + tag + ".");
+        }
+        this.tag = tag;
+        this.element = element;
+        this.component = component;
+        this.mandatory = mandatory;
+        this.codes = codes;
+    }
+
+    public static ValueRule mandatory(String tag, int element, int component) {
+        return new ValueRule(tag, element, component, true, null);
+    }
+
+    /**
+     * Checks the value against the codes if present.
+     */
+    public static ValueRule codeList(String tag, int element, int component, Collection<String> codes) {
+        return new ValueRule(tag, element, component, false, new HashSet<>(codes));
+    }
+
+    /**
+     * Checks that the value is present and one of the codes.
+     */
+    public static ValueRule mandatoryCode(String tag, int element, int component, Collection<String> codes) {
+        return new ValueRule(tag, element, component, true, new HashSet<>(codes));
+    }
+
+    @Override
+    public void segment(Segment segment, ValidationContext context) {
+        if (!Values.isTag(segment, tag)) {
+            return;
+        }
+        String value = Values.get(segment, element, component);
+        if (value == null || value.isEmpty()) {
+            if (mandatory) {
+                context.report("Mandatory value " + tag + " " + element + ":" + component + " missing.");
+            }
+        } else if (codes != null && !codes.contains(value)) {
+            context.report("Value " + value + " of " + tag + " " + element + ":" + component + " not in code list.");
+        }
+    }
+}
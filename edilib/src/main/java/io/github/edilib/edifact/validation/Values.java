@@ -0,0 +1,35 @@
+package io.github.edilib.edifact.validation;
+
+import io.github.edilib.edifact.ComponentValue;
+import io.github.edilib.edifact.RepetitionValue;
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SimpleValue;
+import io.github.edilib.edifact.Value;
+
+import java.util.List;
+
+final class Values {
+
+    private Values() {
+    }
+
+    /**
+     * @return the value at the zero based position, null if the segment is shorter
+     */
+    static String get(Segment segment, int element, int component) {
+        List<Value> elements = segment.getDataElements();
+        if (element >= elements.size()) {
+            return null;
+        }
+        Value value = elements.get(element);
+        if (value instanceof SimpleValue) {
+            return component == 0 ? ((SimpleValue) value).stringValue : null;
+        }
+        List<SimpleValue> values = value instanceof ComponentValue ? ((ComponentValue) value).values : ((RepetitionValue) value).values;
+        return component < values.size() ? values.get(component).stringValue : null;
+    }
+
+    static boolean isTag(Segment segment, String tag) {
+        return segment.getTag().getName().equals(tag);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.edilib.edifact.x12;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The interchange (ISA) and functional group (GS) a transaction set is sent in. Values are null
+ * if the set is not enclosed by the envelope segment.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class Envelope {
+
+    /**
+     * ISA06, without the padding.
+     */
+    private String sender;
+
+    /**
+     * ISA08, without the padding.
+     */
+    private String receiver;
+
+    /**
+     * ISA13.
+     */
+    private String interchangeControlNumber;
+
+    /**
+     * GS01, like PO or SH.
+     */
+    private String functionalIdentifier;
+
+    /**
+     * GS06.
+     */
+    private String groupControlNumber;
+}
@@ -0,0 +1,70 @@
+package io.github.edilib.edifact.x12;
+
+import io.github.edilib.edifact.Segment;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An HL loop: the HL segment and the segments following it up to the next HL, like the shipment,
+ * order, pack and item levels of an 856 or the billing provider, subscriber and patient levels of
+ * an 837.
+ */
+@Getter
+@ToString(exclude = {"parent", "children"})
+public class HierarchicalLevel {
+
+    /**
+     * HL01.
+     */
+    private final String id;
+
+    /**
+     * HL02, null for a top level.
+     */
+    private final String parentId;
+
+    /**
+     * HL03, like S, O, P and I in an 856.
+     */
+    private final String levelCode;
+
+    /**
+     * HL04, 1 if the level announces children, 0 or null otherwise.
+     */
+    private final String childCode;
+
+    private final HierarchicalLevel parent;
+
+    /**
+     * The HL segment followed by the segments of the level.
+     */
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * Only filled by {@link TransactionSetReader#readTransactionSet()}; levels streamed by
+     * {@link TransactionSetReader#nextLevel()} keep their ancestors, but not their descendants.
+     */
+    private final List<HierarchicalLevel> children = new ArrayList<>();
+
+    HierarchicalLevel(String id, String parentId, String levelCode, String childCode, HierarchicalLevel parent) {
+        this.id = id;
+        this.parentId = parentId;
+        this.levelCode = levelCode;
+        this.childCode = childCode;
+        this.parent = parent;
+    }
+
+    /**
+     * @return the number of levels above this one
+     */
+    public int getDepth() {
+        int depth = 0;
+        for (HierarchicalLevel p = parent; p != null; p = p.parent) {
+            depth++;
+        }
+        return depth;
+    }
+}
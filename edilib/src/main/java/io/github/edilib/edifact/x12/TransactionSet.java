@@ -0,0 +1,63 @@
+package io.github.edilib.edifact.x12;
+
+import io.github.edilib.edifact.Segment;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A transaction set from ST to SE. Segments before the first HL are the header, each segment from
+ * the first HL on belongs to the HL loop it follows, and segments from the first summary segment,
+ * like CTT, on are the summary. A set without HL loops, like an 850, has its detail segments in
+ * the header.
+ */
+@Getter
+@ToString
+public class TransactionSet {
+
+    private final Envelope envelope;
+
+    /**
+     * ST01, like 850, 856 or 837.
+     */
+    private final String type;
+
+    /**
+     * ST02.
+     */
+    private final String controlNumber;
+
+    /**
+     * ST and the segments up to the first HL, summary segment or SE.
+     */
+    private final List<Segment> header = new ArrayList<>();
+
+    /**
+     * The top levels, with their descendants as children. Only filled by
+     * {@link TransactionSetReader#readTransactionSet()}.
+     */
+    private final List<HierarchicalLevel> levels = new ArrayList<>();
+
+    /**
+     * The segments from the first summary segment up to SE, see
+     * {@link TransactionSetReader#DEFAULT_SUMMARY_TAGS}. Filled when the set is read to its end.
+     */
+    private final List<Segment> summary = new ArrayList<>();
+
+    /**
+     * SE, null until the set is read to its end.
+     */
+    private Segment trailer;
+
+    TransactionSet(Envelope envelope, String type, String controlNumber) {
+        this.envelope = envelope;
+        this.type = type;
+        this.controlNumber = controlNumber;
+    }
+
+    void setTrailer(Segment trailer) {
+        this.trailer = trailer;
+    }
+}
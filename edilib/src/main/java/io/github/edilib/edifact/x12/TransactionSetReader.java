@@ -0,0 +1,257 @@
+package io.github.edilib.edifact.x12;
+
+import io.github.edilib.edifact.ComponentValue;
+import io.github.edilib.edifact.ParseException;
+import io.github.edilib.edifact.RepetitionValue;
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.SimpleValue;
+import io.github.edilib.edifact.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the transaction sets of X12 interchanges from a {@link SegmentReader}, tracking the
+ * ISA/GS envelope and rebuilding the HL hierarchy. Levels are assumed to follow their parent,
+ * as the implementation guides require, so a stack of the open ancestors is enough to find the
+ * parent of each HL.
+ * <p>
+ * {@link #readTransactionSet()} returns a whole set with its tree of levels. For sets too large
+ * to hold, like an 837 batch with thousands of claims, {@link #nextTransactionSet()} reads only
+ * the header and {@link #nextLevel()} streams the levels one by one; only the current level and
+ * its ancestors are kept.
+ * <p>
+ * Segments of the summary table, following the last level, are told apart from the segments of
+ * that level by their tag, CTT unless other summary tags are given.
+ * <pre>
+ * TransactionSet set;
+ * while ((set = reader.nextTransactionSet()) != null) {
+ *     HierarchicalLevel level;
+ *     while ((level = reader.nextLevel()) != null) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public class TransactionSetReader implements Closeable {
+
+    public static final Set<String> DEFAULT_SUMMARY_TAGS = Collections.singleton("CTT");
+
+    private final SegmentReader reader;
+    private final Set<String> summaryTags;
+    private final Deque<HierarchicalLevel> ancestors = new ArrayDeque<>();
+    private String sender;
+    private String receiver;
+    private String interchangeControlNumber;
+    private String functionalIdentifier;
+    private String groupControlNumber;
+    private Envelope envelope;
+    private TransactionSet set;
+    private boolean collect;
+
+    public TransactionSetReader(SegmentReader reader) {
+        this(reader, DEFAULT_SUMMARY_TAGS);
+    }
+
+    /**
+     * @param summaryTags tags starting the summary of a set, like TDS and CTT for an 810
+     */
+    public TransactionSetReader(SegmentReader reader, Collection<String> summaryTags) {
+        this.reader = reader;
+        this.summaryTags = new HashSet<>(summaryTags);
+    }
+
+    /**
+     * Opens a file with the delimiters of its ISA segment.
+     */
+    public static TransactionSetReader open(Path path) throws IOException {
+        return new TransactionSetReader(SegmentReader.open(path));
+    }
+
+    /**
+     * Reads the next transaction set with all its levels.
+     *
+     * @return the set or null at end of input
+     */
+    public TransactionSet readTransactionSet() throws IOException {
+        TransactionSet next = nextTransactionSet();
+        if (next == null) {
+            return null;
+        }
+        collect = true;
+        try {
+            while (nextLevel() != null) {
+                // levels are added to the tree while read
+            }
+        } finally {
+            collect = false;
+        }
+        return next;
+    }
+
+    /**
+     * Skips the rest of the current transaction set and reads the header of the next one.
+     *
+     * @return the set, without levels, summary and trailer, or null at end of input
+     */
+    public TransactionSet nextTransactionSet() throws IOException {
+        while (set != null) {
+            nextLevel();
+        }
+        while (reader.hasNext()) {
+            Segment segment = reader.next();
+            switch (segment.getTag().getName()) {
+                case "ISA":
+                    sender = trimmed(value(segment, 5));
+                    receiver = trimmed(value(segment, 7));
+                    interchangeControlNumber = value(segment, 12);
+                    functionalIdentifier = null;
+                    groupControlNumber = null;
+                    envelope = null;
+                    break;
+                case "GS":
+                    functionalIdentifier = value(segment, 0);
+                    groupControlNumber = value(segment, 5);
+                    envelope = null;
+                    break;
+                case "GE":
+                    functionalIdentifier = null;
+                    groupControlNumber = null;
+                    envelope = null;
+                    break;
+                case "IEA":
+                    sender = null;
+                    receiver = null;
+                    interchangeControlNumber = null;
+                    envelope = null;
+                    break;
+                case "ST":
+                    return startTransactionSet(segment);
+                default:
+                    // segments outside of transaction sets carry no structure
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the next level of the current transaction set, with the segments up to the next HL or
+     * the summary.
+     *
+     * @return the level or null after the last level of the set, when summary and trailer are read
+     * @throws ParseException if the parent of the level is not open or the set is not terminated
+     */
+    public HierarchicalLevel nextLevel() throws IOException {
+        if (set == null) {
+            return null;
+        }
+        Segment segment = nextInSet();
+        if (!isTag(segment, "HL")) {
+            while (!isTag(segment, "SE")) {
+                set.getSummary().add(segment);
+                segment = nextInSet();
+            }
+            set.setTrailer(segment);
+            set = null;
+            ancestors.clear();
+            return null;
+        }
+
+        String id = value(segment, 0);
+        String parentId = value(segment, 1);
+        HierarchicalLevel parent = null;
+        if (parentId != null && !parentId.isEmpty()) {
+            while (!ancestors.isEmpty() && !ancestors.peek().getId().equals(parentId)) {
+                ancestors.pop();
+            }
+            if (ancestors.isEmpty()) {
+                throw new ParseException("Parent " + parentId + " of HL " + id + " is not an enclosing level in transaction set " + set.getControlNumber() + ".", reader.location());
+            }
+            parent = ancestors.peek();
+        } else {
+            ancestors.clear();
+            parentId = null;
+        }
+
+        HierarchicalLevel level = new HierarchicalLevel(id, parentId, value(segment, 2), value(segment, 3), parent);
+        level.getSegments().add(segment);
+        while (!endsPart(peekInSet())) {
+            level.getSegments().add(reader.next());
+        }
+        if (collect) {
+            (parent != null ? parent.getChildren() : set.getLevels()).add(level);
+        }
+        ancestors.push(level);
+        return level;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private TransactionSet startTransactionSet(Segment st) throws IOException {
+        if (envelope == null) {
+            envelope = new Envelope(sender, receiver, interchangeControlNumber, functionalIdentifier, groupControlNumber);
+        }
+        set = new TransactionSet(envelope, value(st, 0), value(st, 1));
+        set.getHeader().add(st);
+        while (!endsPart(peekInSet())) {
+            set.getHeader().add(reader.next());
+        }
+        return set;
+    }
+
+    /**
+     * @return true if the segment starts a level or the summary, or ends the set
+     */
+    private boolean endsPart(Segment segment) {
+        String tag = segment.getTag().getName();
+        return tag.equals("HL") || tag.equals("SE") || summaryTags.contains(tag);
+    }
+
+    private Segment nextInSet() throws IOException {
+        peekInSet();
+        return reader.next();
+    }
+
+    private Segment peekInSet() throws IOException {
+        if (!reader.hasNext()) {
+            throw new ParseException("Transaction set " + set.getControlNumber() + " not terminated by SE.", reader.location());
+        }
+        return reader.peek();
+    }
+
+    private static boolean isTag(Segment segment, String tag) {
+        return segment.getTag().getName().equals(tag);
+    }
+
+    private static String trimmed(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    /**
+     * @return the first component of the zero based element, null if the segment is shorter
+     */
+    private static String value(Segment segment, int element) {
+        List<Value> elements = segment.getDataElements();
+        if (element >= elements.size()) {
+            return null;
+        }
+        Value value = elements.get(element);
+        if (value instanceof SimpleValue) {
+            return ((SimpleValue) value).stringValue;
+        }
+        List<SimpleValue> values = value instanceof ComponentValue ? ((ComponentValue) value).values : ((RepetitionValue) value).values;
+        return values.isEmpty() ? null : values.get(0).stringValue;
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactInterchangeTest {
+
+    private static final String INTERCHANGE = "UNA:+,?*'UNB+UNOC:3+S?+1+R'UNH+1+ORDERS:D:96A:UN'"
+            + "NAD:X:Y+BY+4000001000002::9++A*B*C'QTY+21:12,5'FTX+AAA+++'UNT+5+1'UNZ+1+1'";
+
+    private CompactInterchange interchange;
+
+    @Test
+    void equalsObjectModel() throws IOException {
+        givenInterchange(INTERCHANGE);
+
+        List<Segment> segments = new SegmentReader("<unknown>", new StringReader(INTERCHANGE), Format.UNEDIFACT_DEFAULT).readAll();
+
+        assertThat(interchange.size()).isEqualTo(segments.size());
+        assertThat(interchange.segments()).isEqualTo(segments);
+        assertThat(segments).isEqualTo(interchange.segments());
+    }
+
+    @Test
+    void exposesSegmentsThroughAccessors() throws IOException {
+        interchange = CompactInterchange.read("<unknown>", new StringReader(INTERCHANGE), Format.UNEDIFACT_DEFAULT,
+                ReaderOptions.DEFAULT.withNumericInference(false));
+
+        Segment nad = interchange.get(2);
+
+        assertThat(nad.getTag().getName()).isEqualTo("NAD");
+        assertThat(nad.getTag().getComponentValues()).containsExactly(new SimpleValue("X"), new SimpleValue("Y"));
+        assertThat(nad.getDataElements()).containsExactly(
+                new SimpleValue("BY"),
+                new ComponentValue("4000001000002", "", "9"),
+                new SimpleValue(""),
+                new RepetitionValue("A", "B", "C"));
+    }
+
+    @Test
+    void infersNumbersWithDecimalMarkOfServiceStringAdvice() throws IOException {
+        givenInterchange(INTERCHANGE);
+
+        ComponentValue quantity = (ComponentValue) interchange.get(3).getDataElements().get(0);
+
+        assertThat(quantity.values.get(1).asDecimal()).isEqualByComparingTo("12.5");
+    }
+
+    @Test
+    void keepsCharsBeyondLatin1() throws IOException {
+        givenInterchange("FTX+\u00C4rger'FTX+\u017Elu\u0165ou\u010Dk\u00FD+Ende'");
+
+        assertThat(interchange.segments()).extracting(segment -> segment.getDataElements().get(0)).containsExactly(
+                new SimpleValue("\u00C4rger"), new SimpleValue("\u017Elu\u0165ou\u010Dk\u00FD"));
+        assertThat(interchange.get(1).getDataElements().get(1)).isEqualTo(new SimpleValue("Ende"));
+    }
+
+    @Test
+    void readsEmptySegments() throws IOException {
+        givenInterchange("UNB'UNZ'");
+
+        assertThat(interchange.segments()).containsExactly(
+                new Segment(new Tag("UNB", emptyList()), emptyList()),
+                new Segment(new Tag("UNZ", emptyList()), emptyList()));
+    }
+
+    @Test
+    void rejectsIndexOutOfBounds() throws IOException {
+        givenInterchange("UNB+X'");
+
+        assertThatThrownBy(() -> interchange.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> interchange.get(0).getDataElements().get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(interchange.get(0).getDataElements()).isEqualTo(asList(new SimpleValue("X")));
+    }
+
+    @Test
+    void dropsSegmentsAbandonedWhenRecovering() throws IOException {
+        interchange = CompactInterchange.read("<unknown>", new StringReader("UNB+X'LIN+1:2+:*'UNZ+Y'"), Format.UNEDIFACT_DEFAULT,
+                ReaderOptions.DEFAULT.withRecovery(Recovery.SEGMENT));
+
+        assertThat(interchange.segments()).containsExactly(
+                new Segment(new Tag("UNB", emptyList()), asList(new SimpleValue("X"))),
+                new Segment(new Tag("UNZ", emptyList()), asList(new SimpleValue("Y"))));
+    }
+
+    private void givenInterchange(String input) throws IOException {
+        interchange = CompactInterchange.read("<unknown>", new StringReader(input), Format.UNEDIFACT_DEFAULT);
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.edilib.edifact;
+
+import io.github.edilib.edifact.internal.scanner.ScannerTokenType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountingParserMetricsTest {
+
+    private static final String INTERCHANGE = "UNB+UNOC:3+S+R+190425:1200+42'"
+            + "UNH+1+ORDERS'BGM+220'UNT+3+1'UNH+2+ORDERS'LIN+1'LIN+2'UNT+4+2'UNZ+2+42'";
+
+    private final CountingParserMetrics metrics = new CountingParserMetrics();
+
+    @Test
+    void countsSegmentsMessagesAndInterchanges() throws IOException {
+        read(INTERCHANGE, ReaderOptions.DEFAULT.withMetrics(metrics));
+
+        assertThat(metrics.getInterchanges()).isEqualTo(1);
+        assertThat(metrics.getMessages()).isEqualTo(2);
+        assertThat(metrics.getSegments()).containsEntry("UNH", 2L).containsEntry("LIN", 2L).containsEntry("UNZ", 1L).hasSize(6);
+        assertThat(metrics.getErrors()).isZero();
+    }
+
+    @Test
+    void countsCharsAndTokens() throws IOException {
+        read(INTERCHANGE, ReaderOptions.DEFAULT.withMetrics(metrics).withBufferSize(16));
+
+        assertThat(metrics.getChars()).isEqualTo(INTERCHANGE.length());
+        assertThat(metrics.getReads()).isGreaterThan(INTERCHANGE.length() / 16);
+        assertThat(metrics.getTokens(ScannerTokenType.SEGMENT_TERMINATOR)).isEqualTo(9);
+        assertThat(metrics.getTokens(ScannerTokenType.EOF)).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void recordsMessageLatencies() throws IOException {
+        read(INTERCHANGE, ReaderOptions.DEFAULT.withMetrics(metrics));
+
+        long bucketed = 0;
+        for (int i = 0; i < CountingParserMetrics.BUCKETS; ++i) {
+            bucketed += metrics.getLatencyBucket(i);
+        }
+        assertThat(bucketed).isEqualTo(2);
+        assertThat(metrics.getMessageNanos()).isPositive();
+    }
+
+    @Test
+    void countsErrors() throws IOException {
+        read("UNH+1'BGM+:*'UNT+3+1'", ReaderOptions.DEFAULT.withMetrics(metrics).withRecovery(Recovery.SEGMENT));
+
+        assertThatThrownBy(() -> read("UNH+1'BGM+:*'", ReaderOptions.DEFAULT.withMetrics(metrics)))
+                .isInstanceOf(ParseException.class);
+        assertThat(metrics.getErrors()).isEqualTo(2);
+        assertThat(metrics.getMessages()).isEqualTo(1);
+    }
+
+    @Test
+    void bucketsByPowersOfTwo() {
+        assertThat(CountingParserMetrics.bucket(0)).isEqualTo(0);
+        assertThat(CountingParserMetrics.bucket(1)).isEqualTo(1);
+        assertThat(CountingParserMetrics.bucket(1023)).isEqualTo(10);
+        assertThat(CountingParserMetrics.bucket(1024)).isEqualTo(11);
+        assertThat(CountingParserMetrics.getBucketUpperBound(10)).isEqualTo(1024);
+        assertThat(CountingParserMetrics.bucket(Long.MAX_VALUE)).isEqualTo(CountingParserMetrics.BUCKETS - 1);
+    }
+
+    private static void read(String input, ReaderOptions options) throws IOException {
+        try (SegmentReader reader = new SegmentReader("<unknown>", new StringReader(input), Format.UNEDIFACT_DEFAULT, options)) {
+            reader.readAll();
+        }
+    }
+}
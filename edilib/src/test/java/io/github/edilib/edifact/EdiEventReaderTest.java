@@ -0,0 +1,128 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EdiEventReaderTest {
+
+    private EdiEventReader reader;
+
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    void reportsSimpleComponentAndRepetitionValues() throws IOException {
+        givenReaderInput("UNA:+.?*'NAD+BY+2010::91+A*B'");
+
+        whenAllRead();
+
+        assertThat(events).containsExactly(
+                "una",
+                "start NAD",
+                "element 0 BY",
+                "component 1.0 2010",
+                "component 1.1 ",
+                "component 1.2 91",
+                "repetition 2.0 A",
+                "repetition 2.1 B",
+                "end");
+    }
+
+    @Test
+    void reportsEmptyValues() throws IOException {
+        givenReaderInput("UNB++:+*'");
+
+        whenAllRead();
+
+        assertThat(events).containsExactly(
+                "start UNB",
+                "element 0 ",
+                "component 1.0 ",
+                "component 1.1 ",
+                "repetition 2.0 ",
+                "repetition 2.1 ",
+                "end");
+    }
+
+    @Test
+    void reportsTagComponentsFollowedByDataElements() throws IOException {
+        givenReaderInput("UNB:A:B+X'");
+
+        whenAllRead();
+
+        assertThat(events).containsExactly(
+                "start UNB",
+                "tag 0 A",
+                "tag 1 B",
+                "element 0 X",
+                "end");
+    }
+
+    @Test
+    void readsSegmentBySegment() throws IOException {
+        givenReaderInput("UNB'UNZ'");
+
+        assertThat(reader.readSegment(new RecordingHandler())).isTrue();
+        assertThat(events).containsExactly("start UNB", "end");
+        assertThat(reader.readSegment(new RecordingHandler())).isTrue();
+        assertThat(reader.readSegment(new RecordingHandler())).isFalse();
+    }
+
+    @Test
+    void rejectsMixedComponentAfterRepetitionDataElements() {
+        givenReaderInput("ABC+A*B:C'");
+
+        assertThatThrownBy(this::whenAllRead).isInstanceOf(ParseException.class);
+    }
+
+    private void givenReaderInput(String input) {
+        reader = new EdiEventReader("<unknown>", new StringReader(input), Format.UNEDIFACT_DEFAULT);
+    }
+
+    private void whenAllRead() throws IOException {
+        reader.readAll(new RecordingHandler());
+    }
+
+    private class RecordingHandler implements EdiHandler {
+        @Override
+        public void serviceStringAdvice(Format format) {
+            events.add("una");
+        }
+
+        @Override
+        public void startSegment(CharSequence tag) {
+            events.add("start " + tag);
+        }
+
+        @Override
+        public void tagComponent(int componentIndex, CharSequence value) {
+            events.add("tag " + componentIndex + " " + value);
+        }
+
+        @Override
+        public void element(int elementIndex, CharSequence value) {
+            events.add("element " + elementIndex + " " + value);
+        }
+
+        @Override
+        public void component(int elementIndex, int componentIndex, CharSequence value) {
+            events.add("component " + elementIndex + "." + componentIndex + " " + value);
+        }
+
+        @Override
+        public void repetition(int elementIndex, int repetitionIndex, CharSequence value) {
+            events.add("repetition " + elementIndex + "." + repetitionIndex + " " + value);
+        }
+
+        @Override
+        public void endSegment() {
+            events.add("end");
+        }
+    }
+}
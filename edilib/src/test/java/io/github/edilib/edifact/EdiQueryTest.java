@@ -0,0 +1,80 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EdiQueryTest {
+
+    private static final String INTERCHANGE = "UNA:+.? 'UNB+UNOC:3+SENDER:14+RECEIVER:14+211014:1200+1'"
+            + "UNH+1+ORDERS:D:96A:UN'BGM+220+4500265532+9'"
+            + "NAD+SU+3010::91'NAD+BY+2010::91++Buyer ?+ Sons'"
+            + "UNT+5+1'UNZ+1+1'";
+
+    private QueryResult result;
+
+    @Test
+    void selectsByPosition() throws IOException {
+        whenQueried(INTERCHANGE, "UNB[2:1]", "UNB[3:1]", "UNH[2:1]", "BGM/2");
+
+        assertThat(result.get("UNB[2:1]")).isEqualTo("SENDER");
+        assertThat(result.get("UNB[3:1]")).isEqualTo("RECEIVER");
+        assertThat(result.get("UNH[2:1]")).isEqualTo("ORDERS");
+        assertThat(result.get(3)).isEqualTo("4500265532");
+        assertThat(result.isComplete()).isTrue();
+    }
+
+    @Test
+    void selectsByQualifier() throws IOException {
+        whenQueried(INTERCHANGE, "NAD[BY]/2:1", "NAD[BY]/4", "NAD[SU]/2:3");
+
+        assertThat(result.get(0)).isEqualTo("2010");
+        assertThat(result.get(1)).isEqualTo("Buyer + Sons");
+        assertThat(result.get(2)).isEqualTo("91");
+    }
+
+    @Test
+    void distinguishesMissingSegmentFromEmptyValue() throws IOException {
+        whenQueried(INTERCHANGE, "NAD[BY]/3", "NAD[DP]/2:1");
+
+        assertThat(result.get(0)).isEmpty();
+        assertThat(result.get(1)).isNull();
+        assertThat(result.isComplete()).isFalse();
+    }
+
+    @Test
+    void stopsReadingOnceAllSelectorsMatch() throws IOException {
+        // the input ends after a release character, which fails reading further
+        whenQueried("UNH+1+ORDERS:D:96A:UN'BGM+220+?", "UNH[2:1]");
+
+        assertThat(result.get(0)).isEqualTo("ORDERS");
+    }
+
+    @Test
+    void selectsFromFirstRepetitionOnly() throws IOException {
+        Format x12 = new Format(true, false, '>', '*', '.', '\0', '^', '~');
+        result = EdiQuery.compile("REF[ZZ]/2:1", "REF[ZZ]/2:2", "REF[ZZ]/3", "REF[ZZ]/3:2")
+                .execute("<unknown>", new StringReader("REF*ZZ*A>1^B>2*C~"), x12);
+
+        assertThat(result.get(0)).isEqualTo("A");
+        assertThat(result.get(1)).isEqualTo("1");
+        assertThat(result.get(2)).isEqualTo("C");
+        assertThat(result.get(3)).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidSelectors() {
+        assertThatThrownBy(() -> EdiQuery.compile("UNH")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EdiQuery.compile("UNH[0:1]")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EdiQuery.compile("NAD[BY]2")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EdiQuery.compile("NAD[BY]/x")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void whenQueried(String input, String... selectors) throws IOException {
+        result = EdiQuery.compile(selectors).execute("<unknown>", new StringReader(input), Format.UNEDIFACT_DEFAULT);
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FormatDetectorTest {
+
+    private static final String ISA = "ISA*00*          *00*          *ZZ*SENDER         *ZZ*RECEIVER       "
+            + "*190425*1200*U*00401*000000042*0*P*>~";
+
+    @Test
+    void detectsEdifactDefaults() throws IOException {
+        assertThat(detect("UNB+UNOC:3+S+R+190425:1200+42'")).isSameAs(Format.UNEDIFACT_DEFAULT);
+        assertThat(detect("\r\nUNH+1+ORDERS'")).isSameAs(Format.UNEDIFACT_DEFAULT);
+    }
+
+    @Test
+    void detectsEdifactDelimitersFromUna() throws IOException {
+        Format format = detect("UNA|^,!#~UNB^UNOC|3^S^R^190425|1200^42~");
+
+        assertThat(format.unaAllowed).isTrue();
+        assertThat(format.componentDataElementSeperator).isEqualTo('|');
+        assertThat(format.dataElementSeperator).isEqualTo('^');
+        assertThat(format.decimalMark).isEqualTo(',');
+        assertThat(format.releaseCharacter).isEqualTo('!');
+        assertThat(format.repetitionSeperator).isEqualTo('#');
+        assertThat(format.segmentTerminator).isEqualTo('~');
+    }
+
+    @Test
+    void detectsX12DelimitersFromIsa() throws IOException {
+        Format format = detect(ISA.replace('*', '|').replace('>', ':').replace('~', '\n') + "GS|PO\n");
+
+        assertThat(format.unaAllowed).isFalse();
+        assertThat(format.dataElementSeperator).isEqualTo('|');
+        assertThat(format.componentDataElementSeperator).isEqualTo(':');
+        assertThat(format.segmentTerminator).isEqualTo('\n');
+        assertThat(format.hasRepetitionSeperator()).isFalse();
+        assertThat(format.hasReleaseCharacter()).isFalse();
+    }
+
+    @Test
+    void detectsX12RepetitionSeparatorFromVersion402() throws IOException {
+        Format format = detect(ISA.replace("*U*00401*", "*^*00501*"));
+
+        assertThat(format.repetitionSeperator).isEqualTo('^');
+    }
+
+    @Test
+    void readsUnpaddedIsa() throws IOException {
+        Format format = detect("ISA*00**00**ZZ*S*ZZ*R*190425*1200*U*00401*42*0*P*:!GS*PO!");
+
+        assertThat(format.componentDataElementSeperator).isEqualTo(':');
+        assertThat(format.segmentTerminator).isEqualTo('!');
+    }
+
+    @Test
+    void sharesFormatsWithSameDelimiters() throws IOException {
+        assertThat(detect(ISA)).isSameAs(detect(ISA.replace("000000042", "000000043")));
+        assertThat(detect("UNA|^,!#~UNB'")).isSameAs(detect("UNA|^,!#~UNH'"));
+    }
+
+    @Test
+    void rejectsUnknownInput() {
+        assertThatThrownBy(() -> detect("<?xml version=\"1.0\"?>"))
+                .isInstanceOf(ParseException.class)
+                .hasMessageContaining("Cannot detect format");
+        assertThatThrownBy(() -> detect("ISA*00*  *00"))
+                .isInstanceOf(ParseException.class)
+                .hasMessage("Truncated ISA segment.");
+    }
+
+    @Test
+    void readsMixedFilesWithoutFormat(@TempDir Path dir) throws IOException {
+        Path edifact = dir.resolve("orders.edi");
+        Path x12 = dir.resolve("850.x12");
+        Files.write(edifact, "UNA:+.? 'UNB+UNOW:3+S+R+190425:1200+42'UNZ+0+42'".getBytes(StandardCharsets.UTF_8));
+        Files.write(x12, (ISA.replace('~', '\n') + "IEA*0*000000042\n").getBytes(StandardCharsets.US_ASCII));
+
+        try (SegmentReader reader = SegmentReader.open(edifact)) {
+            assertThat(reader.readAll()).extracting(segment -> segment.getTag().getName()).containsExactly("UNB", "UNZ");
+        }
+        try (SegmentReader reader = SegmentReader.open(x12)) {
+            assertThat(reader.readAll()).extracting(segment -> segment.getTag().getName()).containsExactly("ISA", "IEA");
+        }
+    }
+
+    @Test
+    void readsQuestionMarkInX12DataAsText() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((ISA + "MSG*WHY?*NOT~").getBytes(StandardCharsets.ISO_8859_1));
+
+        try (SegmentReader reader = SegmentReader.of("<unknown>", buffer)) {
+            List<Segment> segments = reader.readAll();
+
+            assertThat(segments.get(1).getDataElements()).extracting(Object::toString).containsExactly("WHY?", "NOT");
+        }
+    }
+
+    @Test
+    void readsFromFirstSegmentAfterLeadingWhitespace() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap("\r\nUNA:+.? 'UNB+UNOC:3+S+R+190425:1200+42'UNZ+0+42'".getBytes(StandardCharsets.ISO_8859_1));
+
+        try (SegmentReader reader = SegmentReader.of("<unknown>", buffer)) {
+            assertThat(reader.readAll()).extracting(segment -> segment.getTag().getName()).containsExactly("UNB", "UNZ");
+        }
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    void readsFileFromFirstSegmentAfterLeadingWhitespace(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("orders.edi");
+        Files.write(file, "\r\n UNH+1+ORDERS:D:96A:UN'BGM+220+4711'UNT+3+1'".getBytes(StandardCharsets.ISO_8859_1));
+
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            assertThat(reader.readAll()).extracting(segment -> segment.getTag().getName()).containsExactly("UNH", "BGM", "UNT");
+        }
+        QueryResult result = EdiQuery.compile("UNH[2:1]", "BGM/2").execute(file);
+        assertThat(result.get(0)).isEqualTo("ORDERS");
+        assertThat(result.get(1)).isEqualTo("4711");
+    }
+
+    private static Format detect(String input) throws ParseException {
+        ByteBuffer buffer = ByteBuffer.wrap(input.getBytes(StandardCharsets.ISO_8859_1));
+        Format format = FormatDetector.detect("<unknown>", buffer);
+        assertThat(buffer.position()).isZero();
+        return format;
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncrementalEventReaderTest {
+
+    private IncrementalEventReader reader;
+
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    void reportsSegmentsOnceComplete() throws IOException {
+        givenReader(Format.UNEDIFACT_DEFAULT);
+
+        whenFed("UNA:+.?*'UNB+X'");
+        assertThat(events).containsExactly("una");
+
+        whenFed("UNH+1?'");
+        assertThat(events).containsExactly("una", "start UNB", "element 0 X", "end");
+
+        whenFed("2'");
+        reader.endOfInput();
+        assertThat(events).containsExactly("una", "start UNB", "element 0 X", "end", "start UNH", "element 0 1'2", "end");
+    }
+
+    @Test
+    void readsBytesFedOneByOneLikeBlockingReader() throws IOException {
+        byte[] data = "UNA:+.? 'UNB+UNOW:3'\nNAD+BY+\u00C4rger?+\u017Elu\u0165ou\u010Dk\u00FD:91'\nUNZ+1'\n".getBytes(StandardCharsets.UTF_8);
+        new EdiEventReader("<unknown>", new StringReader(new String(data, StandardCharsets.UTF_8)), Format.UNEDIFACT_DEFAULT)
+                .readAll(new RecordingHandler());
+        List<String> expected = new ArrayList<>(events);
+        events.clear();
+        givenReader(Format.UNEDIFACT_DEFAULT);
+
+        for (byte b : data) {
+            reader.feed(ByteBuffer.wrap(new byte[]{b}));
+        }
+        reader.endOfInput();
+
+        assertThat(events).isEqualTo(expected).contains("component 1.0 \u00C4rger+\u017Elu\u0165ou\u010Dk\u00FD");
+    }
+
+    @Test
+    void rejectsInputEndingWithinSegment() throws IOException {
+        givenReader(Format.UNEDIFACT_DEFAULT);
+        whenFed("UNB+X'UNZ+");
+
+        assertThatThrownBy(() -> reader.endOfInput()).isInstanceOf(ParseException.class);
+        assertThat(events).containsExactly("start UNB", "element 0 X", "end", "start UNZ");
+    }
+
+    @Test
+    void rejectsSegmentLongerThanMaximum() throws IOException {
+        reader = new IncrementalEventReader("<unknown>", Format.UNEDIFACT_DEFAULT, null, ReaderOptions.DEFAULT.withMaxSegmentLength(10),
+                new RecordingHandler());
+        whenFed("UNB+X'FTX+");
+        whenFed("ABCDE");
+
+        assertThatThrownBy(() -> whenFed("FG")).isInstanceOf(ParseException.class).hasMessage("Segment longer than 10 chars.");
+        assertThat(events).containsExactly("start UNB", "element 0 X", "end");
+    }
+
+    private void givenReader(Format format) {
+        reader = new IncrementalEventReader("<unknown>", format, new RecordingHandler());
+    }
+
+    private void whenFed(String chars) throws IOException {
+        reader.feed(chars.toCharArray(), 0, chars.length());
+    }
+
+    private class RecordingHandler implements EdiHandler {
+        @Override
+        public void serviceStringAdvice(Format format) {
+            events.add("una");
+        }
+
+        @Override
+        public void startSegment(CharSequence tag) {
+            events.add("start " + tag);
+        }
+
+        @Override
+        public void element(int elementIndex, CharSequence value) {
+            events.add("element " + elementIndex + " " + value);
+        }
+
+        @Override
+        public void component(int elementIndex, int componentIndex, CharSequence value) {
+            events.add("component " + elementIndex + "." + componentIndex + " " + value);
+        }
+
+        @Override
+        public void endSegment() {
+            events.add("end");
+        }
+    }
+}
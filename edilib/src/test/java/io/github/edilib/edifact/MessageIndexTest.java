@@ -0,0 +1,136 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageIndexTest {
+
+    private static final String INTERCHANGE = "UNA:+.? 'UNB+UNOC:3+S+R'\n"
+            + "UNH+1+ORDERS:D:96A:UN'\nFTX+AAA+++TEXT WITH ?' TERMINATOR'\nUNT+3+1'\n"
+            + "UNH+REF?+2+INVOIC:D:96A:UN'\nFTX+AAA+++RELEASED RELEASE ??'\nUNT+3+REF?+2'\n"
+            + "UNZ+2+1'\n";
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    private MessageIndex index;
+
+    @Test
+    void indexesMessagesOfEachInterchange() throws IOException {
+        String second = "UNA:+.? !UNB+UNOC:3+S+R!UNH+3+DESADV:D:96A:UN!UNT+2+3!UNZ+1+2!";
+        givenIndex(INTERCHANGE + second, Format.UNEDIFACT_DEFAULT);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.get(0)).extracting(MessageIndex.Entry::getOffset, MessageIndex.Entry::getInterchange,
+                MessageIndex.Entry::getType, MessageIndex.Entry::getReference).containsExactly(25L, 0, "ORDERS", "1");
+        assertThat(index.get(1)).extracting(MessageIndex.Entry::getInterchange,
+                MessageIndex.Entry::getType, MessageIndex.Entry::getReference).containsExactly(0, "INVOIC", "REF+2");
+        assertThat(index.get(2)).extracting(MessageIndex.Entry::getInterchange,
+                MessageIndex.Entry::getType, MessageIndex.Entry::getReference).containsExactly(1, "DESADV", "3");
+    }
+
+    @Test
+    void readsSingleMessage() throws IOException {
+        givenIndex(INTERCHANGE, Format.UNEDIFACT_DEFAULT);
+
+        Message message = index.readMessage(1);
+
+        assertThat(message.getIndex()).isEqualTo(1);
+        assertThat(message.getSegments()).isEqualTo(sequentialSegments(INTERCHANGE, Format.UNEDIFACT_DEFAULT, 4, 7));
+    }
+
+    @Test
+    void readsMessageWithDelimitersOfItsInterchange() throws IOException {
+        String second = "UNA:+.? !UNB+UNOC:3+S+R!UNH+3+DESADV:D:96A:UN!UNT+2+3!UNZ+1+2!";
+        givenIndex(INTERCHANGE + second, Format.UNEDIFACT_DEFAULT);
+
+        Message message = index.readMessage(2);
+
+        assertThat(message.getSegments()).extracting(segment -> segment.getTag().getName()).containsExactly("UNH", "UNT");
+    }
+
+    @Test
+    void sharesFormatOfInterchangesWithSameServiceStringAdvice() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 40_000; ++i) {
+            input.append("UNA:+.? 'UNB+UNOC:3+S+R'UNH+").append(i).append("+ORDERS:D:96A:UN'UNT+2+").append(i).append("'UNZ+1+1'");
+        }
+        givenIndex(input.toString(), Format.UNEDIFACT_DEFAULT);
+
+        assertThat(index.size()).isEqualTo(40_000);
+        assertThat(Files.size(MessageIndex.sidecarOf(file))).isLessThan(40_000L * 48);
+        assertThat(index.readMessage(39_999).getSegments()).extracting(segment -> segment.getTag().getName()).containsExactly("UNH", "UNT");
+        assertThat(index.get(39_999).getInterchange()).isEqualTo(39_999);
+    }
+
+    @Test
+    void findsMessageByReference() throws IOException {
+        givenIndex(INTERCHANGE, Format.UNEDIFACT_DEFAULT);
+
+        assertThat(index.find("REF+2")).isEqualTo(1);
+        assertThat(index.find("2")).isEqualTo(-1);
+    }
+
+    @Test
+    void indexesX12TransactionSets() throws IOException {
+        String input = "ISA*00*X~GS*PO*S~ST*850*0001~BEG*00~SE*3*0001~ST*856*0002~SE*2*0002~GE*2*1~IEA*1*1~";
+        givenIndex(input, Format.X12_DEFAULT);
+
+        assertThat(index.get(1)).extracting(MessageIndex.Entry::getOffset, MessageIndex.Entry::getInterchange,
+                MessageIndex.Entry::getType, MessageIndex.Entry::getReference).containsExactly(46L, 0, "856", "0002");
+        assertThat(index.readMessage(0).getSegments()).hasSize(3);
+    }
+
+    @Test
+    void reopensSidecar() throws IOException {
+        givenIndex(INTERCHANGE, Format.UNEDIFACT_DEFAULT);
+        index.close();
+
+        index = MessageIndex.open(file);
+
+        assertThat(MessageIndex.sidecarOf(file)).exists();
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.readMessage(0).getSegments()).hasSize(3);
+    }
+
+    @Test
+    void rejectsStaleIndex() throws IOException {
+        givenIndex(INTERCHANGE, Format.UNEDIFACT_DEFAULT);
+        index.close();
+        Files.write(file, "UNB'".getBytes(StandardCharsets.ISO_8859_1), StandardOpenOption.APPEND);
+
+        assertThatThrownBy(() -> MessageIndex.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("is stale, rebuild it.");
+    }
+
+    @Test
+    void rejectsMessageOutOfBounds() throws IOException {
+        givenIndex(INTERCHANGE, Format.UNEDIFACT_DEFAULT);
+
+        assertThatThrownBy(() -> index.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private List<Segment> sequentialSegments(String input, Format format, int from, int to) throws IOException {
+        return new SegmentReader("<unknown>", new StringReader(input), format).readAll().subList(from, to);
+    }
+
+    private void givenIndex(String input, Format format) throws IOException {
+        file = dir.resolve("interchange.edi");
+        Files.write(file, input.getBytes(StandardCharsets.ISO_8859_1));
+        index = MessageIndex.build(file, format);
+    }
+}
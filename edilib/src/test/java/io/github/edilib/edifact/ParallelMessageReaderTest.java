@@ -0,0 +1,132 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelMessageReaderTest {
+
+    private static final String INTERCHANGE = "UNA:+.? 'UNB+UNOC:3+S+R'\n"
+            + "UNH+1+ORDERS:D:96A:UN'\nFTX+AAA+++TEXT WITH ?' TERMINATOR'\nUNT+3+1'\n"
+            + "UNH+2+ORDERS:D:96A:UN'\nFTX+AAA+++RELEASED RELEASE ??'\nUNT+3+2'\n"
+            + "UNZ+2+1'\n";
+
+    private ParallelMessageReader reader;
+
+    private List<Message> messages;
+
+    @Test
+    void readsMessagesLikeSequentialReader() throws IOException {
+        givenReaderInput(INTERCHANGE, Format.UNEDIFACT_DEFAULT);
+
+        whenAllRead();
+
+        assertThat(messages).extracting(Message::getIndex).containsExactly(0, 1);
+        assertThat(messages).extracting(Message::getSegments).containsExactly(
+                sequentialSegments(INTERCHANGE, Format.UNEDIFACT_DEFAULT, 1, 4),
+                sequentialSegments(INTERCHANGE, Format.UNEDIFACT_DEFAULT, 4, 7));
+    }
+
+    @Test
+    void appliesServiceStringAdviceOfEachInterchange() throws IOException {
+        String second = "UNA:+.? !UNB+UNOC:3+S+R!UNH+1+INVOIC:D:96A:UN!UNT+2+1!UNZ+1+2!";
+        givenReaderInput(INTERCHANGE + second, Format.UNEDIFACT_DEFAULT);
+
+        whenAllRead();
+
+        assertThat(messages).hasSize(3);
+        assertThat(messages.get(2).getSegments()).extracting(segment -> segment.getTag().getName()).containsExactly("UNH", "UNT");
+    }
+
+    @Test
+    void readsX12TransactionSets() throws IOException {
+        String input = "ISA*00*X~GS*PO*S~ST*850*0001~BEG*00~SE*3*0001~ST*850*0002~SE*2*0002~GE*2*1~IEA*1*1~";
+        givenReaderInput(input, Format.X12_DEFAULT);
+
+        whenAllRead();
+
+        assertThat(messages).extracting(message -> message.getSegments().size()).containsExactly(3, 2);
+    }
+
+    @Test
+    void passesMessagesOnUnordered() throws IOException {
+        StringBuilder input = new StringBuilder("UNB+UNOC:3+S+R'");
+        for (int i = 0; i < 10_000; ++i) {
+            input.append("UNH+").append(i).append("+ORDERS:D:96A:UN'LIN+").append(i).append("'UNT+3+").append(i).append("'");
+        }
+        input.append("UNZ+10000+1'");
+        givenReaderInput(input.toString(), Format.UNEDIFACT_DEFAULT);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Message> unordered = new ArrayList<>();
+        try {
+            reader.forEach(executor, unordered::add);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(unordered).hasSize(10_000);
+        assertThat(unordered.stream().map(Message::getIndex).collect(Collectors.toSet())).hasSize(10_000);
+        for (Message message : unordered) {
+            assertThat(((SimpleValue) message.getSegments().get(1).getDataElements().get(0)).asInt()).isEqualTo(message.getIndex());
+        }
+    }
+
+    @Test
+    void streamsMessagesInParallel() {
+        StringBuilder input = new StringBuilder("UNB+UNOC:3+S+R'");
+        for (int i = 0; i < 10_000; ++i) {
+            input.append("UNH+").append(i).append("+ORDERS:D:96A:UN'LIN+").append(i).append("'UNT+3+").append(i).append("'");
+        }
+        givenReaderInput(input.toString(), Format.UNEDIFACT_DEFAULT);
+
+        List<Integer> indexes = reader.messages().parallel().map(Message::getIndex).collect(Collectors.toList());
+
+        assertThat(indexes).hasSize(10_000).isSorted();
+    }
+
+    @Test
+    void reportsMessageOfParseError() {
+        givenReaderInput("UNB'UNH+1'UNT+2+1'UNH+2'BAD+:*'UNT+2+2'UNZ+2'", Format.UNEDIFACT_DEFAULT);
+
+        assertThatThrownBy(this::whenAllRead)
+                .isInstanceOf(ParseException.class)
+                .hasMessageContaining("In message 1 at offset 18.");
+    }
+
+    @Test
+    void readsMappedFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("interchange.edi");
+        Files.write(file, INTERCHANGE.getBytes(StandardCharsets.ISO_8859_1));
+
+        try (ParallelMessageReader fileReader = ParallelMessageReader.open(file, Format.UNEDIFACT_DEFAULT)) {
+            assertThat(fileReader.readAll()).hasSize(2);
+        }
+    }
+
+    private List<Segment> sequentialSegments(String input, Format format, int from, int to) throws IOException {
+        return new SegmentReader("<unknown>", new StringReader(input), format).readAll().subList(from, to);
+    }
+
+    private void givenReaderInput(String input, Format format) {
+        reader = ParallelMessageReader.of("<unknown>", ByteBuffer.wrap(input.getBytes(StandardCharsets.ISO_8859_1)), format);
+    }
+
+    private void whenAllRead() throws IOException {
+        messages = reader.readAll();
+    }
+}
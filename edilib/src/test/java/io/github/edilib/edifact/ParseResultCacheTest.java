@@ -0,0 +1,102 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParseResultCacheTest {
+
+    private static final String ORDERS = "UNB+UNOC:3+S+R+190425:1200+42'UNH+1+ORDERS'BGM+220'UNT+3+1'UNZ+1+42'";
+    private static final String INVOIC = "UNB+UNOC:3+S+R+190425:1200+43'UNH+1+INVOIC'BGM+380'UNT+3+1'UNZ+1+43'";
+
+    @Test
+    void returnsCachedInterchangeForSameBytes() throws IOException {
+        ParseResultCache cache = new ParseResultCache(1024 * 1024);
+
+        CompactInterchange first = cache.read("first", buffer(ORDERS), Format.UNEDIFACT_DEFAULT);
+        CompactInterchange second = cache.read("second", buffer(ORDERS), Format.UNEDIFACT_DEFAULT);
+        CompactInterchange other = cache.read("other", buffer(INVOIC), Format.UNEDIFACT_DEFAULT);
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(other.get(1).getDataElements().get(1).toString()).contains("INVOIC");
+        assertThat(cache.stats()).isEqualTo(new ParseResultCache.Stats(1, 2, 0, 2, first.memorySize() + other.memorySize()));
+    }
+
+    @Test
+    void distinguishesFormats() throws IOException {
+        ParseResultCache cache = new ParseResultCache(1024 * 1024);
+        Format swappedSeparators = new Format(true, true, '+', ':', '.', '?', ' ', '\'');
+
+        CompactInterchange edifact = cache.read("edifact", buffer("BGM+220:1'"), Format.UNEDIFACT_DEFAULT);
+        CompactInterchange swapped = cache.read("swapped", buffer("BGM+220:1'"), swappedSeparators);
+
+        assertThat(swapped).isNotSameAs(edifact);
+        assertThat(cache.stats().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBySize() throws IOException {
+        ParseResultCache probe = new ParseResultCache(Long.MAX_VALUE);
+        long size = probe.read("probe", buffer(ORDERS), Format.UNEDIFACT_DEFAULT).memorySize();
+        ParseResultCache cache = new ParseResultCache(2 * size + size / 2);
+
+        CompactInterchange orders = cache.read("a", buffer(ORDERS), Format.UNEDIFACT_DEFAULT);
+        cache.read("b", buffer(INVOIC), Format.UNEDIFACT_DEFAULT);
+        cache.read("a", buffer(ORDERS), Format.UNEDIFACT_DEFAULT);
+        cache.read("c", buffer(ORDERS.replace("220", "221")), Format.UNEDIFACT_DEFAULT);
+
+        assertThat(cache.read("a", buffer(ORDERS), Format.UNEDIFACT_DEFAULT)).isSameAs(orders);
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+        assertThat(cache.stats().getEntries()).isEqualTo(2);
+        cache.read("b", buffer(INVOIC), Format.UNEDIFACT_DEFAULT);
+        assertThat(cache.stats().getMisses()).isEqualTo(4);
+    }
+
+    @Test
+    void skipsInterchangesLargerThanCache() throws IOException {
+        ParseResultCache cache = new ParseResultCache(16);
+
+        cache.read("a", buffer(ORDERS), Format.UNEDIFACT_DEFAULT);
+
+        assertThat(cache.stats().getEntries()).isZero();
+        assertThat(cache.stats().getBytes()).isZero();
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        ParseResultCache cache = new ParseResultCache(1024 * 1024);
+
+        assertThatThrownBy(() -> cache.read("a", buffer("UNB+:*'"), Format.UNEDIFACT_DEFAULT)).isInstanceOf(ParseException.class);
+        assertThatThrownBy(() -> cache.read("a", buffer("UNB+:*'"), Format.UNEDIFACT_DEFAULT)).isInstanceOf(ParseException.class);
+        assertThat(cache.stats().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsRecoveringOptions() {
+        assertThatThrownBy(() -> new ParseResultCache(1024 * 1024, ReaderOptions.DEFAULT.withRecovery(Recovery.SEGMENT)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Recovery SEGMENT not supported");
+    }
+
+    @Test
+    void leavesBufferPosition() throws IOException {
+        ParseResultCache cache = new ParseResultCache(1024 * 1024);
+        ByteBuffer buffer = buffer("xx" + ORDERS);
+        buffer.position(2);
+
+        assertThat(cache.read("a", buffer, Format.UNEDIFACT_DEFAULT).size()).isEqualTo(5);
+        assertThat(buffer.position()).isEqualTo(2);
+        assertThat(cache.read("b", buffer(ORDERS), Format.UNEDIFACT_DEFAULT).size()).isEqualTo(5);
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+    }
+
+    private static ByteBuffer buffer(String input) {
+        return ByteBuffer.wrap(input.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentPublisherTest {
+
+    private boolean closed;
+
+    private final RecordingSubscriber<Object> subscriber = new RecordingSubscriber<>();
+
+    @Test
+    void publishesSegmentsOnDemand() {
+        SegmentReader reader = givenReader("UNB'UNH+1'UNT+2+1'UNZ+1'");
+        SegmentPublisher.segments(reader).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.events).containsExactly("UNB");
+        assertThat(closed).isFalse();
+
+        subscriber.subscription.request(10);
+
+        assertThat(subscriber.events).containsExactly("UNB", "UNH", "UNT", "UNZ", "complete");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void publishesMessages() {
+        SegmentReader reader = givenReader("UNB'UNH+1'LIN+1'UNT+3+1'UNH+2'UNT+2+2'UNZ+2'");
+        SegmentPublisher.messages(reader).subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.events).containsExactly("message 0", "message 1", "complete");
+    }
+
+    @Test
+    void requestsFromWithinOnNextWithoutRecursion() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100000; ++i) {
+            input.append("LIN+").append(i).append("'");
+        }
+        SegmentReader reader = givenReader(input.toString());
+        RecordingSubscriber<Segment> requestingSubscriber = new RecordingSubscriber<Segment>() {
+            @Override
+            public void onNext(Segment segment) {
+                count++;
+                subscription.request(1);
+            }
+        };
+        SegmentPublisher.segments(reader).subscribe(requestingSubscriber);
+
+        requestingSubscriber.subscription.request(1);
+
+        assertThat(requestingSubscriber.count).isEqualTo(100000);
+        assertThat(requestingSubscriber.events).containsExactly("complete");
+    }
+
+    @Test
+    void closesReaderOnCancel() {
+        SegmentReader reader = givenReader("UNB'UNZ'");
+        SegmentPublisher.segments(reader).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.events).containsExactly("UNB");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void signalsParseErrors() {
+        SegmentReader reader = givenReader("UNB'LIN+:*'");
+        SegmentPublisher.segments(reader).subscribe(subscriber);
+
+        subscriber.subscription.request(5);
+
+        assertThat(subscriber.events).containsExactly("UNB", "error ParseException");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void cancelsWhenOnNextThrows() {
+        SegmentReader reader = givenReader("UNB'UNH+1'UNT+2+1'UNZ+1'");
+        RecordingSubscriber<Segment> throwingSubscriber = new RecordingSubscriber<Segment>() {
+            @Override
+            public void onNext(Segment segment) {
+                count++;
+                throw new IllegalStateException("Failed in subscriber.");
+            }
+        };
+        SegmentPublisher.segments(reader).subscribe(throwingSubscriber);
+
+        throwingSubscriber.subscription.request(5);
+        throwingSubscriber.subscription.request(5);
+
+        assertThat(throwingSubscriber.count).isEqualTo(1);
+        assertThat(throwingSubscriber.events).isEmpty();
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void signalsInvalidRequest() {
+        SegmentReader reader = givenReader("UNB'");
+        SegmentPublisher.segments(reader).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.events).containsExactly("error IllegalArgumentException");
+    }
+
+    @Test
+    void rejectsSecondSubscriber() {
+        SegmentPublisher<Segment> publisher = SegmentPublisher.segments(givenReader("UNB'"));
+        publisher.subscribe(subscriber);
+        RecordingSubscriber<Segment> second = new RecordingSubscriber<>();
+
+        publisher.subscribe(second);
+
+        assertThat(second.events).containsExactly("error IllegalStateException");
+    }
+
+    private SegmentReader givenReader(String input) {
+        return new SegmentReader("<unknown>", new StringReader(input) {
+            @Override
+            public void close() {
+                closed = true;
+            }
+        }, Format.UNEDIFACT_DEFAULT);
+    }
+
+    private static class RecordingSubscriber<T> implements Subscriber<T> {
+        final List<String> events = new ArrayList<>();
+        Subscription subscription;
+        int count;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (item instanceof Segment) {
+                events.add(((Segment) item).getTag().getName());
+            } else {
+                events.add("message " + ((Message) item).getIndex());
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            events.add("error " + error.getClass().getSimpleName());
+        }
+
+        @Override
+        public void onComplete() {
+            events.add("complete");
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package io.github.edilib.edifact;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -274,10 +282,228 @@ class SegmentReaderTest {
         }).isInstanceOf(IOException.class);
     }
 
+    @Test
+    void readsWithTinyBuffer() throws IOException {
+        segmentReader = new SegmentReader("<unknown>", new StringReader("UNA:+.?*'UNB+X?+:x+Y*Y2'UNT'"),
+                Format.UNEDIFACT_DEFAULT, ReaderOptions.DEFAULT.withBufferSize(1));
+
+        whenSegmentsRead();
+
+        assertThat(segments).containsExactly(
+                new Segment(new Tag("UNB", emptyList()), asList(new ComponentValue("X+", "x"), new RepetitionValue("Y", "Y2"))),
+                new Segment(new Tag("UNT", emptyList()), emptyList())
+        );
+    }
+
+    @Test
+    void readsBytesInSingleByteCharsetOfSyntaxIdentifier() throws IOException {
+        byte[] data = "UNB+UNOD:3'FTX+\u017Elu\u0165ou\u010Dk\u00FD'".getBytes("ISO-8859-2");
+        segmentReader = SegmentReader.of("<unknown>", ByteBuffer.wrap(data), Format.UNEDIFACT_DEFAULT);
+
+        whenSegmentsRead();
+
+        assertThat(segments.get(1)).isEqualTo(new Segment(new Tag("FTX", emptyList()), asList(new SimpleValue("\u017Elu\u0165ou\u010Dk\u00FD"))));
+    }
+
+    @Test
+    void readsBytesInMultiByteCharsetOfSyntaxIdentifier() throws IOException {
+        byte[] data = "UNA:+.? 'UNB+UNOW:4'FTX+Gr\u00FC\u00DFe'".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data).flip();
+        segmentReader = SegmentReader.of("<unknown>", buffer, Format.UNEDIFACT_DEFAULT);
+
+        whenSegmentsRead();
+
+        assertThat(segments.get(1)).isEqualTo(new Segment(new Tag("FTX", emptyList()), asList(new SimpleValue("Gr\u00FC\u00DFe"))));
+        assertThat(buffer.position()).isEqualTo(0);
+    }
+
+    @Test
+    void readsMappedFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("orders.edi");
+        Files.write(file, "UNB+UNOC:3'FTX+\u00C4rger'UNZ+0'".getBytes(StandardCharsets.ISO_8859_1));
+
+        try (SegmentReader reader = SegmentReader.open(file, Format.UNEDIFACT_DEFAULT)) {
+            segments = reader.readAll();
+        }
+
+        assertThat(segments).hasSize(3);
+        assertThat(segments.get(1)).isEqualTo(new Segment(new Tag("FTX", emptyList()), asList(new SimpleValue("\u00C4rger"))));
+    }
+
+    @Test
+    void reportsLineAndColumnOfError() {
+        givenParserInput("UNB+X'\nUNH+1'\nLIN+1+:*'\n", Format.UNEDIFACT_DEFAULT);
+
+        assertThatThrownBy(this::whenSegmentsRead)
+                .isInstanceOf(ParseException.class)
+                .extracting(ex -> ((ParseException) ex).getLocation())
+                .isEqualTo(new Location("<unknown>", 2, 7));
+    }
+
+    @Test
+    void sharesTagAndValueStrings() throws IOException {
+        givenParserInput("NAD+BY'NAD+BY'", Format.UNEDIFACT_DEFAULT);
+
+        whenSegmentsRead();
+
+        assertThat(segments.get(1).getTag().getName()).isSameAs(segments.get(0).getTag().getName());
+        assertThat(((SimpleValue) segments.get(1).getDataElements().get(0)).stringValue)
+                .isSameAs(((SimpleValue) segments.get(0).getDataElements().get(0)).stringValue);
+    }
+
+    @Test
+    void sharesOnlyTagStringsWithoutValueCache() throws IOException {
+        segmentReader = new SegmentReader("<unknown>", new StringReader("NAD+BY'NAD+BY'"),
+                Format.UNEDIFACT_DEFAULT, ReaderOptions.DEFAULT.withValueCache(ValueCache.NONE));
+
+        whenSegmentsRead();
+
+        assertThat(segments.get(1).getTag().getName()).isSameAs(segments.get(0).getTag().getName());
+        assertThat(((SimpleValue) segments.get(1).getDataElements().get(0)).stringValue)
+                .isNotSameAs(((SimpleValue) segments.get(0).getDataElements().get(0)).stringValue);
+    }
+
+    @Test
+    void streamsSegments() {
+        givenParserInput("UNB'UNH+1'UNT+2+1'UNZ+1'", Format.UNEDIFACT_DEFAULT);
+
+        assertThat(segmentReader.stream().map(segment -> segment.getTag().getName()))
+                .containsExactly("UNB", "UNH", "UNT", "UNZ");
+    }
+
+    @Test
+    void streamsMessages() {
+        givenParserInput("UNB'UNH+1'LIN+1'UNT+3+1'UNH+2'UNT+2+2'UNZ+2'", Format.UNEDIFACT_DEFAULT);
+
+        assertThat(segmentReader.messages().map(message -> message.getSegments().size()))
+                .containsExactly(3, 2);
+    }
+
+    @Test
+    void streamsMessagesInParallel() {
+        StringBuilder input = new StringBuilder("UNB'");
+        for (int i = 0; i < 5000; ++i) {
+            input.append("UNH+").append(i).append("'LIN+").append(i).append("'UNT+3+").append(i).append("'");
+        }
+        input.append("UNZ+5000'");
+        givenParserInput(input.toString(), Format.UNEDIFACT_DEFAULT);
+
+        List<Integer> indexes = segmentReader.messages().parallel()
+                .map(message -> ((SimpleValue) message.getSegments().get(1).getDataElements().get(0)).asInt())
+                .collect(Collectors.toList());
+
+        assertThat(indexes).hasSize(5000).isSorted();
+    }
+
+    @Test
+    void splitsSegmentStreamAtMessageEnd() {
+        StringBuilder input = new StringBuilder("UNB'");
+        for (int i = 0; i < 1000; ++i) {
+            input.append("UNH+").append(i).append("'LIN+").append(i).append("'UNT+3+").append(i).append("'");
+        }
+        givenParserInput(input.toString(), Format.UNEDIFACT_DEFAULT);
+
+        Spliterator<Segment> batch = segmentReader.stream().spliterator().trySplit();
+
+        List<Segment> batchSegments = new ArrayList<>();
+        batch.forEachRemaining(batchSegments::add);
+        assertThat(batchSegments.get(batchSegments.size() - 1).getTag().getName()).isEqualTo("UNT");
+    }
+
+    @Test
+    void rejectsUnterminatedMessage() {
+        givenParserInput("UNH+1'LIN+1'", Format.UNEDIFACT_DEFAULT);
+
+        assertThatThrownBy(() -> segmentReader.messages().count())
+                .isInstanceOf(UncheckedIOException.class)
+                .hasCauseInstanceOf(ParseException.class);
+    }
+
+    @Test
+    void closesReaderWithStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        segmentReader = new SegmentReader("<unknown>", new StringReader("UNB'") {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        }, Format.UNEDIFACT_DEFAULT);
+
+        try (Stream<Segment> stream = segmentReader.stream()) {
+            assertThat(stream.count()).isEqualTo(1);
+        }
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void skipsMalformedSegmentWhenRecovering() throws IOException {
+        givenRecoveringParserInput("UNB+X'\nUNH+1'\nLIN+1+:*'\nLIN+2'\n", Recovery.SEGMENT, 10);
+
+        whenSegmentsRead();
+
+        assertThat(segments).extracting(segment -> segment.getTag().getName())
+                .containsExactly("UNB", "UNH", "LIN");
+        assertThat(((SimpleValue) segments.get(2).getDataElements().get(0)).stringValue).isEqualTo("2");
+        assertThat(segmentReader.errors()).extracting(ParseError::getLocation)
+                .containsExactly(new Location("<unknown>", 2, 7));
+    }
+
+    @Test
+    void skipsToNextMessageWhenRecovering() throws IOException {
+        givenRecoveringParserInput("UNH+1'LIN+1+:*'LIN+2'UNT+3+1'UNH+2'UNT+2+2'", Recovery.MESSAGE, 10);
+
+        whenSegmentsRead();
+
+        assertThat(segments).extracting(segment -> segment.getTag().getName())
+                .containsExactly("UNH", "UNH", "UNT");
+        assertThat(segmentReader.errors()).hasSize(1);
+    }
+
+    @Test
+    void reportsScannerErrorsWhenRecovering() throws IOException {
+        segmentReader = new SegmentReader("<unknown>", new StringReader("ABC~UNA:*.? ~DEF~"),
+                Format.X12_DEFAULT, ReaderOptions.DEFAULT.withRecovery(Recovery.SEGMENT));
+
+        whenSegmentsRead();
+
+        assertThat(segments).extracting(segment -> segment.getTag().getName())
+                .containsExactly("ABC", "DEF");
+        assertThat(segmentReader.errors()).extracting(ParseError::getMessage)
+                .containsExactly("UNA seen but now allowed.");
+    }
+
+    @Test
+    void failsWhenErrorBudgetExceeded() {
+        givenRecoveringParserInput("LIN+:*'LIN+:*'LIN+1'", Recovery.SEGMENT, 1);
+
+        assertThatThrownBy(this::whenSegmentsRead)
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Error budget of 1 exceeded");
+        assertThat(segmentReader.errors()).hasSize(1);
+    }
+
+    @Test
+    void stopsAtEofAfterReleaseCharacterWhenRecovering() throws IOException {
+        givenRecoveringParserInput("LIN+1'LIN+?", Recovery.SEGMENT, 10);
+
+        whenSegmentsRead();
+
+        assertThat(segments).hasSize(1);
+        assertThat(segmentReader.errors()).extracting(ParseError::getMessage)
+                .containsExactly("EOF after release character.");
+    }
+
     private void givenParserInput(String data, Format format) {
         segmentReader = new SegmentReader("<unknown>", new StringReader(data), format);
     }
 
+    private void givenRecoveringParserInput(String data, Recovery recovery, int errorBudget) {
+        segmentReader = new SegmentReader("<unknown>", new StringReader(data), Format.UNEDIFACT_DEFAULT,
+                ReaderOptions.DEFAULT.withRecovery(recovery).withErrorBudget(errorBudget));
+    }
+
     private void whenSegmentsRead() throws IOException {
         segments = segmentReader.readAll();
     }
@@ -0,0 +1,153 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentWriterTest {
+
+    private final StringWriter output = new StringWriter();
+
+    private SegmentWriter segmentWriter;
+
+    @Test
+    void writesSegmentsWithAllValueTypes() throws IOException {
+        givenWriter(Format.UNEDIFACT_DEFAULT, WriterOptions.DEFAULT);
+
+        segmentWriter.write(new Segment(new Tag("UNB", asList(new SimpleValue("1"))),
+                asList(new SimpleValue("X"), new ComponentValue("A", "", "B"), new RepetitionValue("R1", "R2"), new SimpleValue(""))));
+        segmentWriter.write(new Segment(new Tag("UNZ", emptyList()), emptyList()));
+        segmentWriter.close();
+
+        assertThat(output.toString()).isEqualTo("UNB:1+X+A::B+R1*R2+'UNZ'");
+    }
+
+    @Test
+    void escapesDelimitersAndReleaseCharacter() throws IOException {
+        givenWriter(Format.UNEDIFACT_DEFAULT, WriterOptions.DEFAULT);
+
+        segmentWriter.startSegment("FTX");
+        segmentWriter.writeElement("It's 1+1:2?*");
+        segmentWriter.endSegment();
+        segmentWriter.flush();
+
+        assertThat(output.toString()).isEqualTo("FTX+It?'s 1?+1?:2???*'");
+    }
+
+    @Test
+    void writesServiceStringAdviceAndNewlines() throws IOException {
+        givenWriter(Format.UNEDIFACT_DEFAULT, WriterOptions.DEFAULT.withServiceStringAdvice(true).withNewlineAfterSegment(true));
+
+        segmentWriter.startSegment("UNB");
+        segmentWriter.writeElement("UNOC");
+        segmentWriter.writeComponent("3");
+        segmentWriter.endSegment();
+        segmentWriter.flush();
+
+        assertThat(output.toString()).isEqualTo("UNA:+.?*'UNB+UNOC:3'\n");
+    }
+
+    @Test
+    void writesWhatReaderReads() throws IOException {
+        String input = "UNA:+.?*'UNB+UNOC:3+S?+1+R'UNH+1+ORDERS:D:96A:UN'FTX+AAA+++A*B+??'UNT+3+1'UNZ+1+1'";
+        List<Segment> segments = new SegmentReader("<unknown>", new StringReader(input), Format.UNEDIFACT_DEFAULT).readAll();
+        givenWriter(Format.UNEDIFACT_DEFAULT, WriterOptions.DEFAULT.withServiceStringAdvice(true));
+
+        segmentWriter.writeAll(segments);
+        segmentWriter.close();
+
+        assertThat(output.toString()).isEqualTo(input);
+    }
+
+    @Test
+    void writesInSmallBuffer() throws IOException {
+        givenWriter(Format.UNEDIFACT_DEFAULT, WriterOptions.DEFAULT.withBufferSize(1));
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            value.append("ab+");
+        }
+
+        segmentWriter.startSegment("FTX");
+        segmentWriter.writeElement(value);
+        segmentWriter.endSegment();
+        segmentWriter.close();
+
+        assertThat(output.toString()).isEqualTo("FTX+" + value.toString().replace("+", "?+") + "'");
+    }
+
+    @Test
+    void writesBytesInCharset() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        segmentWriter = SegmentWriter.of(bytes, Format.UNEDIFACT_DEFAULT, StandardCharsets.UTF_8, WriterOptions.DEFAULT);
+
+        segmentWriter.write(new Segment(new Tag("FTX", emptyList()), asList(new SimpleValue("Gr\u00FC\u00DFe"))));
+        segmentWriter.close();
+
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("FTX+Gr\u00FC\u00DFe'");
+    }
+
+    @Test
+    void writesIntoByteBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        segmentWriter = SegmentWriter.of(buffer, Format.X12_DEFAULT, StandardCharsets.US_ASCII, WriterOptions.DEFAULT);
+
+        segmentWriter.startSegment("ST");
+        segmentWriter.writeElement("850");
+        segmentWriter.endSegment();
+        segmentWriter.flush();
+
+        buffer.flip();
+        assertThat(StandardCharsets.US_ASCII.decode(buffer).toString()).isEqualTo("ST*850~");
+    }
+
+    @Test
+    void rejectsRepetitionWithoutRepetitionSeperator() throws IOException {
+        givenWriter(Format.X12_DEFAULT, WriterOptions.DEFAULT);
+        segmentWriter.startSegment("REF");
+
+        assertThatThrownBy(() -> segmentWriter.writeRepetition("X")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsDelimiterWithoutReleaseCharacter() {
+        Format x12 = new Format(true, false, '>', '*', '.', '\0', ' ', '~');
+        givenWriter(x12, WriterOptions.DEFAULT);
+
+        assertThatThrownBy(() -> segmentWriter.write(new Segment(new Tag("MSG", emptyList()), asList(new SimpleValue("A*B")))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Value A*B contains delimiter *, but the format has no release character.");
+    }
+
+    @Test
+    void writesQuestionMarkWithoutReleaseCharacter() throws IOException {
+        Format x12 = new Format(true, false, '>', '*', '.', '\0', ' ', '~');
+        givenWriter(x12, WriterOptions.DEFAULT);
+
+        segmentWriter.write(new Segment(new Tag("MSG", emptyList()), asList(new SimpleValue("WHY?"))));
+        segmentWriter.close();
+
+        assertThat(output.toString()).isEqualTo("MSG*WHY?~");
+    }
+
+    @Test
+    void rejectsElementOutsideOfSegment() {
+        givenWriter(Format.UNEDIFACT_DEFAULT, WriterOptions.DEFAULT);
+
+        assertThatThrownBy(() -> segmentWriter.writeElement("X")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void givenWriter(Format format, WriterOptions options) {
+        segmentWriter = new SegmentWriter(output, format, options);
+    }
+}
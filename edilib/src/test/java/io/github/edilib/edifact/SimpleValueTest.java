@@ -0,0 +1,75 @@
+package io.github.edilib.edifact;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimpleValueTest {
+
+    @Test
+    void convertsIntegersLazily() {
+        SimpleValue value = new SimpleValue("-12345");
+
+        assertThat(value.isNumeric()).isTrue();
+        assertThat(value.asInt()).isEqualTo(-12345);
+        assertThat(value.asLong()).isEqualTo(-12345L);
+        assertThat(value.asDecimal()).isEqualTo(new BigDecimal("-12345"));
+    }
+
+    @Test
+    void keepsIntegerOutOfIntRangeAsLong() {
+        SimpleValue value = new SimpleValue("9223372036854775807");
+
+        assertThat(value.asInt()).isNull();
+        assertThat(value.asLong()).isEqualTo(Long.MAX_VALUE);
+        assertThat(new SimpleValue("9223372036854775808").asLong()).isNull();
+        assertThat(new SimpleValue("-2147483648").asInt()).isEqualTo(Integer.MIN_VALUE);
+    }
+
+    @Test
+    void convertsDecimalsWithDecimalMark() {
+        SimpleValue value = new SimpleValue("1234,567", null, null, ',');
+
+        assertThat(value.isNumeric()).isTrue();
+        assertThat(value.asInt()).isNull();
+        assertThat(value.asDecimal()).isEqualTo(new BigDecimal("1234.567"));
+        assertThat(new SimpleValue("1.5", null, null, ',').asDecimal()).isEqualTo(new BigDecimal("1.5"));
+        assertThat(new SimpleValue("1,5").asDecimal()).isNull();
+    }
+
+    @Test
+    void convertsLongDecimalsAndExponents() {
+        assertThat(new SimpleValue("12345678901234567890.123").asDecimal()).isEqualTo(new BigDecimal("12345678901234567890.123"));
+        assertThat(new SimpleValue("1.5E3").asDecimal()).isEqualTo(new BigDecimal("1.5E3"));
+        assertThat(new SimpleValue(".5").asDecimal()).isEqualTo(new BigDecimal(".5"));
+    }
+
+    @Test
+    void rejectsNonNumericValues() {
+        for (String s : new String[]{"", "BY", "-", "+", ".", "1.2.3", "1E", "12A", "4000862141404:SRS"}) {
+            SimpleValue value = new SimpleValue(s);
+
+            assertThat(value.isNumeric()).as(s).isFalse();
+            assertThat(value.asInt()).as(s).isNull();
+            assertThat(value.asLong()).as(s).isNull();
+            assertThat(value.asDecimal()).as(s).isNull();
+        }
+    }
+
+    @Test
+    void skipsNumericInferenceIfDisabled() throws IOException {
+        SegmentReader reader = new SegmentReader("<unknown>", new StringReader("UNA:+,? 'QTY+21:48,5'"),
+                Format.UNEDIFACT_DEFAULT, ReaderOptions.DEFAULT.withNumericInference(false));
+
+        List<Segment> segments = reader.readAll();
+
+        SimpleValue quantity = ((ComponentValue) segments.get(0).getDataElements().get(0)).values.get(1);
+        assertThat(quantity.decimalValue).isNull();
+        assertThat(quantity.asDecimal()).isEqualTo(new BigDecimal("48.5"));
+    }
+}
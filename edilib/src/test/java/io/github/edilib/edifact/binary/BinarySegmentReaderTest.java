@@ -0,0 +1,139 @@
+package io.github.edilib.edifact.binary;
+
+import io.github.edilib.edifact.ComponentValue;
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.Message;
+import io.github.edilib.edifact.ReaderOptions;
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.SimpleValue;
+import io.github.edilib.edifact.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinarySegmentReaderTest {
+
+    private static final String INTERCHANGE = "UNA:+.? 'UNB+UNOC:3+SENDER+RECIPIENT+190425:1200+42'"
+            + "UNH+1+ORDERS:D:96A:UN'BGM+220+4500265532'DTM+137:20190425:102'"
+            + "NAD+BY+++Buyer ?+ Sons'COM+044-1010605:TE*044-1010662:FX'UNT+6+1'"
+            + "UNH+2+ORDERS:D:96A:UN'BGM+220'IMD+F++:::Caf\u00e9 \u20ac 5'QTY+21:48.5'UNT+5+2'UNZ+2+42'";
+
+    @Test
+    void roundTripsSegments() throws IOException {
+        List<Segment> segments = parse(INTERCHANGE);
+
+        byte[] bytes = write(segments, Format.UNEDIFACT_DEFAULT);
+        BinarySegmentReader reader = new BinarySegmentReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+        assertThat(reader.readAll()).isEqualTo(segments);
+        assertThat(reader.hasNext()).isFalse();
+    }
+
+    @Test
+    void keepsFormatAndNumbers() throws IOException {
+        Format format = new Format(true, true, ':', '+', ',', '?', '*', '\'');
+        byte[] bytes = write(parse("QTY+21:48,5'"), format);
+
+        BinarySegmentReader reader = new BinarySegmentReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+        assertThat(reader.format().decimalMark).isEqualTo(',');
+        assertThat(reader.format().repetitionSeperator).isEqualTo('*');
+        SimpleValue quantity = ((ComponentValue) reader.next().getDataElements().get(0)).values.get(1);
+        assertThat(quantity.asDecimal()).isEqualByComparingTo("48.5");
+    }
+
+    @Test
+    void keepsTagComponentsAndLargeValues() throws IOException {
+        char[] large = new char[200 * 1024];
+        Arrays.fill(large, 'x');
+        List<Segment> segments = Arrays.asList(
+                new Segment(new Tag("ABC", null), Collections.singletonList(new SimpleValue(new String(large)))),
+                new Segment(new Tag("ABC", Arrays.asList(new SimpleValue("1"), new SimpleValue(""))), Collections.emptyList()));
+
+        byte[] bytes = write(segments, Format.X12_DEFAULT);
+        BinarySegmentReader reader = new BinarySegmentReader(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                ReaderOptions.DEFAULT.withNumericInference(false));
+
+        assertThat(reader.readAll()).isEqualTo(segments);
+    }
+
+    @Test
+    void readsMessagesByIndex(@TempDir Path dir) throws IOException {
+        StringBuilder input = new StringBuilder("UNB+UNOC:3+S+R+190425:1200+42'");
+        for (int i = 0; i < 1000; ++i) {
+            input.append("UNH+").append(i).append("+ORDERS'LIN+").append(i).append("'UNT+3+").append(i).append("'");
+        }
+        List<Segment> segments = parse(input.append("UNZ+1000+42'").toString());
+        Path file = dir.resolve("segments.bin");
+        try (BinarySegmentWriter writer = new BinarySegmentWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE), Format.UNEDIFACT_DEFAULT)) {
+            writer.writeAll(segments);
+        }
+
+        try (BinarySegmentReader reader = BinarySegmentReader.open(file)) {
+            assertThat(reader.messageCount()).isEqualTo(1000);
+
+            Message message = reader.readMessage(737);
+
+            assertThat(message.getIndex()).isEqualTo(737);
+            assertThat(message.getSegments()).isEqualTo(segments.subList(1 + 737 * 3, 1 + 738 * 3));
+            assertThat(reader.next()).isEqualTo(segments.get(1 + 738 * 3));
+            assertThat(reader.readMessage(0).getSegments()).isEqualTo(segments.subList(1, 4));
+            assertThatThrownBy(() -> reader.readMessage(1000)).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Test
+    void rejectsRandomAccessOnStreams() throws IOException {
+        byte[] bytes = write(parse(INTERCHANGE), Format.UNEDIFACT_DEFAULT);
+        BinarySegmentReader reader = new BinarySegmentReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+        assertThatThrownBy(reader::messageCount).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void rejectsInvalidInput(@TempDir Path dir) throws IOException {
+        byte[] bytes = write(parse(INTERCHANGE), Format.UNEDIFACT_DEFAULT);
+
+        assertThatThrownBy(() -> new BinarySegmentReader(Channels.newChannel(new ByteArrayInputStream(INTERCHANGE.getBytes(StandardCharsets.ISO_8859_1)))))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Not binary segments, magic number missing.");
+        BinarySegmentReader truncated = new BinarySegmentReader(Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(bytes, 60))));
+        assertThatThrownBy(truncated::readAll).isInstanceOf(IOException.class).hasMessage("Binary segments truncated.");
+
+        Path file = dir.resolve("truncated.bin");
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        try (BinarySegmentReader reader = BinarySegmentReader.open(file)) {
+            assertThatThrownBy(reader::messageCount).isInstanceOf(IOException.class);
+        }
+    }
+
+    private static List<Segment> parse(String input) throws IOException {
+        return new SegmentReader("<unknown>", new StringReader(input), Format.UNEDIFACT_DEFAULT).readAll();
+    }
+
+    private static byte[] write(List<Segment> segments, Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinarySegmentWriter writer = new BinarySegmentWriter(Channels.newChannel(out), format)) {
+            writer.writeAll(new ArrayList<>(segments));
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.edilib.edifact.binding;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static io.github.edilib.edifact.binding.MessageDefinitionTest.segments;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageBinderTest {
+
+    private static final MessageDefinition ORDERS = MessageDefinition.parse("ORDERS", MessageDefinitionTest.ORDERS);
+
+    @Test
+    void bindsValuesAndGroups() throws IOException {
+        MessageBinder<Order> binder = MessageBinder.of(Order.class, ORDERS);
+
+        Order order = binder.bind(segments("UNH+1+ORDERS:D:96A:UN'BGM+220+4500265532+9'"
+                + "DTM+2:20190501:102'DTM+137:20190425:102'"
+                + "NAD+BY+2010::91'CTA+OC+2010:G. Smith'NAD+SU+3010::91'"
+                + "LIN+1++4000862141404:SRS'QTY+21:48.5'LIN+2'UNS+S'UNT+11+1'"));
+
+        assertThat(order.number).isEqualTo("4500265532");
+        assertThat(order.documentType).isEqualTo(220);
+        assertThat(order.date).isEqualTo("20190425");
+        assertThat(order.buyer.id).isEqualTo("2010");
+        assertThat(order.buyer.contact.name).isEqualTo("G. Smith");
+        assertThat(order.lines).extracting(line -> line.number).containsExactly(1L, 2L);
+        assertThat(order.lines.get(0).article).isEqualTo("4000862141404");
+        assertThat(order.lines.get(0).quantity).isEqualTo(new BigDecimal("48.5"));
+        assertThat(order.lines.get(1).quantity).isNull();
+    }
+
+    @Test
+    void rejectsValueNotConvertibleToField() {
+        MessageBinder<Order> binder = MessageBinder.of(Order.class, ORDERS);
+
+        assertThatThrownBy(() -> binder.bind(segments("UNH+1+ORDERS:D:96A:UN'BGM+220+4500265532+9'DTM+137:20190425:102'"
+                + "LIN+1'QTY+21:many'UNS+S'UNT+7+1'")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Value many of QTY 0:1")
+                .hasMessageContaining("quantity");
+    }
+
+    @Test
+    void rejectsSegmentNotInGroup() {
+        assertThatThrownBy(() -> MessageBinder.of(Misplaced.class, ORDERS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Segment NAD");
+    }
+
+    static class Order {
+        @EdiValue(segment = "BGM", element = 1)
+        private String number;
+        @EdiValue(segment = "BGM", element = 0)
+        private int documentType;
+        @EdiValue(segment = "DTM", qualifier = "137", element = 0, component = 1)
+        private String date;
+        @EdiGroup("SG2")
+        private Party buyer;
+        @EdiGroup("SG25")
+        private List<Line> lines;
+    }
+
+    static class Party {
+        @EdiValue(segment = "NAD", element = 1)
+        private String id;
+        @EdiGroup("SG5")
+        private Contact contact;
+    }
+
+    static class Contact {
+        @EdiValue(segment = "CTA", element = 1, component = 1)
+        private String name;
+    }
+
+    static class Line {
+        @EdiValue(segment = "LIN", element = 0)
+        private long number;
+        @EdiValue(segment = "LIN", element = 2)
+        private String article;
+        @EdiValue(segment = "QTY", qualifier = "21", element = 0, component = 1)
+        private BigDecimal quantity;
+    }
+
+    static class Misplaced {
+        @EdiValue(segment = "NAD", element = 1)
+        private String id;
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.edilib.edifact.binding;
+
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.Segment;
+import io.github.edilib.edifact.SegmentReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageDefinitionTest {
+
+    static final String ORDERS = "UNH M 1\n"
+            + "BGM M 1\n"
+            + "DTM M 35\n"
+            + "# parties\n"
+            + "SG2 C 99\n"
+            + "  NAD M 1\n"
+            + "  SG5 C 5\n"
+            + "    CTA M 1\n"
+            + "    COM C 5\n"
+            + "SG25 C 200000\n"
+            + "  LIN M 1\n"
+            + "  QTY C 99\n"
+            + "UNS M 1\n"
+            + "UNT M 1\n";
+
+    private final MessageDefinition definition = MessageDefinition.parse("ORDERS", ORDERS);
+
+    @Test
+    void parsesNestedGroups() {
+        GroupDefinition parties = (GroupDefinition) definition.getRoot().getChild("SG2");
+
+        assertThat(definition.getRoot().getChildren()).extracting(NodeDefinition::getName)
+                .containsExactly("UNH", "BGM", "DTM", "SG2", "SG25", "UNS", "UNT");
+        assertThat(parties.getTriggerTag()).isEqualTo("NAD");
+        assertThat(parties.getMaxOccurs()).isEqualTo(99);
+        assertThat(((GroupDefinition) parties.getChild("SG5")).getChild("COM").isMandatory()).isFalse();
+    }
+
+    @Test
+    void matchesSegmentsIntoGroups() throws IOException {
+        SegmentGroup message = definition.match(segments("UNH+1'BGM+220'DTM+137:20190425:102'"
+                + "NAD+BY'CTA+OC'COM+1:TE'COM+2:FX'NAD+SU'LIN+1'QTY+21:48'LIN+2'UNS+S'UNT+12+1'"));
+
+        assertThat(message.getGroups("SG2")).hasSize(2);
+        assertThat(message.getGroups("SG2").get(0).getGroups("SG5").get(0).getSegments("COM")).hasSize(2);
+        assertThat(message.getGroups("SG25")).extracting(group -> group.getSegments().size()).containsExactly(2, 1);
+        assertThat(message.getSegment("UNT")).isNotNull();
+    }
+
+    @Test
+    void rejectsMissingMandatorySegment() {
+        assertThatThrownBy(() -> definition.match(segments("UNH+1'DTM+137'UNS+S'UNT+4+1'")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Mandatory BGM missing");
+    }
+
+    @Test
+    void rejectsSegmentOutOfPlace() {
+        assertThatThrownBy(() -> definition.match(segments("UNH+1'BGM+220'DTM+137'UNS+S'NAD+BY'UNT+6+1'")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Mandatory UNT missing");
+    }
+
+    @Test
+    void rejectsInvalidLines() {
+        assertThatThrownBy(() -> MessageDefinition.parse("X", "UNH X 1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 1");
+    }
+
+    static List<Segment> segments(String input) throws IOException {
+        return new SegmentReader("<unknown>", new StringReader(input), Format.UNEDIFACT_DEFAULT).readAll();
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.edilib.edifact.internal.scanner;
+
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.Location;
+import io.github.edilib.edifact.ReaderOptions;
+import io.github.edilib.edifact.ValueCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EdiTokenCursorTest {
+
+    private EdiTokenCursor cursor;
+
+    @Test
+    void exposesTokenTextInBuffer() throws IOException {
+        givenCursorInput("ABC+D?+E'");
+
+        thenNextTokenIs(ScannerTokenType.VALUE, "ABC");
+        thenNextTokenIs(ScannerTokenType.DATA_ELEMENT_SEPERATOR, "+");
+        thenNextTokenIs(ScannerTokenType.VALUE, "D+E");
+        thenNextTokenIs(ScannerTokenType.SEGMENT_TERMINATOR, "'");
+        assertThat(cursor.next()).isEqualTo(ScannerTokenType.EOF);
+        assertThat(cursor.stringValue()).isNull();
+    }
+
+    @Test
+    void sharesTagsWithoutValueCache() throws IOException {
+        cursor = new EdiTokenCursor("<unknown>", new StringReader("LIN+1'LIN+1'"), Format.UNEDIFACT_DEFAULT,
+                ReaderOptions.DEFAULT.withValueCache(ValueCache.NONE));
+
+        String firstTag = nextValue();
+        String firstValue = nextValue();
+        String secondTag = nextValue();
+        String secondValue = nextValue();
+
+        assertThat(secondTag).isEqualTo("LIN").isSameAs(firstTag);
+        assertThat(secondValue).isEqualTo("1").isNotSameAs(firstValue);
+    }
+
+    @Test
+    void tracksTokenLocation() throws IOException {
+        givenCursorInput("AB+CD'");
+
+        cursor.next();
+        cursor.next();
+        cursor.next();
+
+        assertThat(cursor.location()).isEqualTo(new Location("<unknown>", 0, 3));
+    }
+
+    @Test
+    void tracksLinesAndColumnsWithoutCreatingLocations() throws IOException {
+        givenCursorInput("UNB+X'\nUNH+1'\nBAD+\n?'");
+
+        while (cursor.next() != ScannerTokenType.EOF) {
+            if (cursor.type() == ScannerTokenType.VALUE && cursor.text().toString().equals("1")) {
+                assertThat(cursor.line()).isEqualTo(1);
+                assertThat(cursor.column()).isEqualTo(4);
+            }
+        }
+
+        assertThat(cursor.location()).isEqualTo(new Location("<unknown>", 3, 2));
+    }
+
+    @Test
+    void treatsUnaOnlyAtSegmentStartAsServiceStringAdvice() throws IOException {
+        givenCursorInput("ABC+UNAVAILABLE'UNA:+.? 'X'");
+
+        thenNextTokenIs(ScannerTokenType.VALUE, "ABC");
+        thenNextTokenIs(ScannerTokenType.DATA_ELEMENT_SEPERATOR, "+");
+        thenNextTokenIs(ScannerTokenType.VALUE, "UNAVAILABLE");
+        thenNextTokenIs(ScannerTokenType.SEGMENT_TERMINATOR, "'");
+        thenNextTokenIs(ScannerTokenType.UNA_TAG, "UNA:+.? '");
+        thenNextTokenIs(ScannerTokenType.VALUE, "X");
+    }
+
+    @Test
+    void growsBufferForLongValues() throws IOException {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            value.append((char) ('A' + i % 26));
+        }
+        givenCursorInput(value + "'");
+
+        thenNextTokenIs(ScannerTokenType.VALUE, value.toString());
+    }
+
+    @Test
+    void skipsRestOfSegmentWithReleasedTerminators() throws IOException {
+        givenCursorInput("ABC+D?'E??'UNA:+.? 'F'");
+
+        thenNextTokenIs(ScannerTokenType.VALUE, "ABC");
+        assertThat(cursor.skipSegment()).isTrue();
+        assertThat(cursor.type()).isEqualTo(ScannerTokenType.SEGMENT_TERMINATOR);
+        thenNextTokenIs(ScannerTokenType.UNA_TAG, "UNA:+.? '");
+        thenNextTokenIs(ScannerTokenType.VALUE, "F");
+        assertThat(cursor.skipSegment()).isTrue();
+        assertThat(cursor.skipSegment()).isFalse();
+        assertThat(cursor.type()).isEqualTo(ScannerTokenType.EOF);
+    }
+
+    private void thenNextTokenIs(ScannerTokenType type, String text) throws IOException {
+        assertThat(cursor.next()).isEqualTo(type);
+        assertThat(new String(cursor.buffer(), cursor.offset(), cursor.length())).isEqualTo(text);
+    }
+
+    private String nextValue() throws IOException {
+        while (cursor.next() != ScannerTokenType.VALUE) {
+            // skip separators
+        }
+        return cursor.stringValue();
+    }
+
+    private void givenCursorInput(String input) {
+        cursor = new EdiTokenCursor("<unknown>", new StringReader(input), Format.UNEDIFACT_DEFAULT);
+    }
+}
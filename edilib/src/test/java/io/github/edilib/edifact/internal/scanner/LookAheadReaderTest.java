@@ -0,0 +1,106 @@
+package io.github.edilib.edifact.internal.scanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LookAheadReaderTest {
+
+    private LookAheadReader reader;
+
+    @Test
+    void readsAcrossRefills() throws IOException {
+        givenReaderInput("UNA:+.? 'UNB+X'", 4);
+
+        assertThat(reader.follows("UNA")).isTrue();
+        assertThat(reader.readNChars(9)).isEqualTo("UNA:+.? '");
+        assertThat(reader.follows("UNB+")).isTrue();
+        assertThat(reader.read()).isEqualTo('U');
+        assertThat(reader.position()).isEqualTo(10L);
+        assertThat(reader.readNChars(5)).isEqualTo("NB+X'");
+        assertThat(reader.peek()).isEqualTo(-1);
+        assertThat(reader.read()).isEqualTo(-1);
+        assertThat(reader.position()).isEqualTo(15L);
+    }
+
+    @Test
+    void countsLinesAcrossRefills() throws IOException {
+        givenReaderInput("AB\nCDE\n\nF", 2);
+
+        assertThat(reader.readNChars(5)).isEqualTo("AB\nCD");
+        assertThat(reader.line()).isEqualTo(1);
+        assertThat(reader.column()).isEqualTo(2);
+        assertThat(reader.readNChars(4)).isEqualTo("E\n\nF");
+        assertThat(reader.line()).isEqualTo(3);
+        assertThat(reader.column()).isEqualTo(1);
+    }
+
+    @Test
+    void countsColumnsBeyondIntRange() throws IOException {
+        givenReaderInput("ABCDEFG\nHI", 4);
+        // as if a single line of more than 2 GB had been read and dropped from the buffer
+        reader.compacted = Integer.MAX_VALUE + 10L;
+
+        assertThat(reader.readNChars(3)).isEqualTo("ABC");
+        assertThat(reader.readNChars(3)).isEqualTo("DEF");
+        assertThat(reader.line()).isZero();
+        assertThat(reader.column()).isEqualTo(Integer.MAX_VALUE + 16L);
+        assertThat(reader.readNChars(4)).isEqualTo("G\nHI");
+        assertThat(reader.line()).isEqualTo(1);
+        assertThat(reader.column()).isEqualTo(2);
+        assertThat(reader.position()).isEqualTo(Integer.MAX_VALUE + 20L);
+    }
+
+    @Test
+    void growsBufferForLongerLookAhead() throws IOException {
+        givenReaderInput("ABCDEFGHIJ", 2);
+
+        assertThat(reader.follows("ABCDEFGHIJ")).isTrue();
+        assertThat(reader.follows("ABCDEFGHIJK")).isFalse();
+        assertThat(reader.readNChars(10)).isEqualTo("ABCDEFGHIJ");
+    }
+
+    @Test
+    void failsOnShortInput() {
+        givenReaderInput("UNA:+", 16);
+
+        assertThatThrownBy(() -> reader.readNChars(9)).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void toleratesReadersReturningSingleChars() throws IOException {
+        reader = new LookAheadReader(new TrickleReader(new StringReader("ABC'")), 8);
+
+        assertThat(reader.follows("ABC'")).isTrue();
+        assertThat(reader.readNChars(4)).isEqualTo("ABC'");
+        assertThat(reader.read()).isEqualTo(-1);
+    }
+
+    private void givenReaderInput(String input, int bufferSize) {
+        reader = new LookAheadReader(new StringReader(input), bufferSize);
+    }
+
+    private static class TrickleReader extends Reader {
+        private final Reader reader;
+
+        TrickleReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return reader.read(cbuf, off, Math.min(1, len));
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.edilib.edifact.internal.text;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringCacheTest {
+
+    private final StringCache cache = new StringCache(16);
+
+    @Test
+    void returnsSameInstanceForEqualChars() {
+        String first = cache.get("NAD".toCharArray(), 0, 3);
+
+        String second = cache.get(new CharArrayView("XNADX".toCharArray(), 1, 3));
+
+        assertThat(second).isEqualTo("NAD").isSameAs(first);
+    }
+
+    @Test
+    void acceptsAnyCharSequence() {
+        String first = cache.get(new StringBuilder("BY"));
+
+        assertThat(cache.get("BY".toCharArray(), 0, 2)).isSameAs(first);
+    }
+
+    @Test
+    void doesNotCacheLongValues() {
+        char[] chars = "THIS VALUE IS LONGER THAN THE LIMIT".toCharArray();
+
+        assertThat(cache.get(chars, 0, chars.length)).isNotSameAs(cache.get(chars, 0, chars.length));
+    }
+
+    @Test
+    void staysBoundedWhenFull() {
+        for (int i = 0; i < 1000; ++i) {
+            char[] chars = Integer.toString(i).toCharArray();
+            assertThat(cache.get(chars, 0, chars.length)).isEqualTo(Integer.toString(i));
+        }
+    }
+}
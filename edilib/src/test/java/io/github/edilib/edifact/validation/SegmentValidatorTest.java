@@ -0,0 +1,137 @@
+package io.github.edilib.edifact.validation;
+
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.ParseError;
+import io.github.edilib.edifact.SegmentReader;
+import io.github.edilib.edifact.binding.MessageDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentValidatorTest {
+
+    private static final MessageDefinition ORDERS = MessageDefinition.parse("ORDERS", "UNH M 1\n"
+            + "BGM M 1\n"
+            + "DTM M 35\n"
+            + "SG2 C 99\n"
+            + "  NAD M 1\n"
+            + "  SG5 C 5\n"
+            + "    CTA M 1\n"
+            + "    COM C 5\n"
+            + "SG25 C 200000\n"
+            + "  LIN M 1\n"
+            + "  QTY M 99\n"
+            + "UNS M 1\n"
+            + "UNT M 1\n");
+
+    @Test
+    void acceptsValidInterchange() throws IOException {
+        List<ParseError> errors = validate("UNA:+.? 'UNB+UNOC:3+SENDER+RECIPIENT+190425:1200+42'"
+                        + "UNH+1+ORDERS:D:96A:UN'BGM+220'DTM+137:20190425:102'NAD+BY'CTA+OC'COM+1:TE'NAD+SU'"
+                        + "LIN+1'QTY+21:48'LIN+2'QTY+21:1'UNS+S'UNT+13+1'"
+                        + "UNH+2+ORDERS:D:96A:UN'BGM+220'DTM+137:20190425:102'UNS+S'UNT+5+2'UNZ+2+42'",
+                new ControlCountRule(), new StructureRule(ORDERS), ValueRule.mandatoryCode("BGM", 0, 0, Arrays.asList("220", "221")));
+
+        assertThat(errors).isEmpty();
+    }
+
+    @Test
+    void reportsWrongControlCounts() throws IOException {
+        List<ParseError> errors = validate("UNB+UNOC:3+S+R+190425:1200+42'UNH+1+ORDERS'BGM+220'UNT+2+7'UNZ+3+41'",
+                new ControlCountRule());
+
+        assertThat(errors).extracting(ParseError::getMessage).containsExactly(
+                "UNT control count 2 does not match 3 segments.",
+                "UNT reference 7 does not match header reference 1.",
+                "UNZ control count 3 does not match 1 messages.",
+                "UNZ reference 41 does not match header reference 42.");
+        assertThat(errors.get(0).getLocation().getColumn()).isEqualTo(58);
+    }
+
+    @Test
+    void countsGroupsAndReportsOpenEnvelopes() throws IOException {
+        List<ParseError> errors = validate("UNB+UNOC:3+S+R+190425:1200+42'UNG+ORDERS+S+R+190425:1200+9'"
+                        + "UNH+1+ORDERS'UNT+2+1'UNH+2+ORDERS'UNT+2+2'UNE+2+9'UNG+ORDERS+S+R+190425:1200+10'UNH+3+ORDERS'",
+                new ControlCountRule());
+
+        assertThat(errors).extracting(ParseError::getMessage).containsExactly(
+                "Message 3 not terminated by UNT.",
+                "Group 10 not terminated by UNE.",
+                "Interchange 42 not terminated by UNZ.");
+    }
+
+    @Test
+    void checksX12Envelopes() throws IOException {
+        List<ParseError> errors = validateX12("ISA*00*          *00*          *ZZ*SENDER         *ZZ*RECEIVER       "
+                        + "*190425*1200*U*00401*000000042*0*P*>~GS*PO*S*R*20190425*1200*7*X*004010~"
+                        + "ST*850*0001~BEG*00*SA*1~SE*3*0001~ST*850*0002~SE*3*0002~GE*2*7~IEA*1*000000042~",
+                new ControlCountRule());
+
+        assertThat(errors).extracting(ParseError::getMessage).containsExactly(
+                "SE control count 3 does not match 2 segments.");
+    }
+
+    @Test
+    void reportsStructureErrorsAndContinues() throws IOException {
+        List<ParseError> errors = validate("UNH+1+ORDERS'BGM+220'NAD+BY'COM+1:TE'CTA+OC'LIN+1'LIN+2'QTY+1'UNT+8+1'"
+                        + "UNH+2+INVOIC'FOO'UNT+3+2'",
+                new StructureRule(ORDERS));
+
+        assertThat(errors).extracting(ParseError::getMessage).containsExactly(
+                "Mandatory DTM missing in ORDERS message.",
+                "Segment COM not allowed here in ORDERS message.",
+                "Mandatory QTY missing in ORDERS message.",
+                "Mandatory UNS missing in ORDERS message.");
+    }
+
+    @Test
+    void reportsRepetitionsBeyondMaximum() throws IOException {
+        List<ParseError> errors = validate("UNH+1+ORDERS'BGM+220'BGM+221'DTM+137'UNS+S'UNT+6+1'",
+                new StructureRule(ORDERS));
+
+        assertThat(errors).extracting(ParseError::getMessage).containsExactly(
+                "Segment BGM not allowed here in ORDERS message.");
+    }
+
+    @Test
+    void checksMandatoryValuesAndCodeLists() throws IOException {
+        List<ParseError> errors = validate("BGM+220'BGM+999'BGM'BGM+:X'NAD+BY'",
+                ValueRule.mandatoryCode("BGM", 0, 0, Arrays.asList("220", "221")),
+                ValueRule.codeList("NAD", 0, 0, Arrays.asList("BY", "SU")));
+
+        assertThat(errors).extracting(ParseError::getMessage).containsExactly(
+                "Value 999 of BGM 0:0 not in code list.",
+                "Mandatory value BGM 0:0 missing.",
+                "Mandatory value BGM 0:0 missing.");
+    }
+
+    @Test
+    void passesSegmentsThrough() throws IOException {
+        SegmentValidator validator = new SegmentValidator(givenReader("UNH+1+ORDERS'UNT+2+1'", Format.UNEDIFACT_DEFAULT),
+                error -> {
+                    throw new AssertionError(error);
+                }, new ControlCountRule());
+
+        assertThat(validator.hasNext()).isTrue();
+        assertThat(validator.next().getTag().getName()).isEqualTo("UNH");
+        assertThat(validator.next().getTag().getName()).isEqualTo("UNT");
+        assertThat(validator.hasNext()).isFalse();
+    }
+
+    private static List<ParseError> validate(String input, ValidationRule... rules) throws IOException {
+        return SegmentValidator.validate(givenReader(input, Format.UNEDIFACT_DEFAULT), rules);
+    }
+
+    private static List<ParseError> validateX12(String input, ValidationRule... rules) throws IOException {
+        return SegmentValidator.validate(givenReader(input, Format.X12_DEFAULT), rules);
+    }
+
+    private static SegmentReader givenReader(String input, Format format) {
+        return new SegmentReader("<unknown>", new StringReader(input), format);
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.edilib.edifact.x12;
+
+import io.github.edilib.edifact.Format;
+import io.github.edilib.edifact.ParseException;
+import io.github.edilib.edifact.SegmentReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionSetReaderTest {
+
+    private static final String ISA = "ISA*00*          *00*          *ZZ*SENDER         *ZZ*RECEIVER       *210101*1200*U*00401*000000007*0*P*>~";
+
+    private static final String SHIP_NOTICE = "ST*856*0001~BSN*00*SHIP1*20210101*1200~"
+            + "HL*1**S~TD1*CTN*2~"
+            + "HL*2*1*O~PRF*PO1~"
+            + "HL*3*2*P~MAN*GM*PALLET1~"
+            + "HL*4*3*I~LIN**VP*ITEM1~SN1**10*EA~"
+            + "HL*5*2*P~MAN*GM*PALLET2~"
+            + "HL*6*5*I~LIN**VP*ITEM2~SN1**5*EA~"
+            + "CTT*6~SE*18*0001~";
+
+    private static final String ORDER = "ST*850*0002~BEG*00*SA*PO2**20210101~PO1*1*10*EA~CTT*1~SE*5*0002~";
+
+    private TransactionSetReader reader;
+
+    @Test
+    void rebuildsLevelTree() throws IOException {
+        givenReader(ISA + "GS*SH*SENDER*RECEIVER*20210101*1200*42*X*004010~" + SHIP_NOTICE + "GE*1*42~IEA*1*000000007~");
+
+        TransactionSet set = reader.readTransactionSet();
+
+        assertThat(set.getType()).isEqualTo("856");
+        assertThat(set.getControlNumber()).isEqualTo("0001");
+        assertThat(set.getHeader()).extracting(segment -> segment.getTag().getName()).containsExactly("ST", "BSN");
+        assertThat(set.getTrailer().getTag().getName()).isEqualTo("SE");
+        assertThat(set.getLevels()).extracting(HierarchicalLevel::getLevelCode).containsExactly("S");
+        HierarchicalLevel order = set.getLevels().get(0).getChildren().get(0);
+        assertThat(order.getChildren()).extracting(HierarchicalLevel::getId).containsExactly("3", "5");
+        HierarchicalLevel item = order.getChildren().get(1).getChildren().get(0);
+        assertThat(item.getId()).isEqualTo("6");
+        assertThat(item.getDepth()).isEqualTo(3);
+        assertThat(item.getSegments()).extracting(segment -> segment.getTag().getName()).containsExactly("HL", "LIN", "SN1");
+        assertThat(set.getSummary()).extracting(segment -> segment.getTag().getName()).containsExactly("CTT");
+        assertThat(reader.readTransactionSet()).isNull();
+    }
+
+    @Test
+    void tracksEnvelope() throws IOException {
+        givenReader(ISA + "GS*SH*SENDER*RECEIVER*20210101*1200*42*X*004010~" + SHIP_NOTICE + "GE*1*42~"
+                + "GS*PO*SENDER*RECEIVER*20210101*1200*43*X*004010~" + ORDER + "GE*1*43~IEA*2*000000007~");
+
+        TransactionSet first = reader.readTransactionSet();
+        TransactionSet second = reader.readTransactionSet();
+
+        assertThat(first.getEnvelope()).isEqualTo(new Envelope("SENDER", "RECEIVER", "000000007", "SH", "42"));
+        assertThat(second.getEnvelope()).isEqualTo(new Envelope("SENDER", "RECEIVER", "000000007", "PO", "43"));
+        assertThat(second.getLevels()).isEmpty();
+        assertThat(second.getHeader()).extracting(segment -> segment.getTag().getName()).containsExactly("ST", "BEG", "PO1");
+        assertThat(second.getSummary()).extracting(segment -> segment.getTag().getName()).containsExactly("CTT");
+    }
+
+    @Test
+    void streamsLevelsWithAncestors() throws IOException {
+        givenReader(SHIP_NOTICE + ORDER);
+        List<String> paths = new ArrayList<>();
+
+        TransactionSet set = reader.nextTransactionSet();
+        HierarchicalLevel level;
+        while ((level = reader.nextLevel()) != null) {
+            StringBuilder path = new StringBuilder(level.getLevelCode());
+            for (HierarchicalLevel parent = level.getParent(); parent != null; parent = parent.getParent()) {
+                path.insert(0, parent.getLevelCode() + "/");
+            }
+            paths.add(path.toString());
+        }
+
+        assertThat(paths).containsExactly("S", "S/O", "S/O/P", "S/O/P/I", "S/O/P", "S/O/P/I");
+        assertThat(set.getLevels()).isEmpty();
+        assertThat(set.getTrailer()).isNotNull();
+        assertThat(set.getEnvelope()).isEqualTo(new Envelope(null, null, null, null, null));
+        assertThat(reader.nextTransactionSet().getType()).isEqualTo("850");
+    }
+
+    @Test
+    void endsLastLevelAtGivenSummaryTags() throws IOException {
+        reader = new TransactionSetReader(new SegmentReader("<unknown>", new StringReader(
+                "ST*810*0003~BIG*20210101*INV3~HL*1**S~IT1*1*10*EA*2.5~TDS*2500~SAC*C*D240~CTT*1~SE*8*0003~"),
+                Format.X12_DEFAULT), Arrays.asList("TDS", "CTT"));
+
+        TransactionSet set = reader.readTransactionSet();
+
+        assertThat(set.getLevels().get(0).getSegments()).extracting(segment -> segment.getTag().getName()).containsExactly("HL", "IT1");
+        assertThat(set.getSummary()).extracting(segment -> segment.getTag().getName()).containsExactly("TDS", "SAC", "CTT");
+        assertThat(set.getTrailer().getTag().getName()).isEqualTo("SE");
+    }
+
+    @Test
+    void skipsRemainingLevels() throws IOException {
+        givenReader(SHIP_NOTICE + ORDER);
+
+        reader.nextTransactionSet();
+        reader.nextLevel();
+
+        assertThat(reader.nextTransactionSet().getControlNumber()).isEqualTo("0002");
+        assertThat(reader.nextLevel()).isNull();
+        assertThat(reader.nextTransactionSet()).isNull();
+    }
+
+    @Test
+    void rejectsParentThatIsNotAnAncestor() {
+        givenReader("ST*856*0001~HL*1**S~HL*2*1*O~HL*3*9*P~SE*5*0001~");
+
+        assertThatThrownBy(() -> reader.readTransactionSet())
+                .isInstanceOf(ParseException.class)
+                .hasMessage("Parent 9 of HL 3 is not an enclosing level in transaction set 0001.");
+    }
+
+    @Test
+    void rejectsUnterminatedTransactionSet() {
+        givenReader("ST*856*0001~HL*1**S~TD1*CTN*2~");
+
+        assertThatThrownBy(() -> reader.readTransactionSet())
+                .isInstanceOf(ParseException.class)
+                .hasMessage("Transaction set 0001 not terminated by SE.");
+    }
+
+    private void givenReader(String input) {
+        reader = new TransactionSetReader(new SegmentReader("<unknown>", new StringReader(input), Format.X12_DEFAULT));
+    }
+}